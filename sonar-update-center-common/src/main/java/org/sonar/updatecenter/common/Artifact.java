@@ -19,11 +19,15 @@
  */
 package org.sonar.updatecenter.common;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
@@ -31,7 +35,12 @@ public abstract class Artifact implements Comparable<Artifact> {
 
   protected String key;
   protected SortedSet<Release> releases = new TreeSet<>();
+  // immutable mirror of releases, to find a release by version without iterating. Dropped when releases change, and
+  // rebuilt when releases is modified directly.
+  private volatile Map<Version, Release> releasesByVersion;
   private Release devRelease;
+  private volatile CompatibilityIndex compatibilityIndex;
+  private volatile Views views;
 
   protected Artifact(String key) {
     this.key = key;
@@ -48,6 +57,7 @@ public abstract class Artifact implements Comparable<Artifact> {
 
   public final Release setDevRelease(Release release) {
     devRelease = release;
+    releasesChanged();
     return release;
   }
 
@@ -57,6 +67,7 @@ public abstract class Artifact implements Comparable<Artifact> {
 
   public final Release addRelease(Release release) {
     releases.add(release);
+    releasesChanged();
     return release;
   }
 
@@ -71,21 +82,43 @@ public abstract class Artifact implements Comparable<Artifact> {
    * @throws java.util.NoSuchElementException if release could not be found
    */
   public final Release getRelease(Version version, @Nullable Product product) {
-    for (Release release : getAllReleases(product)) {
-      if (release.getVersion().equals(version)) {
-        return release;
-      }
+    Release release = findRelease(version, product);
+    if (release == null) {
+      throw new NoSuchElementException("Unable to find a release of plugin " + key + " with version " + version);
     }
-    throw new NoSuchElementException("Unable to find a release of plugin " + key + " with version " + version);
+    return release;
   }
 
   public boolean doesContainVersion(Version version) {
-    for (Release release : getAllReleases()) {
-      if (release.getVersion().equals(version)) {
-        return true;
+    return findRelease(version, null) != null;
+  }
+
+  /**
+   * Same lookup as iterating over {@link #getAllReleases(Product)}, without building the set.
+   */
+  @CheckForNull
+  private Release findRelease(Version version, @Nullable Product product) {
+    Release release = releasesByVersion().get(version);
+    if (release != null && release.getProduct() == product) {
+      return release;
+    }
+    if (devRelease != null && devRelease.getVersion().equals(version)) {
+      return devRelease;
+    }
+    return null;
+  }
+
+  private Map<Version, Release> releasesByVersion() {
+    Map<Version, Release> byVersion = releasesByVersion;
+    if (byVersion == null || byVersion.size() != releases.size()) {
+      Map<Version, Release> map = new HashMap<>();
+      for (Release release : releases) {
+        map.put(release.getVersion(), release);
       }
+      byVersion = Collections.unmodifiableMap(map);
+      releasesByVersion = byVersion;
     }
-    return false;
+    return byVersion;
   }
 
   /**
@@ -111,11 +144,19 @@ public abstract class Artifact implements Comparable<Artifact> {
    * Don't include dev version.
    */
   public final SortedSet<Release> getReleases() {
-    return releases;
+    return Collections.unmodifiableSortedSet(releases);
   }
 
   public final SortedSet<Release> getReleases(@Nullable Product product) {
-    return releases.stream().filter(r -> r.getProduct() == product).collect(TreeSet::new, TreeSet::add, TreeSet::addAll);
+    return view(View.RELEASES, product, () -> {
+      SortedSet<Release> result = new TreeSet<>();
+      for (Release release : releases) {
+        if (release.getProduct() == product) {
+          result.add(release);
+        }
+      }
+      return result;
+    });
   }
 
   /**
@@ -139,13 +180,15 @@ public abstract class Artifact implements Comparable<Artifact> {
    * @return both public and private versions but not archived versions
    */
   public final SortedSet<Version> getVersions() {
-    SortedSet<Version> versions = new TreeSet<>();
-    for (Release release : releases) {
-      if (!release.isArchived()) {
-        versions.add(release.getVersion());
+    return view(View.VERSIONS, null, () -> {
+      SortedSet<Version> versions = new TreeSet<>();
+      for (Release release : releases) {
+        if (!release.isArchived()) {
+          versions.add(release.getVersion());
+        }
       }
-    }
-    return versions;
+      return versions;
+    });
   }
 
   public final SortedSet<Version> getPublicVersions() {
@@ -153,53 +196,63 @@ public abstract class Artifact implements Comparable<Artifact> {
   }
 
   public final SortedSet<Version> getPublicVersions(@Nullable Product product) {
-    SortedSet<Version> versions = new TreeSet<>();
-    for (Release release : releases) {
-      if (release.getProduct() == product && release.isPublic()) {
-        versions.add(release.getVersion());
+    return view(View.PUBLIC_VERSIONS, product, () -> {
+      SortedSet<Version> versions = new TreeSet<>();
+      for (Release release : releases) {
+        if (release.getProduct() == product && release.isPublic()) {
+          versions.add(release.getVersion());
+        }
       }
-    }
-    return versions;
+      return versions;
+    });
   }
 
   public final SortedSet<Release> getPublicReleases() {
-    SortedSet<Release> publicReleases = new TreeSet<>();
-    for (Release release : releases) {
-      if (release.isPublic()) {
-        publicReleases.add(release);
+    return view(View.PUBLIC_RELEASES, null, () -> {
+      SortedSet<Release> publicReleases = new TreeSet<>();
+      for (Release release : releases) {
+        if (release.isPublic()) {
+          publicReleases.add(release);
+        }
       }
-    }
-    return publicReleases;
+      return publicReleases;
+    });
   }
 
   public final SortedSet<Release> getArchivedReleases() {
-    SortedSet<Release> archivedReleases = new TreeSet<>();
-    for (Release release : releases) {
-      if (release.isArchived()) {
-        archivedReleases.add(release);
+    return view(View.ARCHIVED_RELEASES, null, () -> {
+      SortedSet<Release> archivedReleases = new TreeSet<>();
+      for (Release release : releases) {
+        if (release.isArchived()) {
+          archivedReleases.add(release);
+        }
       }
-    }
-    return archivedReleases;
+      return archivedReleases;
+    });
   }
 
   public final SortedSet<Version> getPrivateVersions() {
-    SortedSet<Version> versions = new TreeSet<>();
-    for (Release release : releases) {
-      if (!release.isPublic() && !release.isArchived()) {
-        versions.add(release.getVersion());
+    return view(View.PRIVATE_VERSIONS, null, () -> {
+      SortedSet<Version> versions = new TreeSet<>();
+      for (Release release : releases) {
+        if (!release.isPublic() && !release.isArchived()) {
+          versions.add(release.getVersion());
+        }
       }
-    }
-    return versions;
+      return versions;
+    });
   }
 
   public final SortedSet<Version> getArchivedVersions() {
-    SortedSet<Version> versions = new TreeSet<>();
-    for (Release release : releases) {
-      if (release.isArchived()) {
-        versions.add(release.getVersion());
+    return view(View.ARCHIVED_VERSIONS, null, () -> {
+      SortedSet<Version> versions = new TreeSet<>();
+      for (Release release : releases) {
+        if (release.isArchived()) {
+          versions.add(release.getVersion());
+        }
       }
-    }
-    return versions;
+      return versions;
+    });
   }
 
   @CheckForNull
@@ -209,7 +262,8 @@ public abstract class Artifact implements Comparable<Artifact> {
 
   @CheckForNull
   public final Release getLastRelease(@Nullable Product product) {
-    return getReleases(product).isEmpty() ? null : getReleases(product).last();
+    SortedSet<Release> productReleases = getReleases(product);
+    return productReleases.isEmpty() ? null : productReleases.last();
   }
 
   @CheckForNull
@@ -219,13 +273,7 @@ public abstract class Artifact implements Comparable<Artifact> {
 
   @CheckForNull
   public final Release getLastCompatible(Version version, Product product) {
-    Release result = null;
-    for (Release r : getReleases()) {
-      if (r.supportSonarVersion(version, product)) {
-        result = r;
-      }
-    }
-    return result;
+    return compatibilityIndex().getLastCompatible(version, product);
   }
 
   /**
@@ -233,13 +281,7 @@ public abstract class Artifact implements Comparable<Artifact> {
    */
   @CheckForNull
   public final Release getLastCompatibleIncludingDev(Version sonarVersion, Product product) {
-    Release result = null;
-    for (Release r : getAllReleases()) {
-      if (r.supportSonarVersion(sonarVersion, product)) {
-        result = r;
-      }
-    }
-    return result;
+    return compatibilityIndex().getLastCompatibleIncludingDev(sonarVersion, product);
   }
 
   /**
@@ -247,12 +289,61 @@ public abstract class Artifact implements Comparable<Artifact> {
    */
   @CheckForNull
   public final Release getFirstCompatible(Version sonarVersion, Product product) {
-    for (Release r : getAllReleases()) {
-      if (r.supportSonarVersion(sonarVersion, product)) {
-        return r;
-      }
+    return compatibilityIndex().getFirstCompatible(sonarVersion, product);
+  }
+
+  /**
+   * Built on first use, and rebuilt after releases or their compatible SonarQube versions are modified.
+   */
+  private CompatibilityIndex compatibilityIndex() {
+    CompatibilityIndex index = compatibilityIndex;
+    if (index == null || index.getReleaseCount() != releases.size()) {
+      index = new CompatibilityIndex(getReleases(), getAllReleases());
+      compatibilityIndex = index;
+    }
+    return index;
+  }
+
+  /**
+   * Drops the cached views and indexes. Called when releases are added, or when a release changes.
+   */
+  final void releasesChanged() {
+    releasesByVersion = null;
+    compatibilityIndex = null;
+    views = null;
+  }
+
+  /**
+   * @return the unmodifiable view, computed on first call and kept until releases change
+   */
+  @SuppressWarnings("unchecked")
+  private <T> SortedSet<T> view(View view, @Nullable Product product, Supplier<SortedSet<T>> computation) {
+    Views cached = views;
+    if (cached == null || cached.releaseCount != releases.size()) {
+      cached = new Views(releases.size());
+      views = cached;
+    }
+    int slot = view.ordinal() * (Product.values().length + 1) + (product == null ? 0 : (product.ordinal() + 1));
+    SortedSet<T> result = (SortedSet<T>) cached.sets.get(slot);
+    if (result == null) {
+      result = Collections.unmodifiableSortedSet(computation.get());
+      cached.sets.set(slot, result);
+    }
+    return result;
+  }
+
+  private enum View {
+    RELEASES, ALL_RELEASES, MAJOR_RELEASES, VERSIONS, PUBLIC_VERSIONS, PRIVATE_VERSIONS, ARCHIVED_VERSIONS, PUBLIC_RELEASES, ARCHIVED_RELEASES
+  }
+
+  private static class Views {
+    // number of releases the views were computed from, to detect releases added without addRelease()
+    private final int releaseCount;
+    private final AtomicReferenceArray<SortedSet<?>> sets = new AtomicReferenceArray<>(View.values().length * (Product.values().length + 1));
+
+    private Views(int releaseCount) {
+      this.releaseCount = releaseCount;
     }
-    return null;
   }
 
   @CheckForNull
@@ -284,12 +375,13 @@ public abstract class Artifact implements Comparable<Artifact> {
   }
 
   public SortedSet<Release> getAllReleases(@Nullable Product product) {
-    SortedSet<Release> all = new TreeSet<>();
-    all.addAll(getReleases(product));
-    if (getDevRelease() != null) {
-      all.add(getDevRelease());
-    }
-    return all;
+    return view(View.ALL_RELEASES, product, () -> {
+      SortedSet<Release> all = new TreeSet<>(getReleases(product));
+      if (getDevRelease() != null) {
+        all.add(getDevRelease());
+      }
+      return all;
+    });
   }
 
   /**
@@ -300,12 +392,14 @@ public abstract class Artifact implements Comparable<Artifact> {
   }
 
   public SortedSet<Release> getMajorReleases(@Nullable Product product) {
-    Map<String, Release> majorVersions = new LinkedHashMap<>();
-    for (Release sq : getAllReleases(product)) {
-      String displayVersion = sq.getVersion().getMajor() + "." + sq.getVersion().getMinor();
-      majorVersions.put(displayVersion, sq);
-    }
-    return new TreeSet<>(majorVersions.values());
+    return view(View.MAJOR_RELEASES, product, () -> {
+      Map<String, Release> majorVersions = new LinkedHashMap<>();
+      for (Release sq : getAllReleases(product)) {
+        String displayVersion = sq.getVersion().getMajor() + "." + sq.getVersion().getMinor();
+        majorVersions.put(displayVersion, sq);
+      }
+      return new TreeSet<>(majorVersions.values());
+    });
   }
 
   @Override
@@ -0,0 +1,101 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * For each product and SonarQube version, the first and last releases of an artifact that support it. SonarQube versions
+ * are compared ignoring their qualifier, like {@link Release#supportSonarVersion(Version, Product)} does.
+ */
+final class CompatibilityIndex {
+
+  private final Map<Product, NavigableMap<Version, Compatible>> byProduct = new EnumMap<>(Product.class);
+  private final int releaseCount;
+
+  /**
+   * @param releases releases without the dev one, see {@link Artifact#getReleases()}
+   * @param allReleases releases including the dev one, see {@link Artifact#getAllReleases()}
+   */
+  CompatibilityIndex(SortedSet<Release> releases, SortedSet<Release> allReleases) {
+    this.releaseCount = releases.size();
+    for (Product product : Product.values()) {
+      NavigableMap<Version, Compatible> bySonarVersion = new TreeMap<>(Version::compareToIgnoreQualifier);
+      for (Release release : releases) {
+        for (Version sonarVersion : release.productToVersions(product)) {
+          bySonarVersion.computeIfAbsent(sonarVersion, v -> new Compatible()).last = release;
+        }
+      }
+      for (Release release : allReleases) {
+        for (Version sonarVersion : release.productToVersions(product)) {
+          Compatible compatible = bySonarVersion.computeIfAbsent(sonarVersion, v -> new Compatible());
+          compatible.lastIncludingDev = release;
+          if (compatible.first == null) {
+            compatible.first = release;
+          }
+        }
+      }
+      byProduct.put(product, bySonarVersion);
+    }
+  }
+
+  /**
+   * Number of releases the index was built from, to detect releases added without {@link Artifact#addRelease(Release)}
+   */
+  int getReleaseCount() {
+    return releaseCount;
+  }
+
+  @CheckForNull
+  Release getLastCompatible(Version sonarVersion, @Nullable Product product) {
+    Compatible compatible = get(sonarVersion, product);
+    return compatible == null ? null : compatible.last;
+  }
+
+  @CheckForNull
+  Release getLastCompatibleIncludingDev(Version sonarVersion, @Nullable Product product) {
+    Compatible compatible = get(sonarVersion, product);
+    return compatible == null ? null : compatible.lastIncludingDev;
+  }
+
+  @CheckForNull
+  Release getFirstCompatible(Version sonarVersion, @Nullable Product product) {
+    Compatible compatible = get(sonarVersion, product);
+    return compatible == null ? null : compatible.first;
+  }
+
+  @CheckForNull
+  private Compatible get(Version sonarVersion, @Nullable Product product) {
+    NavigableMap<Version, Compatible> bySonarVersion = product == null ? null : byProduct.get(product);
+    return bySonarVersion == null ? null : bySonarVersion.get(sonarVersion);
+  }
+
+  private static class Compatible {
+    private Release last;
+    private Release lastIncludingDev;
+    private Release first;
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
+import org.sonar.updatecenter.common.exception.DependencyCycleException;
+
+/**
+ * Dependencies between releases. Releases are indexed by int and edges are stored in adjacency arrays, in both
+ * directions. A topological order, where required releases come first, is maintained incrementally as edges are
+ * added (Pearce-Kelly): only the releases located between the two ends of a new edge in that order are visited, and
+ * a cycle is detected as soon as the edge closing it is added.
+ */
+final class DependencyGraph {
+
+  private static final int[] NO_EDGES = new int[0];
+
+  private final Map<Release, Integer> idsByRelease = new HashMap<>();
+  private Release[] releases = new Release[16];
+  private int[][] requirements = new int[16][];
+  private int[] requirementCounts = new int[16];
+  private int[][] dependents = new int[16][];
+  private int[] dependentCounts = new int[16];
+  /**
+   * position of each release in the topological order
+   */
+  private int[] ord = new int[16];
+  private int[] marks = new int[16];
+  private int[] parents = new int[16];
+  private int epoch;
+  private int size;
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Adds the release at the end of the order if it is not known yet
+   */
+  int add(Release release) {
+    Integer id = idsByRelease.get(release);
+    if (id != null) {
+      return id;
+    }
+    ensureCapacity(size + 1);
+    int newId = size;
+    size++;
+    idsByRelease.put(release, newId);
+    releases[newId] = release;
+    requirements[newId] = NO_EDGES;
+    dependents[newId] = NO_EDGES;
+    ord[newId] = newId;
+    return newId;
+  }
+
+  /**
+   * @throws DependencyCycleException if {@code required} already depends, directly or not, on {@code release}. The
+   * graph is left unchanged in this case.
+   */
+  void addDependency(Release release, Release required) {
+    List<Release> cycle = tryAddDependency(release, required);
+    if (cycle != null) {
+      String releaseKeys = cycle.stream()
+        .map(rel -> rel.getArtifact().getKey())
+        .collect(Collectors.joining("', '"));
+      throw new DependencyCycleException("There is a dependency cycle between plugins '" + releaseKeys + "' that must be cut.");
+    }
+  }
+
+  /**
+   * @return null if the dependency was added, else the releases of the cycle it would close, starting from
+   * {@code required} and ending with {@code release}. The graph is left unchanged in this case.
+   */
+  @CheckForNull
+  List<Release> tryAddDependency(Release release, Release required) {
+    int from = add(release);
+    int to = add(required);
+    if (from == to) {
+      return List.of(release);
+    }
+    int lowerBound = ord[from];
+    int upperBound = ord[to];
+    if (upperBound > lowerBound) {
+      int[] forward = collectDependents(from, to, upperBound);
+      if (forward == null) {
+        return cycle(from, to);
+      }
+      int[] backward = collectRequirements(to, lowerBound);
+      reorder(backward, forward);
+    }
+    link(from, to);
+    return null;
+  }
+
+  /**
+   * @return the releases, required ones first
+   */
+  List<Release> topologicalOrder() {
+    // positions are always a permutation of the ids
+    Release[] ordered = new Release[size];
+    for (int id = 0; id < size; id++) {
+      ordered[ord[id]] = releases[id];
+    }
+    return Arrays.asList(ordered);
+  }
+
+  /**
+   * Releases depending on {@code from} and located before {@code upperBound} in the order, or null if {@code to} is
+   * one of them
+   */
+  @CheckForNull
+  private int[] collectDependents(int from, int to, int upperBound) {
+    epoch++;
+    IntStack stack = new IntStack();
+    IntStack visited = new IntStack();
+    marks[from] = epoch;
+    parents[from] = -1;
+    stack.push(from);
+    while (!stack.isEmpty()) {
+      int node = stack.pop();
+      visited.push(node);
+      for (int i = 0; i < dependentCounts[node]; i++) {
+        int dependent = dependents[node][i];
+        if (dependent == to) {
+          parents[to] = node;
+          return null;
+        }
+        if (marks[dependent] != epoch && ord[dependent] < upperBound) {
+          marks[dependent] = epoch;
+          parents[dependent] = node;
+          stack.push(dependent);
+        }
+      }
+    }
+    return visited.toArray();
+  }
+
+  /**
+   * Releases required by {@code to} and located after {@code lowerBound} in the order
+   */
+  private int[] collectRequirements(int to, int lowerBound) {
+    epoch++;
+    IntStack stack = new IntStack();
+    IntStack visited = new IntStack();
+    marks[to] = epoch;
+    stack.push(to);
+    while (!stack.isEmpty()) {
+      int node = stack.pop();
+      visited.push(node);
+      for (int i = 0; i < requirementCounts[node]; i++) {
+        int requirement = requirements[node][i];
+        if (marks[requirement] != epoch && ord[requirement] > lowerBound) {
+          marks[requirement] = epoch;
+          stack.push(requirement);
+        }
+      }
+    }
+    return visited.toArray();
+  }
+
+  /**
+   * Moves the requirements before the dependents, reusing their positions in the order
+   */
+  private void reorder(int[] backward, int[] forward) {
+    sortByOrd(backward);
+    sortByOrd(forward);
+    int[] positions = new int[backward.length + forward.length];
+    for (int i = 0; i < backward.length; i++) {
+      positions[i] = ord[backward[i]];
+    }
+    for (int i = 0; i < forward.length; i++) {
+      positions[backward.length + i] = ord[forward[i]];
+    }
+    Arrays.sort(positions);
+    for (int i = 0; i < backward.length; i++) {
+      ord[backward[i]] = positions[i];
+    }
+    for (int i = 0; i < forward.length; i++) {
+      ord[forward[i]] = positions[backward.length + i];
+    }
+  }
+
+  private void sortByOrd(int[] ids) {
+    long[] keys = new long[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      keys[i] = ((long) ord[ids[i]] << 32) | ids[i];
+    }
+    Arrays.sort(keys);
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = (int) keys[i];
+    }
+  }
+
+  private List<Release> cycle(int from, int to) {
+    List<Release> cycle = new ArrayList<>();
+    for (int node = to; node != -1; node = parents[node]) {
+      cycle.add(releases[node]);
+      if (node == from) {
+        break;
+      }
+    }
+    return cycle;
+  }
+
+  private void link(int from, int to) {
+    requirements[from] = append(requirements[from], requirementCounts[from], to);
+    requirementCounts[from]++;
+    dependents[to] = append(dependents[to], dependentCounts[to], from);
+    dependentCounts[to]++;
+  }
+
+  private static int[] append(int[] edges, int count, int id) {
+    int[] result = edges;
+    if (count == edges.length) {
+      result = Arrays.copyOf(edges, Math.max(4, count * 2));
+    }
+    result[count] = id;
+    return result;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > releases.length) {
+      int newLength = Math.max(capacity, releases.length * 2);
+      releases = Arrays.copyOf(releases, newLength);
+      requirements = Arrays.copyOf(requirements, newLength);
+      requirementCounts = Arrays.copyOf(requirementCounts, newLength);
+      dependents = Arrays.copyOf(dependents, newLength);
+      dependentCounts = Arrays.copyOf(dependentCounts, newLength);
+      ord = Arrays.copyOf(ord, newLength);
+      marks = Arrays.copyOf(marks, newLength);
+      parents = Arrays.copyOf(parents, newLength);
+    }
+  }
+
+  private static final class IntStack {
+    private int[] values = new int[16];
+    private int count;
+
+    void push(int value) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count] = value;
+      count++;
+    }
+
+    int pop() {
+      count--;
+      return values[count];
+    }
+
+    boolean isEmpty() {
+      return count == 0;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, count);
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import javax.annotation.CheckForNull;
+
+/**
+ * Reads the manifest of a JAR file without opening it with {@link JarFile}. The End Of Central Directory record and
+ * the central directory are memory-mapped to locate {@code META-INF/MANIFEST.MF}, then only this entry is read and
+ * inflated. Archives that are not supported, for example ZIP64 ones, are read with {@link JarFile}.
+ */
+final class JarManifestReader {
+
+  private static final int EOCD_SIGNATURE = 0x06054b50;
+  private static final int EOCD_MIN_SIZE = 22;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+  private static final int CEN_SIGNATURE = 0x02014b50;
+  private static final int CEN_HEADER_SIZE = 46;
+  private static final int LOC_SIGNATURE = 0x04034b50;
+  private static final int LOC_HEADER_SIZE = 30;
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+  private static final int ENCRYPTED_FLAG = 1;
+  private static final byte[] MANIFEST_NAME = JarFile.MANIFEST_NAME.getBytes(StandardCharsets.UTF_8);
+
+  private JarManifestReader() {
+    // only static methods
+  }
+
+  /**
+   * @return the manifest, or null if the JAR does not contain any
+   */
+  @CheckForNull
+  static Manifest read(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      byte[] manifest = readManifestEntry(channel);
+      return manifest == null ? null : new Manifest(new ByteArrayInputStream(manifest));
+    } catch (UnsupportedArchiveException e) {
+      return readWithJarFile(file);
+    }
+  }
+
+  @CheckForNull
+  static Manifest readWithJarFile(File file) throws IOException {
+    try (JarFile jar = new JarFile(file)) {
+      return jar.getManifest();
+    }
+  }
+
+  @CheckForNull
+  private static byte[] readManifestEntry(FileChannel channel) throws IOException {
+    long fileSize = channel.size();
+    if (fileSize < EOCD_MIN_SIZE) {
+      throw new ZipException("zip file is empty");
+    }
+    long tailOffset = Math.max(0, fileSize - EOCD_MIN_SIZE - MAX_COMMENT_SIZE);
+    MappedByteBuffer tail = map(channel, tailOffset, fileSize - tailOffset);
+    int eocd = findEndOfCentralDirectory(tail);
+
+    int entries = Short.toUnsignedInt(tail.getShort(eocd + 10));
+    long centralDirectorySize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+    long centralDirectoryOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+    if (entries == 0xFFFF || centralDirectorySize == 0xFFFFFFFFL || centralDirectoryOffset == 0xFFFFFFFFL) {
+      throw new UnsupportedArchiveException("ZIP64");
+    }
+    if (centralDirectoryOffset + centralDirectorySize > fileSize) {
+      // prefixed archive, for example a self-extracting one
+      throw new UnsupportedArchiveException("invalid central directory offset");
+    }
+
+    MappedByteBuffer centralDirectory = map(channel, centralDirectoryOffset, centralDirectorySize);
+    int manifestHeader = findManifestHeader(centralDirectory, entries);
+    if (manifestHeader < 0) {
+      return null;
+    }
+    return readEntry(channel, centralDirectory, manifestHeader);
+  }
+
+  private static int findEndOfCentralDirectory(ByteBuffer tail) throws ZipException {
+    for (int i = tail.limit() - EOCD_MIN_SIZE; i >= 0; i--) {
+      if (tail.getInt(i) == EOCD_SIGNATURE) {
+        return i;
+      }
+    }
+    throw new ZipException("zip END header not found");
+  }
+
+  /**
+   * @return the position of the central directory header of the manifest, or -1 if not found. As {@link JarFile},
+   * an exact match is preferred, then the name is compared ignoring case.
+   */
+  private static int findManifestHeader(ByteBuffer centralDirectory, int entries) throws ZipException {
+    int ignoringCase = -1;
+    int position = 0;
+    for (int i = 0; i < entries; i++) {
+      if (position + CEN_HEADER_SIZE > centralDirectory.limit() || centralDirectory.getInt(position) != CEN_SIGNATURE) {
+        throw new ZipException("invalid CEN header (bad signature)");
+      }
+      int nameLength = Short.toUnsignedInt(centralDirectory.getShort(position + 28));
+      int extraLength = Short.toUnsignedInt(centralDirectory.getShort(position + 30));
+      int commentLength = Short.toUnsignedInt(centralDirectory.getShort(position + 32));
+      if (nameLength == MANIFEST_NAME.length) {
+        int match = compareName(centralDirectory, position + CEN_HEADER_SIZE);
+        if (match == EXACT) {
+          return position;
+        }
+        if (match == IGNORING_CASE && ignoringCase < 0) {
+          ignoringCase = position;
+        }
+      }
+      position += CEN_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return ignoringCase;
+  }
+
+  private static final int DIFFERENT = 0;
+  private static final int EXACT = 1;
+  private static final int IGNORING_CASE = 2;
+
+  private static int compareName(ByteBuffer buffer, int offset) {
+    int result = EXACT;
+    for (int i = 0; i < MANIFEST_NAME.length; i++) {
+      byte b = buffer.get(offset + i);
+      if (b != MANIFEST_NAME[i]) {
+        if (Character.toUpperCase((char) (b & 0xFF)) != MANIFEST_NAME[i]) {
+          return DIFFERENT;
+        }
+        result = IGNORING_CASE;
+      }
+    }
+    return result;
+  }
+
+  private static byte[] readEntry(FileChannel channel, ByteBuffer centralDirectory, int header) throws IOException {
+    int flags = Short.toUnsignedInt(centralDirectory.getShort(header + 8));
+    int method = Short.toUnsignedInt(centralDirectory.getShort(header + 10));
+    long compressedSize = Integer.toUnsignedLong(centralDirectory.getInt(header + 20));
+    long size = Integer.toUnsignedLong(centralDirectory.getInt(header + 24));
+    long localHeaderOffset = Integer.toUnsignedLong(centralDirectory.getInt(header + 42));
+    if ((flags & ENCRYPTED_FLAG) != 0 || compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || size > Integer.MAX_VALUE
+      || localHeaderOffset == 0xFFFFFFFFL) {
+      throw new UnsupportedArchiveException("unsupported manifest entry");
+    }
+
+    MappedByteBuffer localHeader = map(channel, localHeaderOffset, LOC_HEADER_SIZE);
+    if (localHeader.getInt(0) != LOC_SIGNATURE) {
+      throw new ZipException("invalid LOC header (bad signature)");
+    }
+    long dataOffset = localHeaderOffset + LOC_HEADER_SIZE + Short.toUnsignedInt(localHeader.getShort(26))
+      + Short.toUnsignedInt(localHeader.getShort(28));
+    MappedByteBuffer data = map(channel, dataOffset, compressedSize);
+
+    byte[] bytes = new byte[(int) size];
+    if (method == STORED) {
+      data.get(bytes);
+    } else if (method == DEFLATED) {
+      inflate(data, bytes);
+    } else {
+      throw new UnsupportedArchiveException("unsupported compression method " + method);
+    }
+    return bytes;
+  }
+
+  private static void inflate(ByteBuffer compressed, byte[] bytes) throws ZipException {
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(compressed);
+      int length = 0;
+      while (length < bytes.length) {
+        int inflated = inflater.inflate(bytes, length, bytes.length - length);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          throw new ZipException("invalid manifest entry size");
+        }
+        length += inflated;
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException(e.getMessage());
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+    if (position < 0 || size < 0 || position + size > channel.size()) {
+      throw new ZipException("invalid zip entry offset");
+    }
+    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    return buffer;
+  }
+
+  private static class UnsupportedArchiveException extends IOException {
+    private UnsupportedArchiveException(String message) {
+      super(message);
+    }
+  }
+}
@@ -23,7 +23,6 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Date;
 import java.util.jar.Attributes;
-import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
@@ -117,13 +116,14 @@ public final class PluginManifest {
   private String[] requiredForLanguages;
 
   /**
-   * Load the manifest from a JAR file.
+   * Load the manifest from a JAR file. Only the manifest entry is read, the archive is not opened with {@link java.util.jar.JarFile}.
    */
   public PluginManifest(File file) throws IOException {
     this();
-    try (JarFile jar = new JarFile(file)) {
-      if (jar.getManifest() != null) {
-        loadManifest(jar.getManifest());
+    try {
+      Manifest manifest = JarManifestReader.read(file);
+      if (manifest != null) {
+        loadManifest(manifest);
       }
     } catch (Exception e) {
       throw new IllegalStateException("Unable to read plugin manifest from jar : " + file.getAbsolutePath(), e);
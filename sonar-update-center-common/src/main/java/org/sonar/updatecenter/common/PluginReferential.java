@@ -20,13 +20,13 @@
 package org.sonar.updatecenter.common;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
-import org.sonar.updatecenter.common.exception.DependencyCycleException;
 import org.sonar.updatecenter.common.exception.IncompatiblePluginVersionException;
 import org.sonar.updatecenter.common.exception.PluginNotFoundException;
 
@@ -37,9 +37,13 @@ public class PluginReferential {
   static final Set<String> PLUGINS_BUNDLED_IN_LTS = new HashSet<>(asList("license", "java", "xml"));
 
   private final Set<Plugin> plugins;
+  private final Map<String, Plugin> pluginsByKey;
+  private final DependencyGraph dependencyGraph;
 
   private PluginReferential() {
     this.plugins = new TreeSet<>();
+    this.pluginsByKey = new HashMap<>();
+    this.dependencyGraph = new DependencyGraph();
   }
 
   public static PluginReferential create(List<Plugin> pluginList) {
@@ -71,24 +75,20 @@ public class PluginReferential {
    * @throws NoSuchElementException if plugin could not be found
    */
   public Plugin findPlugin(String key) {
-    return plugins.stream()
-      .filter(plugin -> plugin.getKey().equals(key))
-      .findFirst()
-      .orElseThrow(() -> new NoSuchElementException("Unable to find plugin with key " + key));
+    Plugin plugin = pluginsByKey.get(key);
+    if (plugin == null) {
+      throw new NoSuchElementException("Unable to find plugin with key " + key);
+    }
+    return plugin;
   }
 
   public boolean doesContainPlugin(String key) {
-    return plugins.stream()
-      .anyMatch(plugin -> plugin.getKey().equals(key));
+    return pluginsByKey.containsKey(key);
   }
 
   public boolean doesContainRelease(final String key, Version version) {
-    for (Plugin plugin : plugins) {
-      if (plugin.getKey().equals(key) && plugin.doesContainVersion(version)) {
-        return true;
-      }
-    }
-    return false;
+    Plugin plugin = pluginsByKey.get(key);
+    return plugin != null && plugin.doesContainVersion(version);
   }
 
   public List<String> findLastReleasesWithDependencies(String pluginKey) {
@@ -120,9 +120,9 @@ public class PluginReferential {
       Plugin requiredPlugin = findPlugin(requiredPluginReleaseKey);
       Release minimalRequiredRelease = requiredPlugin.getMinimalRelease(Version.create(requiredMinimumReleaseVersion));
       if (minimalRequiredRelease != null) {
+        dependencyGraph.addDependency(release, minimalRequiredRelease);
         release.addOutgoingDependency(minimalRequiredRelease);
         minimalRequiredRelease.addIncomingDependency(release);
-        checkDependencyCycle(release);
       } else {
         Release latest = requiredPlugin.getLastRelease();
         if (latest != null) {
@@ -135,28 +135,6 @@ public class PluginReferential {
     }
   }
 
-  private static void checkDependencyCycle(Release release) {
-    List<Release> releases = new ArrayList<>();
-    try {
-      checkDependencyCycle(release, releases);
-    } catch (DependencyCycleException e) {
-      String releaseKeys = releases.stream()
-        .map(rel -> rel.getArtifact().getKey())
-        .collect(Collectors.joining("', '"));
-      throw new DependencyCycleException("There is a dependency cycle between plugins '" + releaseKeys + "' that must be cut.", e);
-    }
-  }
-
-  private static void checkDependencyCycle(Release release, List<Release> releases) {
-    for (Release outgoingDependency : release.getOutgoingDependencies()) {
-      if (releases.contains(outgoingDependency)) {
-        throw new DependencyCycleException();
-      }
-      releases.add(outgoingDependency);
-      checkDependencyCycle(outgoingDependency, releases);
-    }
-  }
-
   List<Release> getLastMasterReleases() {
     List<Release> releases = new ArrayList<>();
     for (Plugin plugin : getLastMasterReleasePlugins()) {
@@ -166,7 +144,9 @@ public class PluginReferential {
   }
 
   private PluginReferential add(Plugin plugin) {
-    this.plugins.add(plugin);
+    if (this.plugins.add(plugin)) {
+      this.pluginsByKey.put(plugin.getKey(), plugin);
+    }
     return this;
   }
 
@@ -0,0 +1,117 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+
+/**
+ * Update center properties, indexed once by their first key segment (usually the key of a plugin or scanner), so that
+ * the fields of a component are looked up without concatenating its key. Each value is stored once: keys without any
+ * dot in {@code properties}, the others in the fields of their component. Unlike {@link Properties}, not synchronized.
+ */
+final class PropertyIndex {
+
+  private final Map<String, String> properties = new HashMap<>();
+  private final Map<String, Map<String, String>> byComponent = new HashMap<>();
+
+  private PropertyIndex() {
+    // use of()
+  }
+
+  static PropertyIndex of(Properties props) {
+    PropertyIndex index = new PropertyIndex();
+    for (String key : props.stringPropertyNames()) {
+      index.put(key, props.getProperty(key));
+    }
+    return index;
+  }
+
+  /**
+   * Adds the properties of a component, loaded from its own file, as if each key was prefixed by the component key
+   */
+  PropertyIndex putAll(String component, Properties props) {
+    if (component.indexOf('.') >= 0) {
+      // the component key is not the first key segment, fields are indexed under the remaining key
+      for (String field : props.stringPropertyNames()) {
+        put(component + "." + field, props.getProperty(field));
+      }
+      return this;
+    }
+    Map<String, String> fields = byComponent.computeIfAbsent(component, k -> new HashMap<>());
+    for (String field : props.stringPropertyNames()) {
+      fields.put(field, props.getProperty(field));
+    }
+    return this;
+  }
+
+  private void put(String key, String value) {
+    int dot = key.indexOf('.');
+    if (dot > 0) {
+      byComponent.computeIfAbsent(key.substring(0, dot), k -> new HashMap<>()).put(key.substring(dot + 1), value);
+    } else {
+      properties.put(key, value);
+    }
+  }
+
+  /**
+   * @return a new set of the full keys, components fields being prefixed by the key of their component
+   */
+  Set<String> keys() {
+    Set<String> keys = new HashSet<>(properties.keySet());
+    byComponent.forEach((component, fields) -> fields.keySet().forEach(field -> keys.add(component + "." + field)));
+    return keys;
+  }
+
+  @CheckForNull
+  String get(String key) {
+    int dot = key.indexOf('.');
+    return dot > 0 ? get(key.substring(0, dot), key.substring(dot + 1)) : properties.get(key);
+  }
+
+  boolean contains(String key) {
+    int dot = key.indexOf('.');
+    return dot > 0 ? contains(key.substring(0, dot), key.substring(dot + 1)) : properties.containsKey(key);
+  }
+
+  /**
+   * Same as {@code get(component + "." + field)}
+   */
+  @CheckForNull
+  String get(String component, String field) {
+    return fields(component).get(field);
+  }
+
+  /**
+   * Same as {@code contains(component + "." + field)}
+   */
+  boolean contains(String component, String field) {
+    return fields(component).containsKey(field);
+  }
+
+  private Map<String, String> fields(String component) {
+    return byComponent.getOrDefault(component, Collections.emptyMap());
+  }
+}
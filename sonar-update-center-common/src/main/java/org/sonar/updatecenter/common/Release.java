@@ -115,6 +115,7 @@ public class Release implements Comparable<Release> {
 
   public Release setVersion(Version version) {
     this.version = version;
+    releaseChanged();
     return this;
   }
 
@@ -146,6 +147,13 @@ public class Release implements Comparable<Release> {
     return value == null ? null : value.toString();
   }
 
+  /**
+   * Whether the download URL of this edition was set, even to null
+   */
+  boolean isDownloadUrlSet(Edition edition) {
+    return downloadUrl.containsKey(edition);
+  }
+
   public Release setDownloadUrl(@Nullable String downloadUrlString, Edition edition) {
     URL transformedDownloadUrl = toUrl(downloadUrlString);
     this.downloadUrl.put(edition, transformedDownloadUrl);
@@ -207,6 +215,7 @@ public class Release implements Comparable<Release> {
   public Release addRequiredSonarVersions(Product product, @Nullable Version... versions) {
     if (versions != null) {
       productToVersions(product).addAll(Arrays.asList(versions));
+      releaseChanged();
     }
     return this;
   }
@@ -216,6 +225,7 @@ public class Release implements Comparable<Release> {
       for (String v : versions) {
         productToVersions(product).add(Version.create(v));
       }
+      releaseChanged();
     }
     return this;
   }
@@ -328,6 +338,7 @@ public class Release implements Comparable<Release> {
 
   public void setPublic(boolean isPublic) {
     this.isPublic = isPublic;
+    releaseChanged();
   }
 
   public boolean isArchived() {
@@ -336,6 +347,7 @@ public class Release implements Comparable<Release> {
 
   public void setArchived(boolean isArchived) {
     this.isArchived = isArchived;
+    releaseChanged();
   }
 
   @CheckForNull
@@ -372,9 +384,16 @@ public class Release implements Comparable<Release> {
 
   public Release setProduct(Product product) {
     this.product = product;
+    releaseChanged();
     return this;
   }
 
+  private void releaseChanged() {
+    if (artifact != null) {
+      artifact.releasesChanged();
+    }
+  }
+
   @Override
   public int hashCode() {
     int result = artifact.hashCode();
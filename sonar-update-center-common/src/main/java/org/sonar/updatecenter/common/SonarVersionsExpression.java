@@ -0,0 +1,154 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Parsed value of a sqVersions property: a comma-separated list of versions ({@code 9.9}), the {@code LATEST} keyword,
+ * wildcards ({@code 9.*}) and ranges of these ({@code [9.9,LATEST]}).
+ */
+final class SonarVersionsExpression {
+
+  static final String LATEST_KEYWORD = "LATEST";
+  private static final String WILDCARD = "*";
+
+  private final List<Element> elements;
+
+  private SonarVersionsExpression(List<Element> elements) {
+    this.elements = Collections.unmodifiableList(elements);
+  }
+
+  static SonarVersionsExpression parse(@Nullable String expression) {
+    List<Element> elements = new ArrayList<>();
+    for (String element : split(StringUtils.defaultString(expression))) {
+      elements.add(parseElement(element));
+    }
+    return new SonarVersionsExpression(elements);
+  }
+
+  List<Element> getElements() {
+    return elements;
+  }
+
+  private static Element parseElement(String element) {
+    if (element.length() >= 2 && element.charAt(0) == '[' && element.charAt(element.length() - 1) == ']') {
+      String content = element.substring(1, element.length() - 1);
+      int comma = content.lastIndexOf(',');
+      if (comma >= 0) {
+        return new Element(element, new Bound(content.substring(0, comma)), new Bound(content.substring(comma + 1)));
+      }
+      return new Element(element, null, new Bound(content));
+    }
+    return new Element(element, null, new Bound(element));
+  }
+
+  /**
+   * Splits on commas that are not inside brackets
+   */
+  private static List<String> split(String expression) {
+    List<String> result = new ArrayList<>();
+    int depth = 0;
+    int start = 0;
+    for (int i = 0; i < expression.length(); i++) {
+      char c = expression.charAt(i);
+      if (c == ',' && depth == 0) {
+        result.add(expression.substring(start, i));
+        start = i + 1;
+      } else if (c == '[') {
+        depth++;
+      } else if (c == ']') {
+        depth--;
+      }
+    }
+    String last = expression.substring(start);
+    if (StringUtils.isNotBlank(last)) {
+      result.add(last);
+    }
+    return result;
+  }
+
+  /**
+   * A single version, or a range when {@link #getLow()} is not null
+   */
+  static final class Element {
+    private final String text;
+    private final Bound low;
+    private final Bound high;
+
+    private Element(String text, @Nullable Bound low, Bound high) {
+      this.text = text;
+      this.low = low;
+      this.high = high;
+    }
+
+    String getText() {
+      return text;
+    }
+
+    boolean isRange() {
+      return low != null;
+    }
+
+    @CheckForNull
+    Bound getLow() {
+      return low;
+    }
+
+    /**
+     * Upper bound of the range, or the version itself
+     */
+    Bound getHigh() {
+      return high;
+    }
+  }
+
+  static final class Bound {
+    private final String text;
+
+    private Bound(String text) {
+      this.text = text;
+    }
+
+    String getText() {
+      return text;
+    }
+
+    boolean isLatest() {
+      return LATEST_KEYWORD.equals(text);
+    }
+
+    boolean isWildcard() {
+      return text.endsWith(WILDCARD);
+    }
+
+    /**
+     * For {@code 9.*}, {@code 9.}
+     */
+    String getWildcardPrefix() {
+      return text.substring(0, text.length() - WILDCARD.length());
+    }
+  }
+}
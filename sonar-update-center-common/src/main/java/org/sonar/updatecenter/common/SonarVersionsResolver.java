@@ -0,0 +1,212 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.sonar.updatecenter.common.SonarVersionsExpression.Bound;
+import org.sonar.updatecenter.common.SonarVersionsExpression.Element;
+import org.sonar.updatecenter.common.exception.SonarVersionRangeException;
+
+/**
+ * Resolves the sqVersions of plugin releases against the SonarQube releases. As many releases declare the same
+ * expressions, for example {@code [9.9,LATEST]}, results are kept per expression and product.
+ * <p>
+ * The SonarQube versions of each product are copied at construction into a sorted array, in which ranges, LATEST and
+ * wildcards are resolved by binary search. Releases added to {@link Sonar} afterwards are ignored. Thread-safe.
+ */
+final class SonarVersionsResolver {
+
+  private static final Version[] NO_VERSIONS = new Version[0];
+  private static final int MAX_WILDCARD_PARTS = 4;
+
+  private final Sonar sonar;
+  private final VersionPool versions;
+  private final Map<Product, Map<String, Version[]>> resolved = new EnumMap<>(Product.class);
+  /**
+   * Versions of {@link Sonar#getAllReleases(Product)}, in the same order
+   */
+  private final Map<Product, Version[]> sortedVersions = new EnumMap<>(Product.class);
+
+  SonarVersionsResolver(Sonar sonar, VersionPool versions) {
+    this.sonar = sonar;
+    this.versions = versions;
+    for (Product product : Product.values()) {
+      resolved.put(product, new ConcurrentHashMap<>());
+      sortedVersions.put(product, sonar.getAllReleases(product).stream()
+        .filter(Objects::nonNull)
+        .map(Release::getVersion)
+        .filter(Objects::nonNull)
+        .toArray(Version[]::new));
+    }
+  }
+
+  Sonar getSonar() {
+    return sonar;
+  }
+
+  /**
+   * @param pluginKey only used in error messages
+   * @throws SonarVersionRangeException if a range is invalid
+   * @throws IllegalStateException if a wildcard matches no SonarQube version
+   */
+  Version[] resolve(@Nullable String expression, Product product, String pluginKey) {
+    if (StringUtils.isEmpty(expression)) {
+      return NO_VERSIONS;
+    }
+    Map<String, Version[]> byExpression = resolved.get(product);
+    Version[] result = byExpression.get(expression);
+    if (result == null) {
+      // errors are not kept, as their message refers to the plugin
+      result = resolve(SonarVersionsExpression.parse(expression), product, pluginKey);
+      byExpression.putIfAbsent(expression, result);
+    }
+    return result.clone();
+  }
+
+  private Version[] resolve(SonarVersionsExpression expression, Product product, String pluginKey) {
+    List<Version> result = new ArrayList<>();
+    for (Element element : expression.getElements()) {
+      if (element.isRange()) {
+        Version low = resolveLowVersion(element.getLow(), element.getText(), pluginKey);
+        Version high = resolveKeywordAndStar(element.getHigh(), product, pluginKey);
+        resolveRange(result, low, high, product);
+      } else {
+        result.add(resolveKeywordAndStar(element.getHigh(), product, pluginKey));
+      }
+    }
+    return result.toArray(NO_VERSIONS);
+  }
+
+  private void resolveRange(List<Version> result, Version low, Version high, Product product) {
+    Version[] sorted = sortedVersions.get(product);
+    for (int i = firstIndexNotBefore(sorted, low, false); i < sorted.length && sorted[i].compareTo(high) <= 0; i++) {
+      Version version = sorted[i];
+      String fromString;
+      if (version.equals(low)) {
+        fromString = low.getFromString();
+      } else if (version.equals(high)) {
+        fromString = high.getFromString();
+      } else {
+        fromString = "";
+      }
+      result.add(versions.create(version, fromString));
+    }
+  }
+
+  /**
+   * @return index of the first version greater than or equal to the given one, or the length of the array
+   */
+  private static int firstIndexNotBefore(Version[] sorted, Version version, boolean ignoreQualifier) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int c = ignoreQualifier ? sorted[middle].compareToIgnoreQualifier(version) : sorted[middle].compareTo(version);
+      if (c < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private Version resolveLowVersion(Bound low, String range, String pluginKey) {
+    if (low.isLatest()) {
+      throw new SonarVersionRangeException(String.format(
+        "Cannot use LATEST keyword at the start of a range in '%s' (in plugin '%s'). Use 'sqVersions=LATEST' instead.",
+        range,
+        pluginKey
+      ));
+    }
+
+    if (low.isWildcard()) {
+      throw new SonarVersionRangeException(String.format(
+        "Cannot use a wildcard version at the start of a range in '%s' (in plugin '%s'). " +
+          "If you want to mark this range as compatible with any MAJOR.MINOR.* version, use the MAJOR.MINOR version instead " +
+          "(e.g.: 'sqVersions=[6.7,6.7.*]', 'sqVersions=[6.7,LATEST]').",
+        range,
+        pluginKey
+      ));
+    }
+
+    return versions.create(low.getText());
+  }
+
+  private Version resolveKeywordAndStar(Bound bound, Product product, String pluginKey) {
+    if (bound.isLatest()) {
+      Version[] sorted = sortedVersions.get(product);
+      if (sorted.length == 0) {
+        throw new NoSuchElementException("No SonarQube version for product " + product);
+      }
+      return versions.create(sorted[sorted.length - 1], SonarVersionsExpression.LATEST_KEYWORD);
+    } else if (bound.isWildcard()) {
+      return resolveWithWildcard(bound, product, pluginKey);
+    }
+    return versions.create(bound.getText());
+  }
+
+  private Version resolveWithWildcard(Bound bound, Product product, String pluginKey) {
+    String prefix = bound.getWildcardPrefix();
+    String prefixWithoutDot = prefix.endsWith(".") ? prefix.substring(0, prefix.length() - 1) : prefix;
+    Version[] sorted = sortedVersions.get(product);
+    int from = 0;
+    int to = sorted.length;
+    String[] parts = StringUtils.split(prefixWithoutDot, '.');
+    if (prefix.endsWith(".") && parts.length > 0 && parts.length <= MAX_WILDCARD_PARTS && isNumeric(parts)) {
+      // for 10.1.* only versions between 10.1 (included) and 10.2 (excluded) can match
+      parts[parts.length - 1] = String.valueOf(Long.parseLong(parts[parts.length - 1]) + 1);
+      from = firstIndexNotBefore(sorted, Version.create(prefixWithoutDot), true);
+      to = firstIndexNotBefore(sorted, Version.create(String.join(".", parts)), true);
+    }
+    Version found = null;
+    for (int i = to - 1; i >= from && found == null; i--) {
+      String name = sorted[i].toString();
+      if (name.equals(prefixWithoutDot) || name.startsWith(prefix)) {
+        found = sorted[i];
+      }
+    }
+    if (found != null) {
+      return versions.create(found, "*");
+    } else {
+      throw new IllegalStateException(String.format("Unable to resolve version '%s' (in plugin '%s')", bound.getText(), pluginKey));
+    }
+  }
+
+  /**
+   * @return true if all the parts are compared by {@link Version} as numbers, so that the last one can be incremented
+   */
+  private static boolean isNumeric(String[] parts) {
+    for (String part : parts) {
+      if (!StringUtils.isNumeric(part) || part.length() > Version.MAX_NUMERIC_DIGITS) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -19,14 +19,20 @@
  */
 package org.sonar.updatecenter.common;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
@@ -156,56 +162,88 @@ public class UpdateCenter {
   }
 
   /**
-   * Return all releases to download (including outgoing dependencies and installed incoming dependencies) to install / update a plugin
+   * Return all releases to download (including outgoing dependencies and installed incoming dependencies) to install / update a plugin,
+   * in installation order: required plugins come before the plugins requiring them
    */
   public List<Release> findInstallablePlugins(String pluginKey, Version minimumVersion) {
-    Set<Release> installablePlugins = new HashSet<>();
-    Set<Release> checkedPlugins = new HashSet<>();
-    addInstallablePlugins(pluginKey, minimumVersion, installablePlugins, checkedPlugins);
-    return new ArrayList<>(installablePlugins);
+    Map<String, Release> installablePlugins = new HashMap<>();
+    Set<String> checkedPlugins = new HashSet<>();
+    // depth-first, in the same order as a recursive traversal
+    Deque<Release> toCheck = new ArrayDeque<>();
+    pushDependencies(checkInstallablePlugin(pluginKey, minimumVersion, installablePlugins, checkedPlugins), toCheck);
+    while (!toCheck.isEmpty()) {
+      Release dependency = toCheck.pop();
+      Release pluginRelease = checkInstallablePlugin(dependency.getArtifact().getKey(), dependency.getVersion(), installablePlugins, checkedPlugins);
+      pushDependencies(pluginRelease, toCheck);
+    }
+    return installOrder(installablePlugins);
   }
 
-  private void addInstallablePlugins(String pluginKey, Version minimumVersion, Set<Release> installablePlugins,
-    Set<Release> checkedPlugins) {
+  /**
+   * @return the release to install for the plugin, or null if the plugin was already checked or has no compatible release
+   */
+  @CheckForNull
+  private Release checkInstallablePlugin(String pluginKey, Version minimumVersion, Map<String, Release> installablePlugins,
+    Set<String> checkedPlugins) {
+    if (checkedPlugins.contains(pluginKey)) {
+      return null;
+    }
+    Release pluginRelease;
     try {
-      if (!contain(pluginKey, installablePlugins) && !contain(pluginKey, checkedPlugins)) {
-        Plugin plugin = updateCenterPluginReferential.findPlugin(pluginKey);
-        Release pluginRelease = plugin.getLastCompatible(installedSonarVersion, installedSonarProduct);
-        if (pluginRelease != null) {
-          if (pluginRelease.getVersion().compareTo(minimumVersion) < 0) {
-            throw new IncompatiblePluginVersionException("Plugin " + pluginKey + " is needed to be installed at version greater or equal "
-              + minimumVersion);
-          }
-          addInstallableRelease(pluginRelease, installablePlugins, checkedPlugins);
-        }
-      }
+      pluginRelease = updateCenterPluginReferential.findPlugin(pluginKey).getLastCompatible(installedSonarVersion, installedSonarProduct);
     } catch (NoSuchElementException e) {
       throw new PluginNotFoundException("Needed plugin '" + pluginKey + "' version " + minimumVersion + " not found.");
     }
+    if (pluginRelease == null) {
+      return null;
+    }
+    if (pluginRelease.getVersion().compareTo(minimumVersion) < 0) {
+      throw new IncompatiblePluginVersionException("Plugin " + pluginKey + " is needed to be installed at version greater or equal "
+        + minimumVersion);
+    }
+    checkedPlugins.add(pluginKey);
+    if (!isInstalled(pluginRelease)) {
+      installablePlugins.put(pluginKey, pluginRelease);
+    }
+    return pluginRelease;
   }
 
-  private void addInstallableRelease(Release pluginRelease, Set<Release> installablePlugins, Set<Release> checkedPlugins) {
-    addReleaseIfNotAlreadyInstalled(pluginRelease, installablePlugins);
-    checkedPlugins.add(pluginRelease);
-    for (Release outgoingDependency : pluginRelease.getOutgoingDependencies()) {
-      addInstallablePlugins(outgoingDependency.getArtifact().getKey(), outgoingDependency.getVersion(), installablePlugins, checkedPlugins);
+  private void pushDependencies(@Nullable Release pluginRelease, Deque<Release> toCheck) {
+    if (pluginRelease == null) {
+      return;
     }
+    List<Release> dependencies = new ArrayList<>(pluginRelease.getOutgoingDependencies());
     for (Release incomingDependency : pluginRelease.getIncomingDependencies()) {
-      String pluginKey = incomingDependency.getArtifact().getKey();
-      if (isInstalled(pluginKey)) {
-        addInstallablePlugins(pluginKey, incomingDependency.getVersion(), installablePlugins, checkedPlugins);
+      if (isInstalled(incomingDependency.getArtifact().getKey())) {
+        dependencies.add(incomingDependency);
       }
     }
+    for (int i = dependencies.size() - 1; i >= 0; i--) {
+      toCheck.push(dependencies.get(i));
+    }
   }
 
-  private static boolean contain(final String pluginKey, Set<Release> installablePlugins) {
-    return installablePlugins.stream().anyMatch(input -> input.getKey().equals(pluginKey));
-  }
-
-  private void addReleaseIfNotAlreadyInstalled(Release release, Set<Release> installablePlugins) {
-    if (!isInstalled(release)) {
-      installablePlugins.add(release);
+  /**
+   * Releases are added by key, so that ties are always broken the same way. A dependency that would close a cycle
+   * between the selected releases is ignored for ordering.
+   */
+  private static List<Release> installOrder(Map<String, Release> installablePlugins) {
+    DependencyGraph graph = new DependencyGraph();
+    List<String> keys = new ArrayList<>(installablePlugins.keySet());
+    Collections.sort(keys);
+    for (String key : keys) {
+      graph.add(installablePlugins.get(key));
     }
+    for (String key : keys) {
+      Release release = installablePlugins.get(key);
+      for (Release outgoingDependency : release.getOutgoingDependencies()) {
+        Release required = installablePlugins.get(outgoingDependency.getArtifact().getKey());
+        if (required != null) {
+          graph.tryAddDependency(release, required);
+        }
+      }
+    }
+    return new ArrayList<>(graph.topologicalOrder());
   }
 
   public List<SonarUpdate> findSonarUpdates() {
@@ -268,15 +306,9 @@ public class UpdateCenter {
   }
 
   private void searchCompatiblePluginUpgrade(Release sonarRelease, SonarUpdate update, Release installedRelease, Plugin plugin) {
-    boolean ok = false;
-    Release compatibleRelease = null;
-    for (Release greaterPluginRelease : plugin.getReleasesGreaterThan(installedRelease.getVersion(), null)) {
-      if (greaterPluginRelease.supportSonarVersion(sonarRelease.getVersion(), installedSonarProduct)) {
-        compatibleRelease = greaterPluginRelease;
-        ok = true;
-      }
-    }
-    if (ok) {
+    // releases greater than the installed one are the last ones, so the last compatible release is the candidate
+    Release compatibleRelease = plugin.getLastCompatibleIncludingDev(sonarRelease.getVersion(), installedSonarProduct);
+    if (compatibleRelease != null && compatibleRelease.getVersion().compareToIgnoreQualifier(installedRelease.getVersion()) > 0) {
       update.addPluginToUpgrade(compatibleRelease);
     } else {
       update.addIncompatiblePlugin(plugin);
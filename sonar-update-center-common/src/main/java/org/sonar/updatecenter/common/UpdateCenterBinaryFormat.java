@@ -0,0 +1,701 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Compact binary form of a resolved {@link UpdateCenter}, that is loaded without parsing nor validating properties.
+ * <p/>
+ * Layout, integers being big-endian and missing values being written as -1:
+ * <pre>
+ * header        magic, format version, date, installed product, offset of each of the following sections
+ * strings       count, then length and UTF-8 bytes of each string
+ * versions      count, then name and fromString of each version, as string indexes
+ * releases      count, offset of each release in the section, then the releases
+ * sonar         releases as release indexes, dev release, LTA and past LTA versions
+ * plugins       count, key and offset of each plugin in the section, then the plugins
+ * scanners      same as plugins
+ * dependencies  count, then pairs of release indexes: the release and the release it requires
+ * </pre>
+ * Enums are written as ordinals, so {@link #FORMAT_VERSION} must be increased when they change.
+ */
+final class UpdateCenterBinaryFormat {
+
+  static final int MAGIC = 0x53515543;
+  static final int FORMAT_VERSION = 1;
+
+  private static final int NONE = -1;
+  // download URL of an edition never set, as opposed to explicitly set to null
+  private static final int ABSENT = -2;
+  private static final long NO_DATE = Long.MIN_VALUE;
+  private static final byte RELEASE = 0;
+  private static final byte SONAR_RELEASE = 1;
+  private static final byte PUBLIC = 1;
+  private static final byte ARCHIVED = 2;
+
+  private static final int STRINGS = 0;
+  private static final int VERSIONS = 1;
+  private static final int RELEASES = 2;
+  private static final int SONAR = 3;
+  private static final int PLUGINS = 4;
+  private static final int SCANNERS = 5;
+  private static final int DEPENDENCIES = 6;
+  private static final int SECTION_COUNT = 7;
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 1 + 4 * SECTION_COUNT;
+
+  private static final Release.Edition[] EDITIONS = Release.Edition.values();
+  private static final Product[] PRODUCTS = Product.values();
+
+  private UpdateCenterBinaryFormat() {
+    // only static methods
+  }
+
+  static byte[] write(UpdateCenter center) {
+    try {
+      return new Writer().write(center);
+    } catch (IOException e) {
+      // only in-memory streams are used
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * No validation is done, the buffer is expected to be written by {@link #write(UpdateCenter)}
+   *
+   * @throws IllegalStateException if the buffer is not an update center in the supported format version
+   */
+  static UpdateCenter read(ByteBuffer buffer) {
+    return new Reader(buffer).readAll();
+  }
+
+  private static final class Writer {
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final List<String> stringList = new ArrayList<>();
+    private final Map<String, Integer> versions = new HashMap<>();
+    private final List<Version> versionList = new ArrayList<>();
+    private final Map<Release, Integer> releases = new IdentityHashMap<>();
+    private final List<Release> releaseList = new ArrayList<>();
+
+    private byte[] write(UpdateCenter center) throws IOException {
+      Sonar sonar = center.getSonar();
+      List<Plugin> plugins = center.getUpdateCenterPluginReferential().getPlugins();
+      List<Scanner> scanners = center.getScanners();
+      indexReleases(sonar);
+      plugins.forEach(this::indexReleases);
+      scanners.forEach(this::indexReleases);
+
+      byte[][] sections = new byte[SECTION_COUNT][];
+      sections[RELEASES] = releasesSection();
+      sections[SONAR] = sonarSection(sonar);
+      sections[PLUGINS] = componentsSection(plugins);
+      sections[SCANNERS] = componentsSection(scanners);
+      sections[DEPENDENCIES] = dependenciesSection();
+      // strings and versions are known once everything else is written
+      sections[VERSIONS] = versionsSection();
+      sections[STRINGS] = stringsSection();
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      Date date = center.getDate();
+      out.writeLong(date == null ? NO_DATE : date.getTime());
+      Product product = center.getInstalledSonarProduct();
+      out.writeByte(product == null ? NONE : product.ordinal());
+      int offset = HEADER_SIZE;
+      for (byte[] section : sections) {
+        out.writeInt(offset);
+        offset += section.length;
+      }
+      for (byte[] section : sections) {
+        out.write(section);
+      }
+      return bytes.toByteArray();
+    }
+
+    private void indexReleases(Artifact artifact) {
+      // releases of all products, unlike getAllReleases()
+      artifact.getReleases().forEach(this::indexRelease);
+      if (artifact.getDevRelease() != null) {
+        indexRelease(artifact.getDevRelease());
+      }
+    }
+
+    private void indexRelease(Release release) {
+      if (!releases.containsKey(release)) {
+        releases.put(release, releaseList.size());
+        releaseList.add(release);
+      }
+    }
+
+    private int string(@Nullable String s) {
+      if (s == null) {
+        return NONE;
+      }
+      return strings.computeIfAbsent(s, k -> {
+        stringList.add(k);
+        return stringList.size() - 1;
+      });
+    }
+
+    private int version(@Nullable Version version) {
+      if (version == null) {
+        return NONE;
+      }
+      return versions.computeIfAbsent(version.getName() + '\0' + version.getFromString(), k -> {
+        versionList.add(version);
+        return versionList.size() - 1;
+      });
+    }
+
+    private int release(@Nullable Release release) {
+      if (release == null) {
+        return NONE;
+      }
+      Integer index = releases.get(release);
+      if (index == null) {
+        throw new IllegalStateException("Release " + release.getKey() + " " + release.getVersion() + " is not part of the update center");
+      }
+      return index;
+    }
+
+    private byte[] stringsSection() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(stringList.size());
+      for (String s : stringList) {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+      }
+      return bytes.toByteArray();
+    }
+
+    private byte[] versionsSection() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(versionList.size());
+      for (Version version : versionList) {
+        out.writeInt(string(version.getName()));
+        out.writeInt(string(version.getFromString()));
+      }
+      return bytes.toByteArray();
+    }
+
+    private byte[] releasesSection() throws IOException {
+      List<byte[]> records = new ArrayList<>();
+      for (Release release : releaseList) {
+        records.add(releaseRecord(release));
+      }
+      return indexedSection(records, null);
+    }
+
+    private byte[] releaseRecord(Release release) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(release instanceof SonarRelease ? SONAR_RELEASE : RELEASE);
+      out.writeInt(version(release.getVersion()));
+      out.writeInt(string(release.getDisplayVersion()));
+      out.writeInt(string(release.getDescription()));
+      out.writeInt(string(release.getChangelogUrl()));
+      out.writeByte((release.isPublic() ? PUBLIC : 0) | (release.isArchived() ? ARCHIVED : 0));
+      out.writeInt(string(release.groupId()));
+      out.writeInt(string(release.artifactId()));
+      out.writeByte(release.getProduct() == null ? NONE : release.getProduct().ordinal());
+      Date date = release.getDate();
+      out.writeLong(date == null ? NO_DATE : date.getTime());
+      for (Release.Edition edition : EDITIONS) {
+        out.writeInt(release.isDownloadUrlSet(edition) ? string(release.getDownloadUrl(edition)) : ABSENT);
+      }
+      List<Map.Entry<String, URL>> flavors = release.getScannerDownloadUrl();
+      out.writeInt(flavors.size());
+      for (int order = 0; order < flavors.size(); order++) {
+        Map.Entry<String, URL> flavor = flavors.get(order);
+        out.writeInt(string(flavor.getKey()));
+        out.writeInt(string(release.getFlavorLabel(flavor.getKey())));
+        out.writeInt(string(flavor.getValue() == null ? null : flavor.getValue().toString()));
+        out.writeInt(order);
+      }
+      for (Product product : PRODUCTS) {
+        Set<Version> required = release.productToVersions(product);
+        out.writeInt(required.size());
+        for (Version version : required) {
+          out.writeInt(version(version));
+        }
+      }
+      return bytes.toByteArray();
+    }
+
+    private byte[] sonarSection(Sonar sonar) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      writeReleases(out, sonar);
+      out.writeInt(version(sonar.getLtaVersion() == null ? null : sonar.getLtaVersion().getVersion()));
+      out.writeInt(version(sonar.getPastLtaVersion() == null ? null : sonar.getPastLtaVersion().getVersion()));
+      return bytes.toByteArray();
+    }
+
+    private void writeReleases(DataOutputStream out, Artifact artifact) throws IOException {
+      Set<Release> artifactReleases = artifact.getReleases();
+      out.writeInt(artifactReleases.size());
+      for (Release release : artifactReleases) {
+        out.writeInt(release(release));
+      }
+      out.writeInt(release(artifact.getDevRelease()));
+    }
+
+    private byte[] componentsSection(List<? extends Component> components) throws IOException {
+      List<byte[]> records = new ArrayList<>();
+      List<String> keys = new ArrayList<>();
+      for (Component component : components) {
+        records.add(componentRecord(component));
+        keys.add(component.getKey());
+      }
+      return indexedSection(records, keys);
+    }
+
+    private byte[] componentRecord(Component component) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(string(component.getName()));
+      out.writeInt(string(component.getDescription()));
+      out.writeInt(string(component.getHomepageUrl()));
+      out.writeInt(string(component.getLicense()));
+      out.writeInt(string(component.getOrganization()));
+      out.writeInt(string(component.getOrganizationUrl()));
+      out.writeInt(string(component.getTermsConditionsUrl()));
+      out.writeInt(string(component.getCategory()));
+      out.writeInt(string(component.getIssueTrackerUrl()));
+      out.writeInt(string(component.getSourcesUrl()));
+      List<String> developers = component.getDevelopers();
+      if (developers == null) {
+        out.writeInt(NONE);
+      } else {
+        out.writeInt(developers.size());
+        for (String developer : developers) {
+          out.writeInt(string(developer));
+        }
+      }
+      writeReleases(out, component);
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Count, then the optional key and the offset of each record relative to the start of the section, then the records
+     */
+    private byte[] indexedSection(List<byte[]> records, @Nullable List<String> keys) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(records.size());
+      int offset = 4 + records.size() * (keys == null ? 4 : 8);
+      for (int i = 0; i < records.size(); i++) {
+        if (keys != null) {
+          out.writeInt(string(keys.get(i)));
+        }
+        out.writeInt(offset);
+        offset += records.get(i).length;
+      }
+      for (byte[] record : records) {
+        out.write(record);
+      }
+      return bytes.toByteArray();
+    }
+
+    private byte[] dependenciesSection() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      List<int[]> edges = new ArrayList<>();
+      for (int i = 0; i < releaseList.size(); i++) {
+        for (Release required : releaseList.get(i).getOutgoingDependencies()) {
+          edges.add(new int[] {i, release(required)});
+        }
+      }
+      out.writeInt(edges.size());
+      for (int[] edge : edges) {
+        out.writeInt(edge[0]);
+        out.writeInt(edge[1]);
+      }
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Decodes strings, versions, releases and components on demand, with absolute reads only so that the buffer is never
+   * modified. Not thread-safe.
+   */
+  static final class Reader {
+    private final ByteBuffer buffer;
+    private final int[] sections = new int[SECTION_COUNT];
+    private final Date date;
+    private final Product installedProduct;
+    private final int[] stringOffsets;
+    private final String[] strings;
+    private final Version[] versions;
+    private final Release[] releases;
+    private int[] releaseOwners;
+    private int[][] dependenciesByPlugin;
+
+    Reader(ByteBuffer buffer) {
+      this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+      if (this.buffer.limit() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC) {
+        throw new IllegalStateException("Not an update center binary file");
+      }
+      int formatVersion = this.buffer.getInt(4);
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IllegalStateException("Unsupported update center binary format version: " + formatVersion);
+      }
+      Cursor header = new Cursor(8);
+      long time = header.getLong();
+      this.date = time == NO_DATE ? null : new Date(time);
+      byte product = header.get();
+      this.installedProduct = product == NONE ? null : PRODUCTS[product];
+      for (int i = 0; i < SECTION_COUNT; i++) {
+        sections[i] = header.getInt();
+      }
+
+      Cursor cursor = new Cursor(sections[STRINGS]);
+      this.stringOffsets = new int[cursor.getInt()];
+      for (int i = 0; i < stringOffsets.length; i++) {
+        stringOffsets[i] = cursor.position;
+        cursor.position += 4 + cursor.getInt();
+      }
+      this.strings = new String[stringOffsets.length];
+      this.versions = new Version[this.buffer.getInt(sections[VERSIONS])];
+      this.releases = new Release[this.buffer.getInt(sections[RELEASES])];
+    }
+
+    @CheckForNull
+    Date getDate() {
+      return date == null ? null : new Date(date.getTime());
+    }
+
+    @CheckForNull
+    Product getInstalledProduct() {
+      return installedProduct;
+    }
+
+    /**
+     * Materializes everything, with dependencies between releases
+     */
+    UpdateCenter readAll() {
+      Sonar sonar = readSonar();
+      List<Plugin> plugins = new ArrayList<>();
+      for (int i = 0; i < getPluginCount(); i++) {
+        plugins.add(readPlugin(i));
+      }
+      List<Scanner> scanners = new ArrayList<>();
+      for (int i = 0; i < getScannerCount(); i++) {
+        scanners.add(readScanner(i));
+      }
+      Cursor cursor = new Cursor(sections[DEPENDENCIES]);
+      int count = cursor.getInt();
+      for (int i = 0; i < count; i++) {
+        addDependency(releases[cursor.getInt()], releases[cursor.getInt()]);
+      }
+      return UpdateCenter.create(PluginReferential.create(plugins), scanners, sonar, installedProduct).setDate(date);
+    }
+
+    private static void addDependency(Release release, Release required) {
+      release.addOutgoingDependency(required);
+      required.addIncomingDependency(release);
+    }
+
+    Sonar readSonar() {
+      Sonar sonar = new Sonar();
+      Cursor cursor = new Cursor(sections[SONAR]);
+      readReleases(cursor, sonar);
+      Version lta = version(cursor.getInt());
+      Version pastLta = version(cursor.getInt());
+      if (lta != null) {
+        sonar.setLtaVersion(lta.getName());
+      }
+      if (pastLta != null) {
+        sonar.setPastLtaVersion(pastLta.getName());
+      }
+      return sonar;
+    }
+
+    int getPluginCount() {
+      return buffer.getInt(sections[PLUGINS]);
+    }
+
+    String getPluginKey(int plugin) {
+      return componentKey(sections[PLUGINS], plugin);
+    }
+
+    /**
+     * The releases of the plugin are not linked to their dependencies, see {@link #wireDependencies(int, IntFunction)}
+     */
+    Plugin readPlugin(int plugin) {
+      Plugin result = Plugin.factory(getPluginKey(plugin));
+      readComponent(sections[PLUGINS], plugin, result);
+      return result;
+    }
+
+    int getScannerCount() {
+      return buffer.getInt(sections[SCANNERS]);
+    }
+
+    Scanner readScanner(int scanner) {
+      Scanner result = Scanner.factory(componentKey(sections[SCANNERS], scanner));
+      readComponent(sections[SCANNERS], scanner, result);
+      return result;
+    }
+
+    /**
+     * Links the releases of a plugin read by {@link #readPlugin(int)} to the releases they depend on, and to the releases
+     * depending on them. The other plugins involved are given by the function, from their index.
+     */
+    void wireDependencies(int plugin, IntFunction<Plugin> plugins) {
+      int edges = sections[DEPENDENCIES] + 4;
+      for (int edge : dependenciesByPlugin()[plugin]) {
+        int release = buffer.getInt(edges + edge * 8);
+        int required = buffer.getInt(edges + edge * 8 + 4);
+        // materializes the other plugin, so that its releases are known
+        plugins.apply(releaseOwners[release]);
+        plugins.apply(releaseOwners[required]);
+        addDependency(releases[release], releases[required]);
+      }
+    }
+
+    /**
+     * Indexes of the dependencies involving each plugin, as release or as required release
+     */
+    private int[][] dependenciesByPlugin() {
+      if (dependenciesByPlugin == null) {
+        int[] owners = releaseOwners();
+        List<List<Integer>> byPlugin = new ArrayList<>();
+        for (int i = 0; i < getPluginCount(); i++) {
+          byPlugin.add(new ArrayList<>());
+        }
+        Cursor cursor = new Cursor(sections[DEPENDENCIES]);
+        int count = cursor.getInt();
+        for (int edge = 0; edge < count; edge++) {
+          int releaseOwner = owners[cursor.getInt()];
+          int requiredOwner = owners[cursor.getInt()];
+          if (releaseOwner != NONE && requiredOwner != NONE) {
+            byPlugin.get(releaseOwner).add(edge);
+            if (requiredOwner != releaseOwner) {
+              byPlugin.get(requiredOwner).add(edge);
+            }
+          }
+        }
+        dependenciesByPlugin = byPlugin.stream()
+          .map(edges -> edges.stream().mapToInt(Integer::intValue).toArray())
+          .toArray(int[][]::new);
+      }
+      return dependenciesByPlugin;
+    }
+
+    /**
+     * Index of the plugin owning each release, computed from the release indexes of plugins without reading the releases
+     */
+    private int[] releaseOwners() {
+      int[] owners = new int[releases.length];
+      Arrays.fill(owners, NONE);
+      for (int plugin = 0; plugin < getPluginCount(); plugin++) {
+        Cursor cursor = componentCursor(sections[PLUGINS], plugin);
+        // name, description, homepage, license, organization and its URL, terms, category, issue tracker and sources
+        cursor.position += 10 * 4;
+        int developers = cursor.getInt();
+        cursor.position += Math.max(developers, 0) * 4;
+        int count = cursor.getInt();
+        for (int i = 0; i < count; i++) {
+          owners[cursor.getInt()] = plugin;
+        }
+        int dev = cursor.getInt();
+        if (dev != NONE) {
+          owners[dev] = plugin;
+        }
+      }
+      releaseOwners = owners;
+      return owners;
+    }
+
+    private String componentKey(int section, int component) {
+      return string(buffer.getInt(section + 4 + component * 8));
+    }
+
+    private Cursor componentCursor(int section, int component) {
+      return new Cursor(section + buffer.getInt(section + 4 + component * 8 + 4));
+    }
+
+    private void readComponent(int section, int index, Component component) {
+      Cursor cursor = componentCursor(section, index);
+      component.setName(string(cursor.getInt()));
+      component.setDescription(string(cursor.getInt()));
+      component.setHomepageUrl(string(cursor.getInt()));
+      component.setLicense(string(cursor.getInt()));
+      component.setOrganization(string(cursor.getInt()));
+      component.setOrganizationUrl(string(cursor.getInt()));
+      component.setTermsConditionsUrl(string(cursor.getInt()));
+      component.setCategory(string(cursor.getInt()));
+      component.setIssueTrackerUrl(string(cursor.getInt()));
+      component.setSourcesUrl(string(cursor.getInt()));
+      int developers = cursor.getInt();
+      if (developers != NONE) {
+        String[] names = new String[developers];
+        for (int i = 0; i < developers; i++) {
+          names[i] = string(cursor.getInt());
+        }
+        component.setDevelopers(Arrays.asList(names));
+      }
+      readReleases(cursor, component);
+    }
+
+    private void readReleases(Cursor cursor, Artifact artifact) {
+      int count = cursor.getInt();
+      for (int i = 0; i < count; i++) {
+        artifact.addRelease(readRelease(cursor.getInt(), artifact));
+      }
+      int dev = cursor.getInt();
+      if (dev != NONE) {
+        artifact.setDevRelease(readRelease(dev, artifact));
+      }
+    }
+
+    private Release readRelease(int index, Artifact artifact) {
+      int section = sections[RELEASES];
+      Cursor cursor = new Cursor(section + buffer.getInt(section + 4 + index * 4));
+      byte kind = cursor.get();
+      Version version = version(cursor.getInt());
+      String displayVersion = string(cursor.getInt());
+      String description = string(cursor.getInt());
+      String changelogUrl = string(cursor.getInt());
+      byte flags = cursor.get();
+      String groupId = string(cursor.getInt());
+      String artifactId = string(cursor.getInt());
+      byte product = cursor.get();
+      long time = cursor.getLong();
+
+      Release release = kind == SONAR_RELEASE ? new SonarRelease(artifact, version, PRODUCTS[product]) : new Release(artifact, version);
+      if (kind == RELEASE && product != NONE) {
+        release.setProduct(PRODUCTS[product]);
+      }
+      release.setDisplayVersion(displayVersion);
+      release.setDescription(description);
+      release.setChangelogUrl(changelogUrl);
+      release.setPublic((flags & PUBLIC) != 0);
+      release.setArchived((flags & ARCHIVED) != 0);
+      release.setGroupId(groupId);
+      release.setArtifactId(artifactId);
+      release.setDate(time == NO_DATE ? null : new Date(time));
+      for (Release.Edition edition : EDITIONS) {
+        int url = cursor.getInt();
+        if (url != ABSENT) {
+          release.setDownloadUrl(string(url), edition);
+        }
+      }
+      int flavors = cursor.getInt();
+      for (int i = 0; i < flavors; i++) {
+        String flavor = string(cursor.getInt());
+        String label = string(cursor.getInt());
+        String url = string(cursor.getInt());
+        release.addScannerDownloadUrlAndLabel(flavor, label, url, cursor.getInt());
+      }
+      for (Product requiredProduct : PRODUCTS) {
+        Version[] required = new Version[cursor.getInt()];
+        for (int i = 0; i < required.length; i++) {
+          required[i] = version(cursor.getInt());
+        }
+        if (required.length > 0) {
+          release.addRequiredSonarVersions(requiredProduct, required);
+        }
+      }
+      releases[index] = release;
+      return release;
+    }
+
+    @CheckForNull
+    private String string(int index) {
+      if (index == NONE) {
+        return null;
+      }
+      String s = strings[index];
+      if (s == null) {
+        int offset = stringOffsets[index];
+        byte[] utf8 = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, utf8);
+        s = new String(utf8, StandardCharsets.UTF_8);
+        strings[index] = s;
+      }
+      return s;
+    }
+
+    @CheckForNull
+    private Version version(int index) {
+      if (index == NONE) {
+        return null;
+      }
+      Version version = versions[index];
+      if (version == null) {
+        int offset = sections[VERSIONS] + 4 + index * 8;
+        version = Version.create(string(buffer.getInt(offset)), string(buffer.getInt(offset + 4)));
+        versions[index] = version;
+      }
+      return version;
+    }
+
+    private final class Cursor {
+      private int position;
+
+      private Cursor(int position) {
+        this.position = position;
+      }
+
+      private int getInt() {
+        int value = buffer.getInt(position);
+        position += 4;
+        return value;
+      }
+
+      private long getLong() {
+        long value = buffer.getLong(position);
+        position += 8;
+        return value;
+      }
+
+      private byte get() {
+        byte value = buffer.get(position);
+        position++;
+        return value;
+      }
+    }
+  }
+}
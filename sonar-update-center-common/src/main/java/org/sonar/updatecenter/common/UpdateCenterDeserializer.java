@@ -19,27 +19,42 @@
  */
 package org.sonar.updatecenter.common;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.sonar.updatecenter.common.exception.SonarVersionRangeException;
 
 import static java.util.Arrays.asList;
 import static org.sonar.updatecenter.common.FormatUtils.toDate;
@@ -66,14 +81,20 @@ public final class UpdateCenterDeserializer {
   private static final String PRIVATE_VERSIONS = "privateVersions";
   private static final String ARCHIVED_VERSIONS = "archivedVersions";
   private static final String DEV_VERSION = "devVersion";
-  private static final String LATEST_KEYWORD = "LATEST";
   private static final String FLAVORS_PREFIX = "flavors";
   private static final String LTA_VERSION = "ltaVersion";
   private static final String PAST_LTA_VERSION = "pastLtaVersion";
   private static final Logger LOGGER = LoggerFactory.getLogger(UpdateCenterDeserializer.class);
+  private static final Version VERSION_10_8 = Version.create("10.8");
+  private static final Version VERSION_2025_1 = Version.create("2025.1");
   private final Mode mode;
   private final boolean ignoreError;
   private final boolean includeArchives;
+  private final VersionPool versions = new VersionPool();
+  // logs of the component being parsed by the current thread, when they must be replayed in order
+  private final ThreadLocal<List<Runnable>> deferredLogs = new ThreadLocal<>();
+  private int threads = 1;
+  private boolean preserveErrorOrder = true;
 
   public UpdateCenterDeserializer(Mode mode, boolean ignoreError) {
     this(mode, ignoreError, false);
@@ -85,6 +106,27 @@ public final class UpdateCenterDeserializer {
     this.includeArchives = includeArchives;
   }
 
+  /**
+   * Number of threads loading the files of plugins and scanners, and parsing plugins and scanners. Default is 1, nothing
+   * is done in parallel.
+   */
+  public UpdateCenterDeserializer setThreads(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be strictly positive");
+    }
+    this.threads = threads;
+    return this;
+  }
+
+  /**
+   * When plugins and scanners are parsed in parallel, whether the errors and warnings they raise are logged in the same
+   * order as when parsing sequentially. Default is true.
+   */
+  public UpdateCenterDeserializer setPreserveErrorOrder(boolean preserveErrorOrder) {
+    this.preserveErrorOrder = preserveErrorOrder;
+    return this;
+  }
+
   public static String getDownloadUrlSuffix(Release.Edition edition) {
     switch (edition) {
       case DEVELOPER:
@@ -110,50 +152,302 @@ public final class UpdateCenterDeserializer {
    * Load configuration with one file for each plugin
    */
   public UpdateCenter fromManyFiles(File mainFile) throws IOException {
+    ExecutorService executor = newExecutor();
     try (InputStream in = Files.newInputStream(mainFile.toPath())) {
       Properties props = new Properties();
       props.load(in);
-      loadProperties(mainFile, props, PLUGINS);
-      loadProperties(mainFile, props, SCANNERS);
-      UpdateCenter pluginReferential = fromProperties(props);
+      PropertyIndex index = PropertyIndex.of(props);
+      loadProperties(mainFile, index, PLUGINS, executor);
+      loadProperties(mainFile, index, SCANNERS, executor);
+      UpdateCenter pluginReferential = fromIndex(index, executor);
       pluginReferential.setDate(new Date(mainFile.lastModified()));
       return pluginReferential;
+    } finally {
+      shutdown(executor);
+    }
+  }
+
+  /**
+   * Same as {@link #fromManyFiles(File)}, but only the plugins and scanners whose file changed since the previous
+   * snapshot are parsed again, as well as the plugins linked to them by dependencies. Validations and dependencies are
+   * applied to these plugins only. The other ones are shared with the new snapshot, so the previous snapshot must not
+   * be used anymore. Everything is parsed again when the main file or the settings of this deserializer changed.
+   * <p/>
+   * Errors ignored in a previous load are not logged again.
+   */
+  public UpdateCenterSnapshot fromManyFiles(File mainFile, @Nullable UpdateCenterSnapshot previous) throws IOException {
+    ExecutorService executor = newExecutor();
+    try {
+      PropertyIndex index = PropertyIndex.of(loadProperties(mainFile));
+      String mainDigest = mainDigest(index);
+      UpdateCenterSnapshot reused = previous != null && previous.getMainDigest().equals(mainDigest) ? previous : null;
+
+      String[] pluginKeys = getArray(index, PLUGINS);
+      String[] scannerKeys = getArray(index, SCANNERS);
+      List<byte[]> pluginFiles = readFiles(mainFile, pluginKeys, executor);
+      List<byte[]> scannerFiles = readFiles(mainFile, scannerKeys, executor);
+      Map<String, String> pluginHashes = hashes(pluginKeys, pluginFiles);
+      Map<String, String> scannerHashes = hashes(scannerKeys, scannerFiles);
+      Set<String> pluginsToParse = reused == null ? pluginHashes.keySet() : reused.getPluginsToParse(pluginHashes);
+      Set<String> scannersToParse = reused == null ? scannerHashes.keySet() : reused.getScannersToParse(scannerHashes);
+      addToIndex(index, pluginKeys, pluginFiles, pluginsToParse);
+      addToIndex(index, scannerKeys, scannerFiles, scannersToParse);
+
+      Sonar sonar;
+      if (reused == null) {
+        sonar = new Sonar();
+        parseSonar(index, sonar);
+      } else {
+        sonar = reused.getSonar();
+      }
+      SonarVersionsResolver sonarVersions = new SonarVersionsResolver(sonar, versions);
+
+      Map<String, Plugin> plugins = new LinkedHashMap<>();
+      String[] parsedPluginKeys = filter(pluginKeys, pluginsToParse);
+      List<Plugin> parsedPlugins = parseComponents(parsedPluginKeys, key -> parsePlugin(index, sonarVersions, key), executor);
+      Map<String, Plugin> parsedPluginsByKey = byKey(parsedPluginKeys, parsedPlugins);
+      for (String key : pluginKeys) {
+        Plugin plugin = pluginsToParse.contains(key) ? parsedPluginsByKey.get(key) : reused.getPlugin(key);
+        if (plugin != null) {
+          plugins.put(key, plugin);
+        }
+      }
+
+      Map<String, Scanner> scanners = new LinkedHashMap<>();
+      String[] parsedScannerKeys = filter(scannerKeys, scannersToParse);
+      List<Scanner> parsedScanners = parseComponents(parsedScannerKeys, key -> parseScanner(index, sonarVersions, key), executor);
+      Map<String, Scanner> parsedScannersByKey = byKey(parsedScannerKeys, parsedScanners);
+      for (String key : scannerKeys) {
+        Scanner scanner = scannersToParse.contains(key) ? parsedScannersByKey.get(key) : reused.getScanner(key);
+        // do not add scanner without any version
+        if (scanner != null && !scanner.getAllReleases().isEmpty()) {
+          scanners.put(key, scanner);
+        }
+      }
+
+      List<Plugin> parsedCompatiblePlugins = parsedPlugins.stream().filter(Objects::nonNull).toList();
+      validatePlugins(parsedCompatiblePlugins);
+      PluginReferential pluginReferential = PluginReferential.create(new ArrayList<>(plugins.values()));
+      addDependencies(index, pluginReferential, pluginReferential.getPlugins().stream()
+        .filter(plugin -> pluginsToParse.contains(plugin.getKey()))
+        .toList());
+
+      UpdateCenter updateCenter = UpdateCenter.create(pluginReferential, new ArrayList<>(scanners.values()), sonar, Product.OLD_SONARQUBE)
+        .setDate(new Date(mainFile.lastModified()));
+      int parsed = parsedPluginKeys.length + parsedScannerKeys.length;
+      LOGGER.debug("{} of {} plugins and scanners parsed", parsed, pluginKeys.length + scannerKeys.length);
+      return new UpdateCenterSnapshot(updateCenter, mainDigest, pluginHashes, scannerHashes, plugins, scanners, parsed);
+    } finally {
+      shutdown(executor);
+    }
+  }
+
+  /**
+   * Digest of the settings of this deserializer and of the content of the main file, except the lists of plugins and
+   * scanners that can change without impacting the other plugins and scanners
+   */
+  private String mainDigest(PropertyIndex index) {
+    MessageDigest digest = newDigest();
+    update(digest, mode.name() + ignoreError + includeArchives);
+    for (String key : new TreeSet<>(index.keys())) {
+      if (!PLUGINS.equals(key) && !SCANNERS.equals(key)) {
+        update(digest, key);
+        update(digest, index.get(key));
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static List<byte[]> readFiles(File mainFile, String[] keys, @Nullable ExecutorService executor) throws IOException {
+    List<Callable<byte[]>> reads = new ArrayList<>();
+    for (String key : keys) {
+      Path path = new File(mainFile.getParent(), key + ".properties").toPath();
+      reads.add(() -> Files.readAllBytes(path));
+    }
+    List<byte[]> files = new ArrayList<>();
+    for (Future<byte[]> read : submitAll(executor, reads)) {
+      files.add(await(read));
+    }
+    return files;
+  }
+
+  private static Map<String, String> hashes(String[] keys, List<byte[]> files) {
+    Map<String, String> hashes = new HashMap<>();
+    for (int i = 0; i < keys.length; i++) {
+      hashes.put(keys[i], HexFormat.of().formatHex(newDigest().digest(files.get(i))));
+    }
+    return hashes;
+  }
+
+  private static void addToIndex(PropertyIndex index, String[] keys, List<byte[]> files, Set<String> keysToAdd) throws IOException {
+    for (int i = 0; i < keys.length; i++) {
+      if (keysToAdd.contains(keys[i])) {
+        Properties p = new Properties();
+        p.load(new ByteArrayInputStream(files.get(i)));
+        index.putAll(keys[i], p);
+      }
+    }
+  }
+
+  private static String[] filter(String[] keys, Set<String> keysToKeep) {
+    return Arrays.stream(keys).filter(keysToKeep::contains).toArray(String[]::new);
+  }
+
+  /**
+   * @return the components by key, null values being kept for the components discarded while parsing
+   */
+  private static <T> Map<String, T> byKey(String[] keys, List<T> components) {
+    Map<String, T> byKey = new HashMap<>();
+    for (int i = 0; i < keys.length; i++) {
+      byKey.put(keys[i], components.get(i));
     }
+    return byKey;
   }
 
-  private static void loadProperties(File file, Properties props, String listKey) throws IOException {
+  /**
+   * Files are loaded in parallel, then added to the index in the order of the list
+   */
+  private static void loadProperties(File file, PropertyIndex props, String listKey, @Nullable ExecutorService executor) throws IOException {
     String[] keys = getArray(props, listKey);
+    List<Callable<Properties>> loads = new ArrayList<>();
     for (String key : keys) {
       File propFile = new File(file.getParent(), key + ".properties");
-      try (InputStream fileInputStream = Files.newInputStream(propFile.toPath())) {
-        Properties p = new Properties();
-        p.load(fileInputStream);
-        for (Map.Entry<Object, Object> prop : p.entrySet()) {
-          props.put(key + "." + prop.getKey(), prop.getValue());
-        }
+      loads.add(() -> loadProperties(propFile));
+    }
+    List<Future<Properties>> loaded = submitAll(executor, loads);
+    for (int i = 0; i < keys.length; i++) {
+      props.putAll(keys[i], await(loaded.get(i)));
+    }
+  }
 
-      }
+  private static Properties loadProperties(File propFile) throws IOException {
+    try (InputStream fileInputStream = Files.newInputStream(propFile.toPath())) {
+      Properties p = new Properties();
+      p.load(fileInputStream);
+      return p;
     }
   }
 
+  /**
+   * Loads an update center written by {@link UpdateCenterSerializer#toBinary(UpdateCenter, File)}. It is already
+   * resolved and validated, so nothing is checked again.
+   *
+   * @throws IllegalStateException if the file is not in the supported format version
+   */
+  public static UpdateCenter fromBinary(File file) throws IOException {
+    return UpdateCenterBinaryFormat.read(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+  }
+
+  /**
+   * Loads a snapshot written by {@link UpdateCenterSerializer#toBinary(UpdateCenterSnapshot, File)}, to be given to
+   * {@link #fromManyFiles(File, UpdateCenterSnapshot)} in a later build.
+   *
+   * @throws IllegalStateException if the file is not a snapshot in the supported format version
+   */
+  public static UpdateCenterSnapshot snapshotFromBinary(File file) throws IOException {
+    return UpdateCenterSnapshot.fromBytes(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+  }
+
   public UpdateCenter fromProperties(Properties p) {
+    ExecutorService executor = newExecutor();
+    try {
+      return fromIndex(PropertyIndex.of(p), executor);
+    } finally {
+      shutdown(executor);
+    }
+  }
+
+  @CheckForNull
+  private ExecutorService newExecutor() {
+    return threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+  }
+
+  private static void shutdown(@Nullable ExecutorService executor) {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Without executor, tasks are run immediately by the current thread
+   */
+  private static <T> List<Future<T>> submitAll(@Nullable ExecutorService executor, List<Callable<T>> tasks) {
+    List<Future<T>> futures = new ArrayList<>();
+    for (Callable<T> task : tasks) {
+      if (executor == null) {
+        FutureTask<T> future = new FutureTask<>(task);
+        future.run();
+        futures.add(future);
+      } else {
+        futures.add(executor.submit(task));
+      }
+    }
+    return futures;
+  }
+
+  private static <T> T await(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading update center", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private UpdateCenter fromIndex(PropertyIndex p, @Nullable ExecutorService executor) {
     Sonar sonar = new Sonar();
-    Date date = FormatUtils.toDateTime(p.getProperty("date"));
+    Date date = FormatUtils.toDateTime(p.get("date"));
     List<Plugin> plugins = new ArrayList<>();
     List<Scanner> scanners = new ArrayList<>();
 
     parseSonar(p, sonar);
 
-    parsePlugins(p, sonar, plugins);
-    parseScanners(p, sonar, scanners);
+    SonarVersionsResolver sonarVersions = new SonarVersionsResolver(sonar, versions);
+    parsePlugins(p, sonarVersions, plugins, executor);
+    parseScanners(p, sonarVersions, scanners, executor);
+
+    validatePlugins(plugins);
+
+    PluginReferential pluginReferential = PluginReferential.create(plugins);
+    addDependencies(p, pluginReferential, pluginReferential.getPlugins());
+    LOGGER.debug("{} distinct versions loaded, {} duplicates shared", versions.size(), versions.getHits());
+    return UpdateCenter.create(pluginReferential, scanners, sonar, Product.OLD_SONARQUBE).setDate(date);
+  }
 
+  private void validatePlugins(List<Plugin> plugins) {
     validatePublicPluginSQVersionOverlap(plugins);
 
     validateLATESTonLatestPluginVersion(plugins, Product.SONARQUBE_SERVER);
     validateLATESTonLatestPluginVersion(plugins, Product.SONARQUBE_COMMUNITY_BUILD);
+  }
 
-    PluginReferential pluginReferential = PluginReferential.create(plugins);
-    for (Plugin plugin : pluginReferential.getPlugins()) {
+  private void addDependencies(PropertyIndex p, PluginReferential pluginReferential, List<Plugin> plugins) {
+    for (Plugin plugin : plugins) {
       for (Release release : plugin.getAllReleases()) {
         String[] requiredReleases = StringUtils.split(StringUtils.defaultIfEmpty(get(p, plugin.getKey(),
           release.getVersion().getName() + ".requirePlugins", false), ""), ",");
@@ -165,12 +459,11 @@ public final class UpdateCenterDeserializer {
         }
       }
     }
-    return UpdateCenter.create(pluginReferential, scanners, sonar, Product.OLD_SONARQUBE).setDate(date);
   }
 
   private void reportError(String message) {
     if (ignoreError) {
-      LOGGER.error(message);
+      log(() -> LOGGER.error(message));
     } else {
       throw new IllegalStateException(message);
     }
@@ -211,9 +504,9 @@ public final class UpdateCenterDeserializer {
 
       for (Release r : publicAndArchivedReleases.descendingSet()) {
         if (!r.productToVersions(product).isEmpty()) {
-          if (latestReleaseForProductAlreadyFound && !r.getSonarVersionFromString(product, LATEST_KEYWORD).isEmpty()) {
+          if (latestReleaseForProductAlreadyFound && !r.getSonarVersionFromString(product, SonarVersionsExpression.LATEST_KEYWORD).isEmpty()) {
             reportError("Only the latest release of plugin " + pluginName(plugin) + " for product " + product +
-              " may depend on the " + LATEST_KEYWORD + " SonarQube");
+              " may depend on the " + SonarVersionsExpression.LATEST_KEYWORD + " SonarQube");
           }
           latestReleaseForProductAlreadyFound = true;
         }
@@ -226,13 +519,8 @@ public final class UpdateCenterDeserializer {
     return StringUtils.isNotBlank(component.getName()) ? component.getName() : component.getKey();
   }
 
-  private void parseScanners(Properties p, Sonar sonar, List<Scanner> scanners) {
-    String[] scannerKeys = getArray(p, SCANNERS);
-    for (String pluginKey : scannerKeys) {
-      Scanner scanner = Scanner.factory(pluginKey);
-
-      parseComponent(p, sonar, pluginKey, scanner);
-
+  private void parseScanners(PropertyIndex p, SonarVersionsResolver sonarVersions, List<Scanner> scanners, @Nullable ExecutorService executor) {
+    for (Scanner scanner : parseComponents(getArray(p, SCANNERS), key -> parseScanner(p, sonarVersions, key), executor)) {
       // do not add plugin without any version
       if (!scanner.getAllReleases().isEmpty()) {
         scanners.add(scanner);
@@ -240,7 +528,82 @@ public final class UpdateCenterDeserializer {
     }
   }
 
-  private void parseComponent(Properties p, Sonar sonar, String key, Component c) {
+  private Scanner parseScanner(PropertyIndex p, SonarVersionsResolver sonarVersions, String scannerKey) {
+    Scanner scanner = Scanner.factory(scannerKey);
+    parseComponent(p, sonarVersions, scannerKey, scanner);
+    return scanner;
+  }
+
+  /**
+   * Components are parsed in parallel, then returned in the order of their keys. Logs are replayed in this order too
+   * if {@link #preserveErrorOrder}, and the error of the first component that failed is thrown.
+   */
+  private <T> List<T> parseComponents(String[] keys, Function<String, T> parser, @Nullable ExecutorService executor) {
+    if (executor == null) {
+      List<T> components = new ArrayList<>();
+      for (String key : keys) {
+        components.add(parser.apply(key));
+      }
+      return components;
+    }
+
+    List<Callable<ParsedComponent<T>>> tasks = new ArrayList<>();
+    for (String key : keys) {
+      tasks.add(() -> parseDeferringLogs(key, parser));
+    }
+    List<T> components = new ArrayList<>();
+    for (Future<ParsedComponent<T>> future : submitAll(executor, tasks)) {
+      ParsedComponent<T> parsed;
+      try {
+        parsed = await(future);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      parsed.logs.forEach(Runnable::run);
+      if (parsed.failure != null) {
+        throw parsed.failure;
+      }
+      components.add(parsed.component);
+    }
+    return components;
+  }
+
+  private <T> ParsedComponent<T> parseDeferringLogs(String key, Function<String, T> parser) {
+    List<Runnable> logs = new ArrayList<>();
+    if (preserveErrorOrder) {
+      deferredLogs.set(logs);
+    }
+    try {
+      return new ParsedComponent<>(parser.apply(key), logs, null);
+    } catch (RuntimeException e) {
+      return new ParsedComponent<>(null, logs, e);
+    } finally {
+      deferredLogs.remove();
+    }
+  }
+
+  private void log(Runnable log) {
+    List<Runnable> logs = deferredLogs.get();
+    if (logs == null) {
+      log.run();
+    } else {
+      logs.add(log);
+    }
+  }
+
+  private static class ParsedComponent<T> {
+    private final T component;
+    private final List<Runnable> logs;
+    private final RuntimeException failure;
+
+    private ParsedComponent(@Nullable T component, List<Runnable> logs, @Nullable RuntimeException failure) {
+      this.component = component;
+      this.logs = logs;
+      this.failure = failure;
+    }
+  }
+
+  private void parseComponent(PropertyIndex p, SonarVersionsResolver sonarVersions, String key, Component c) {
     c.setName(get(p, key, "name", false));
     c.setDescription(get(p, key, "description", false));
     c.setCategory(get(p, key, "category", true));
@@ -256,46 +619,55 @@ public final class UpdateCenterDeserializer {
     HashMap<String, Map.Entry<String, Integer>> flavorsLabel = new HashMap<>();
     parseFlavors(p, key, flavorsLabel);
 
-    parseReleases(p, sonar, key, c, PUBLIC_VERSIONS, flavorsLabel, true, false);
+    parseReleases(p, sonarVersions, key, c, PUBLIC_VERSIONS, flavorsLabel, true, false);
     if (mode == Mode.DEV) {
-      parseReleases(p, sonar, key, c, PRIVATE_VERSIONS, flavorsLabel, false, false);
-      parseDevVersions(p, sonar, key, c, flavorsLabel);
+      parseReleases(p, sonarVersions, key, c, PRIVATE_VERSIONS, flavorsLabel, false, false);
+      parseDevVersions(p, sonarVersions, key, c, flavorsLabel);
     }
 
     if (includeArchives) {
-      parseReleases(p, sonar, key, c, PRIVATE_VERSIONS, flavorsLabel, false, false);
-      parseReleases(p, sonar, key, c, ARCHIVED_VERSIONS, flavorsLabel, false, false);
+      parseReleases(p, sonarVersions, key, c, PRIVATE_VERSIONS, flavorsLabel, false, false);
+      parseReleases(p, sonarVersions, key, c, ARCHIVED_VERSIONS, flavorsLabel, false, false);
     } else {
-      parseReleases(p, sonar, key, c, ARCHIVED_VERSIONS, flavorsLabel, false, true);
+      parseReleases(p, sonarVersions, key, c, ARCHIVED_VERSIONS, flavorsLabel, false, true);
     }
   }
 
-  private void parsePlugins(Properties p, Sonar sonar, List<Plugin> plugins) {
-    String[] pluginKeys = getArray(p, PLUGINS);
-    for (String pluginKey : pluginKeys) {
-      Plugin plugin = Plugin.factory(pluginKey);
-
-      parseComponent(p, sonar, pluginKey, plugin);
-
-      if (isPluginCompatibleWithAnySqRelease(plugin, sonar)) {
+  private void parsePlugins(PropertyIndex p, SonarVersionsResolver sonarVersions, List<Plugin> plugins, @Nullable ExecutorService executor) {
+    for (Plugin plugin : parseComponents(getArray(p, PLUGINS), key -> parsePlugin(p, sonarVersions, key), executor)) {
+      if (plugin != null) {
         plugins.add(plugin);
-      } else {
-        LOGGER.warn("The plugin {} is not compatible with any public SQ versions.", pluginKey);
       }
     }
   }
 
+  /**
+   * @return null if the plugin is not compatible with any SonarQube version
+   */
+  @CheckForNull
+  private Plugin parsePlugin(PropertyIndex p, SonarVersionsResolver sonarVersions, String pluginKey) {
+    Plugin plugin = Plugin.factory(pluginKey);
+
+    parseComponent(p, sonarVersions, pluginKey, plugin);
+
+    if (isPluginCompatibleWithAnySqRelease(plugin, sonarVersions.getSonar())) {
+      return plugin;
+    }
+    log(() -> LOGGER.warn("The plugin {} is not compatible with any public SQ versions.", pluginKey));
+    return null;
+  }
+
   private static boolean isPluginCompatibleWithAnySqRelease(Plugin plugin, Sonar sonar) {
     return sonar.getMajorReleases(Product.OLD_SONARQUBE).stream().map(plugin::getLastCompatible).anyMatch(Objects::nonNull) ||
       sonar.getMajorReleases(Product.SONARQUBE_COMMUNITY_BUILD).stream().map(plugin::getLastCompatible).anyMatch(Objects::nonNull) ||
       sonar.getMajorReleases(Product.SONARQUBE_SERVER).stream().map(plugin::getLastCompatible).anyMatch(Objects::nonNull);
   }
 
-  private void parseReleases(Properties p, Sonar sonar, String pluginKey, Component component, String key,
+  private void parseReleases(PropertyIndex p, SonarVersionsResolver sonarVersions, String pluginKey, Component component, String key,
     HashMap<String, Map.Entry<String, Integer>> flavorLabel, boolean isPublicRelease, boolean isArchivedRelease) {
     String[] pluginPublicReleases = getArray(p, pluginKey, key);
     for (String pluginVersion : pluginPublicReleases) {
-      Release releaseToAdd = parseRelease(p, sonar, pluginKey, component, isPublicRelease, isArchivedRelease, pluginVersion, flavorLabel);
+      Release releaseToAdd = parseRelease(p, sonarVersions, pluginKey, component, isPublicRelease, isArchivedRelease, pluginVersion, flavorLabel);
       Optional<Release> alreadyExistingRelease = component.getAllReleases().stream()
         .filter(r -> r.getArtifact().equals(releaseToAdd.getArtifact()))
         .filter(r -> r.getVersion().equals(releaseToAdd.getVersion()))
@@ -309,17 +681,17 @@ public final class UpdateCenterDeserializer {
     }
   }
 
-  private void parseFlavors(Properties p, String pluginKey, HashMap<String, Map.Entry<String, Integer>> flavosLabel) {
+  private void parseFlavors(PropertyIndex p, String pluginKey, HashMap<String, Map.Entry<String, Integer>> flavosLabel) {
     String[] flavors = getArray(p, pluginKey, FLAVORS_PREFIX);
     for (int i = 0; i < flavors.length; i++) {
       flavosLabel.put(flavors[i], new AbstractMap.SimpleEntry<>(get(p, pluginKey, FLAVORS_PREFIX + "." + flavors[i] + ".label", true), i));
     }
   }
 
-  private Release parseRelease(Properties p, Sonar sonar, String pluginKey, Component component,
+  private Release parseRelease(PropertyIndex p, SonarVersionsResolver sonarVersions, String pluginKey, Component component,
     boolean isPublicRelease, boolean isArchivedRelease, String pluginVersion, HashMap<String, Map.Entry<String, Integer>> flavorLabel) {
 
-    Release release = new Release(component, pluginVersion);
+    Release release = new Release(component, versions.create(pluginVersion));
     try {
       release.setPublic(isPublicRelease);
       release.setArchived(isArchivedRelease);
@@ -333,10 +705,10 @@ public final class UpdateCenterDeserializer {
         release.setArtifactId(getOrDefault(p, pluginKey, pluginVersion, MAVEN_ARTIFACTID_SUFFIX, true));
       }
       if (component.needSqVersion()) {
-        Version[] requiredOldSonarVersions = getRequiredSonarVersions(p, pluginKey, pluginVersion, sonar, Product.OLD_SONARQUBE);
-        Version[] requiredSonarCommunityVersions = getRequiredSonarVersions(p, pluginKey, pluginVersion, sonar,
+        Version[] requiredOldSonarVersions = getRequiredSonarVersions(p, pluginKey, pluginVersion, sonarVersions, Product.OLD_SONARQUBE);
+        Version[] requiredSonarCommunityVersions = getRequiredSonarVersions(p, pluginKey, pluginVersion, sonarVersions,
           Product.SONARQUBE_COMMUNITY_BUILD);
-        Version[] requiredSonarPaidVersions = getRequiredSonarVersions(p, pluginKey, pluginVersion, sonar, Product.SONARQUBE_SERVER);
+        Version[] requiredSonarPaidVersions = getRequiredSonarVersions(p, pluginKey, pluginVersion, sonarVersions, Product.SONARQUBE_SERVER);
         if (!isArchivedRelease && (requiredOldSonarVersions.length == 0 && requiredSonarCommunityVersions.length == 0 && requiredSonarPaidVersions.length == 0)) {
           reportError("Plugin " + pluginName(component) + " version " + pluginVersion + " should declare compatible SQ versions");
         }
@@ -361,7 +733,7 @@ public final class UpdateCenterDeserializer {
     reportError(message);
   }
 
-  private void parseDownloadUrl(Properties p, String pluginKey, String pluginVersion, boolean isPublicRelease,
+  private void parseDownloadUrl(PropertyIndex p, String pluginKey, String pluginVersion, boolean isPublicRelease,
     HashMap<String, Map.Entry<String, Integer>> flavorLabel, Release release) {
     for (Map.Entry<String, Map.Entry<String, Integer>> flavor : flavorLabel.entrySet()) {
       String url = get(p, pluginKey, pluginVersion + DOWNLOAD_URL_SUFFIX + "." + flavor.getKey(), false);
@@ -379,16 +751,16 @@ public final class UpdateCenterDeserializer {
     }
   }
 
-  private void parseDevVersions(Properties p, Sonar sonar, String pluginKey, Component component, HashMap<String, Map.Entry<String,
+  private void parseDevVersions(PropertyIndex p, SonarVersionsResolver sonarVersions, String pluginKey, Component component, HashMap<String, Map.Entry<String,
     Integer>> flavorLabel) {
     String devVersion = get(p, pluginKey, DEV_VERSION, false);
     if (StringUtils.isNotBlank(devVersion)) {
-      Release release = parseRelease(p, sonar, pluginKey, component, false, false, devVersion, flavorLabel);
+      Release release = parseRelease(p, sonarVersions, pluginKey, component, false, false, devVersion, flavorLabel);
       component.setDevRelease(release);
     }
   }
 
-  private void parseSonar(Properties p, Sonar sonar) {
+  private void parseSonar(PropertyIndex p, Sonar sonar) {
     parseSonarVersions(p, sonar);
     if (mode == Mode.DEV) {
       parseSonarDevVersions(p, sonar);
@@ -397,19 +769,19 @@ public final class UpdateCenterDeserializer {
     parseLtaVersions(p, sonar);
   }
 
-  private void parseSonarDevVersions(Properties p, Sonar sonar) {
+  private void parseSonarDevVersions(PropertyIndex p, Sonar sonar) {
     String devVersion = get(p, DEV_VERSION, true);
     Release release = parseSonarVersion(p, sonar, false, devVersion, Product.SONARQUBE_SERVER);
     sonar.setDevRelease(release);
   }
 
-  private void parseSonarLtsVersion(Properties p, Sonar sonar) {
+  private void parseSonarLtsVersion(PropertyIndex p, Sonar sonar) {
     String ltsVersion = get(p, "ltsVersion", true);
     sonar.setLtaVersion(ltsVersion);
     verifyVersion(sonar, sonar.getLtaVersion(), "ltsVersion");
   }
 
-  private void parseLtaVersions(Properties properties, Sonar sonar) {
+  private void parseLtaVersions(PropertyIndex properties, Sonar sonar) {
     String ltaVersion = get(properties, LTA_VERSION, true);
     String pastLtaVersion = get(properties, PAST_LTA_VERSION, true);
 
@@ -425,7 +797,7 @@ public final class UpdateCenterDeserializer {
     }
   }
 
-  private void parseSonarVersions(Properties p, Sonar sonar) {
+  private void parseSonarVersions(PropertyIndex p, Sonar sonar) {
     parseSonarVersions(p, sonar, PUBLIC_VERSIONS, Product.OLD_SONARQUBE, true);
     parseSonarVersions(p, sonar, SONARQUBE_SERVER_VERSIONS, Product.SONARQUBE_SERVER, true);
     parseSonarVersions(p, sonar, COMMUNITY_BUILD_VERSIONS, Product.SONARQUBE_COMMUNITY_BUILD, true);
@@ -434,10 +806,10 @@ public final class UpdateCenterDeserializer {
     }
   }
 
-  private void parseSonarVersions(Properties p, Sonar sonar, String key, Product product, boolean isPublicRelease) {
+  private void parseSonarVersions(PropertyIndex p, Sonar sonar, String key, Product product, boolean isPublicRelease) {
     for (String sonarVersion : getArray(p, key)) {
       Release release = parseSonarVersion(p, sonar, isPublicRelease, sonarVersion, product);
-      boolean is108or20251 = (release.getVersion().equals(Version.create("10.8")) || release.getVersion().equals(Version.create("2025.1")));
+      boolean is108or20251 = (release.getVersion().equals(VERSION_10_8) || release.getVersion().equals(VERSION_2025_1));
       if (product == Product.OLD_SONARQUBE && is108or20251) {
         // We don't want to add 10.8 and 2025.1. These releases are added to the publicVersions field only for 10.7 SQs and below to display
         // marketing banner.
@@ -451,8 +823,8 @@ public final class UpdateCenterDeserializer {
     }
   }
 
-  private Release parseSonarVersion(Properties p, Sonar sonar, boolean isPublicRelease, String sonarVersion, Product product) {
-    Release release = new Release(sonar, sonarVersion);
+  private Release parseSonarVersion(PropertyIndex p, Sonar sonar, boolean isPublicRelease, String sonarVersion, Product product) {
+    Release release = new Release(sonar, versions.create(sonarVersion));
     release.setPublic(isPublicRelease);
     release.setProduct(product);
     release.setChangelogUrl(getOrDefault(p, sonarVersion, CHANGELOG_URL_SUFFIX, isPublicRelease));
@@ -468,122 +840,14 @@ public final class UpdateCenterDeserializer {
     return release;
   }
 
-  private Version[] getRequiredSonarVersions(Properties p, String pluginKey, String pluginVersion,
-    Sonar sonar, Product product) {
+  private Version[] getRequiredSonarVersions(PropertyIndex p, String pluginKey, String pluginVersion,
+    SonarVersionsResolver sonarVersions, Product product) {
     // For backward compatibility we require plugins to only define compatible versions of old sonarqube.
     String sqVersions = get(p, pluginKey, pluginVersion + "." + product.getSuffix(), false);
-    List<String> patterns = split(StringUtils.defaultIfEmpty(sqVersions, ""));
-    List<Version> result = new LinkedList<>();
-    for (String pattern : patterns) {
-      if (pattern != null) {
-        Matcher multipleEltMatcher = Pattern.compile("\\[(.*),(.*)\\]").matcher(pattern);
-        Matcher simpleEltMatcher = Pattern.compile("\\[(.*)\\]").matcher(pattern);
-        if (multipleEltMatcher.matches()) {
-          final Version low = resolveLowVersion(multipleEltMatcher.group(1), pattern, pluginKey);
-          final Version high = resolveKeywordAndStar(multipleEltMatcher.group(2), sonar, pluginKey, product);
-          resolveRangeOfRequiredSQVersion(sonar, result, low, high, product);
-        } else if (simpleEltMatcher.matches()) {
-          result.add(resolveKeywordAndStar(simpleEltMatcher.group(1), sonar, pluginKey, product));
-        } else {
-          result.add(resolveKeywordAndStar(pattern, sonar, pluginKey, product));
-        }
-      }
-    }
-    return result.toArray(new Version[0]);
-  }
-
-  private static void resolveRangeOfRequiredSQVersion(Sonar sonar, List<Version> result, final Version low, final Version high,
-    Product product) {
-    sonar.getAllReleases(product).stream()
-      .filter(Objects::nonNull)
-      .map(Release::getVersion)
-      .filter(Objects::nonNull)
-      .filter(version -> version.compareTo(low) >= 0 && version.compareTo(high) <= 0)
-      .forEach(version -> {
-        String fromString;
-        if (version.equals(low)) {
-          fromString = low.getFromString();
-        } else if (version.equals(high)) {
-          fromString = high.getFromString();
-        } else {
-          fromString = "";
-        }
-        result.add(Version.create(version, fromString));
-      });
-  }
-
-  private static List<String> split(String requiredSonarVersions) {
-    List<String> splitted = new ArrayList<>();
-    int skipCommas = 0;
-    StringBuilder s = new StringBuilder();
-    for (char c : requiredSonarVersions.toCharArray()) {
-      if (c == ',' && skipCommas == 0) {
-        splitted.add(s.toString());
-        s = new StringBuilder();
-      } else {
-        if (c == '[') {
-          skipCommas++;
-        }
-        if (c == ']') {
-          skipCommas--;
-        }
-        s.append(c);
-      }
-    }
-    if (StringUtils.isNotBlank(s.toString())) {
-      splitted.add(s.toString());
-    }
-    return splitted;
+    return sonarVersions.resolve(sqVersions, product, pluginKey);
   }
 
-  private static Version resolveLowVersion(String versionStr, String range, String pluginKey) {
-    if (LATEST_KEYWORD.equals(versionStr)) {
-      throw new SonarVersionRangeException(String.format(
-        "Cannot use LATEST keyword at the start of a range in '%s' (in plugin '%s'). Use 'sqVersions=LATEST' instead.",
-        range,
-        pluginKey
-      ));
-    }
-
-    if (versionStr.endsWith("*")) {
-      throw new SonarVersionRangeException(String.format(
-        "Cannot use a wildcard version at the start of a range in '%s' (in plugin '%s'). " +
-          "If you want to mark this range as compatible with any MAJOR.MINOR.* version, use the MAJOR.MINOR version instead " +
-          "(e.g.: 'sqVersions=[6.7,6.7.*]', 'sqVersions=[6.7,LATEST]').",
-        range,
-        pluginKey
-      ));
-    }
-
-    return Version.create(versionStr);
-  }
-
-  private static Version resolveKeywordAndStar(String versionStr, Sonar sonar, String pluginKey, Product product) {
-    if (LATEST_KEYWORD.equals(versionStr)) {
-      return Version.create(sonar.getAllReleases(product).last().getVersion(), LATEST_KEYWORD);
-    } else if (versionStr.endsWith("*")) {
-      return resolveWithWildcard(versionStr, sonar, pluginKey, product);
-    }
-    return Version.create(versionStr);
-  }
-
-  private static Version resolveWithWildcard(String versionStr, Sonar sonar, String pluginKey, Product product) {
-    String prefix = versionStr.substring(0, versionStr.length() - 1);
-    String prefixWithoutDot = prefix.endsWith(".") ? prefix.substring(0, prefix.length() - 1) : prefix;
-    Release found = null;
-    for (Release r : sonar.getAllReleases(product)) {
-      if (r.getVersion().toString().equals(prefixWithoutDot) || r.getVersion().toString().startsWith(prefix)) {
-        found = r;
-      }
-    }
-    if (found != null) {
-      return Version.create(found.getVersion(), "*");
-    } else {
-      throw new IllegalStateException(String.format("Unable to resolve version '%s' (in plugin '%s')", versionStr, pluginKey));
-    }
-  }
-
-  private String getOrDefault(Properties props, String sqVersion, String suffix, boolean required) {
+  private String getOrDefault(PropertyIndex props, String sqVersion, String suffix, boolean required) {
     String key = sqVersion + suffix;
     String defaultKey = DEFAULTS_PREFIX + suffix;
     String value = getOrDefault(props, key, defaultKey);
@@ -597,7 +861,7 @@ public final class UpdateCenterDeserializer {
     reportError(key + " should be defined");
   }
 
-  private String get(Properties props, String key, boolean required) {
+  private String get(PropertyIndex props, String key, boolean required) {
     String value = get(props, key);
     if (StringUtils.isBlank(value) && required) {
       reportUndefined(key);
@@ -605,42 +869,45 @@ public final class UpdateCenterDeserializer {
     return value;
   }
 
-  private static String get(Properties props, String key) {
-    return StringUtils.defaultIfEmpty(props.getProperty(key), null);
+  private static String get(PropertyIndex props, String key) {
+    return StringUtils.defaultIfEmpty(props.get(key), null);
   }
 
-  private static String getOrDefault(Properties props, String key, String defaultKey) {
-    if (props.containsKey(key)) {
-      return props.getProperty(key);
+  private static String getOrDefault(PropertyIndex props, String key, String defaultKey) {
+    if (props.contains(key)) {
+      return props.get(key);
     }
-    return StringUtils.defaultIfEmpty(props.getProperty(defaultKey), null);
+    return StringUtils.defaultIfEmpty(props.get(defaultKey), null);
   }
 
-  private String getOrDefault(Properties props, String pluginKey, String version, String suffix, boolean required) {
-    String key = pluginKey + "." + version + suffix;
-    String defaultKey = pluginKey + "." + DEFAULTS_PREFIX + suffix;
-    String value = getOrDefault(props, key, defaultKey);
+  private String getOrDefault(PropertyIndex props, String pluginKey, String version, String suffix, boolean required) {
+    String field = version + suffix;
+    String value;
+    if (props.contains(pluginKey, field)) {
+      value = props.get(pluginKey, field);
+    } else {
+      value = StringUtils.defaultIfEmpty(props.get(pluginKey, DEFAULTS_PREFIX + suffix), null);
+    }
     if (StringUtils.isBlank(value) && required) {
-      reportUndefined(key);
+      reportUndefined(pluginKey + "." + field);
     }
     return value;
   }
 
-  private String get(Properties p, String pluginKey, String field, boolean required) {
-    String key = pluginKey + "." + field;
-    String value = get(p, key);
+  private String get(PropertyIndex p, String pluginKey, String field, boolean required) {
+    String value = StringUtils.defaultIfEmpty(p.get(pluginKey, field), null);
     if (StringUtils.isBlank(value) && required) {
-      reportUndefined(key);
+      reportUndefined(pluginKey + "." + field);
     }
     return value;
   }
 
-  private static String[] getArray(Properties props, String key) {
-    return StringUtils.split(StringUtils.defaultIfEmpty(props.getProperty(key), ""), ",");
+  private static String[] getArray(PropertyIndex props, String key) {
+    return StringUtils.split(StringUtils.defaultIfEmpty(props.get(key), ""), ",");
   }
 
-  private static String[] getArray(Properties p, String pluginKey, String field) {
-    return getArray(p, pluginKey + "." + field);
+  private static String[] getArray(PropertyIndex p, String pluginKey, String field) {
+    return StringUtils.split(StringUtils.defaultIfEmpty(p.get(pluginKey, field), ""), ",");
   }
 
 }
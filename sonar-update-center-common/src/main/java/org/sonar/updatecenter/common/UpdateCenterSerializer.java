@@ -22,13 +22,20 @@ package org.sonar.updatecenter.common;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
@@ -48,32 +55,44 @@ public final class UpdateCenterSerializer {
   private UpdateCenterSerializer() {
   }
 
-  private static void set(Properties props, String key, @Nullable String value) {
+  private static void set(Map<String, String> props, String key, @Nullable String value) {
     if (StringUtils.isNotBlank(value)) {
-      props.setProperty(key, value);
+      props.put(key, value);
     }
   }
 
-  private static void set(Properties props, String key, @Nullable Collection values) {
+  private static void set(Map<String, String> props, String key, @Nullable Collection values) {
     if (values != null && !values.isEmpty()) {
-      props.setProperty(key, StringUtils.join(values, ","));
+      props.put(key, StringUtils.join(values, ","));
     }
   }
 
-  private static void set(Properties props, Plugin plugin, String key, @Nullable String value) {
+  private static void set(Map<String, String> props, Plugin plugin, String key, @Nullable String value) {
     if (StringUtils.isNotBlank(value)) {
-      props.setProperty(plugin.getKey() + "." + key, value);
+      props.put(plugin.getKey() + "." + key, value);
     }
   }
 
-  private static void set(Properties props, Plugin plugin, String key, @Nullable Collection values) {
+  private static void set(Map<String, String> props, Plugin plugin, String key, @Nullable Collection values) {
     if (values != null && !values.isEmpty()) {
-      props.setProperty(plugin.getKey() + "." + key, StringUtils.join(values, ","));
+      props.put(plugin.getKey() + "." + key, StringUtils.join(values, ","));
     }
   }
 
   public static Properties toProperties(UpdateCenter center) {
     Properties p = new Properties();
+    p.putAll(centerEntries(center));
+    for (Plugin plugin : center.getUpdateCenterPluginReferential().getPlugins()) {
+      p.putAll(pluginEntries(plugin));
+    }
+    return p;
+  }
+
+  /**
+   * Entries that are not specific to a plugin
+   */
+  private static TreeMap<String, String> centerEntries(UpdateCenter center) {
+    TreeMap<String, String> p = new TreeMap<>();
     set(p, "date", FormatUtils.toDateTimeString(center.getDate()));
     SortedSet<Version> publicVersions = determinePublicVersionsField(center);
     set(p, "publicVersions", publicVersions);
@@ -104,7 +123,7 @@ public final class UpdateCenterSerializer {
 
     List<String> pluginKeys = new ArrayList<>();
     for (Plugin plugin : center.getUpdateCenterPluginReferential().getPlugins()) {
-      addPlugin(plugin, pluginKeys, p);
+      pluginKeys.add(plugin.getKey());
     }
     set(p, "plugins", pluginKeys);
     return p;
@@ -116,7 +135,7 @@ public final class UpdateCenterSerializer {
    * It is a business requirement.
    */
   private static SortedSet<Version> determinePublicVersionsField(UpdateCenter center) {
-    SortedSet<Version> publicVersions = center.getSonar().getPublicVersions(Product.OLD_SONARQUBE);
+    SortedSet<Version> publicVersions = new TreeSet<>(center.getSonar().getPublicVersions(Product.OLD_SONARQUBE));
     Set<Version> newSonarQubes = center.getSonar().getPublicVersions(Product.SONARQUBE_SERVER).stream()
       .filter(version -> version.equals(Version.create("10.8")) || version.equals(Version.create("2025.1")))
       .collect(Collectors.toSet());
@@ -124,7 +143,7 @@ public final class UpdateCenterSerializer {
     return publicVersions;
   }
 
-  private static void setProductProperties(UpdateCenter center, Properties p, Product product) {
+  private static void setProductProperties(UpdateCenter center, Map<String, String> p, Product product) {
     for (Release sonarRelease : center.getSonar().getAllReleases(product)) {
       set(p, sonarRelease.getVersion() + CHANGELOG_URL_SUFFIX, sonarRelease.getChangelogUrl());
       set(p, sonarRelease.getVersion() + DISPLAY_VERSION_SUFFIX, sonarRelease.getDisplayVersion());
@@ -148,8 +167,8 @@ public final class UpdateCenterSerializer {
     }
   }
 
-  private static void addPlugin(Plugin plugin, List<String> pluginKeys, Properties p) {
-    pluginKeys.add(plugin.getKey());
+  private static SortedMap<String, String> pluginEntries(Plugin plugin) {
+    SortedMap<String, String> p = new TreeMap<>();
     set(p, plugin, "name", plugin.getName());
     set(p, plugin, "description", plugin.getDescription());
     set(p, plugin, "category", plugin.getCategory());
@@ -194,22 +213,124 @@ public final class UpdateCenterSerializer {
     }
     // For backward compatibility
     set(p, plugin, "versions", plugin.getVersions());
+    return p;
   }
 
+  /**
+   * Writes the same entries as {@link #toProperties(UpdateCenter)}, in the format of {@link Properties#store(OutputStream, String)},
+   * but sorted by key and without timestamp, so that the same update center always gives the same file. Entries are
+   * written plugin by plugin, without building them all in memory.
+   */
   public static void toProperties(UpdateCenter sonar, File toFile) {
-    try (OutputStream output = Files.newOutputStream(toFile.toPath())) {
-      toProperties(sonar).store(output, "Generated file");
-
+    try (Writer writer = Files.newBufferedWriter(toFile.toPath(), StandardCharsets.ISO_8859_1)) {
+      writeProperties(sonar, writer);
     } catch (IOException e) {
       throw new IllegalStateException("Fail to store update center properties to: " + toFile.getAbsolutePath(), e);
     }
   }
 
+  static void writeProperties(UpdateCenter center, Writer writer) throws IOException {
+    writer.write("#Generated file\n");
+    TreeMap<String, String> centerEntries = centerEntries(center);
+    // all the keys of a plugin start with its key and a dot, so merging the entries of each plugin, sorted by this
+    // prefix, with the other entries keeps them sorted. Sorting by plugin key is not enough when a key is followed by
+    // a character lower than the dot in another key, like "abc" and "abc-foo".
+    TreeMap<String, Plugin> pluginsByPrefix = new TreeMap<>();
+    for (Plugin plugin : center.getUpdateCenterPluginReferential().getPlugins()) {
+      pluginsByPrefix.put(plugin.getKey() + ".", plugin);
+    }
+    for (Map.Entry<String, Plugin> plugin : pluginsByPrefix.entrySet()) {
+      while (!centerEntries.isEmpty() && centerEntries.firstKey().compareTo(plugin.getKey()) < 0) {
+        writeEntry(writer, centerEntries.pollFirstEntry());
+      }
+      for (Map.Entry<String, String> entry : pluginEntries(plugin.getValue()).entrySet()) {
+        writeEntry(writer, entry);
+      }
+    }
+    while (!centerEntries.isEmpty()) {
+      writeEntry(writer, centerEntries.pollFirstEntry());
+    }
+  }
+
+  private static void writeEntry(Writer writer, Map.Entry<String, String> entry) throws IOException {
+    writeEscaped(writer, entry.getKey(), true);
+    writer.write('=');
+    writeEscaped(writer, entry.getValue(), false);
+    writer.write('\n');
+  }
+
+  /**
+   * Same escaping as {@link Properties#store(OutputStream, String)}
+   */
+  private static void writeEscaped(Writer writer, String s, boolean isKey) throws IOException {
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case ' ':
+          if (i == 0 || isKey) {
+            writer.write('\\');
+          }
+          writer.write(' ');
+          break;
+        case '\t':
+          writer.write("\\t");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        case '\r':
+          writer.write("\\r");
+          break;
+        case '\f':
+          writer.write("\\f");
+          break;
+        case '=', ':', '#', '!':
+          writer.write('\\');
+          writer.write(c);
+          break;
+        default:
+          if (c < 0x20 || c > 0x7e) {
+            writer.write(String.format("\\u%04X", (int) c));
+          } else {
+            writer.write(c);
+          }
+      }
+    }
+  }
+
+  /**
+   * Writes the update center in the binary format, that is loaded with {@link UpdateCenterDeserializer#fromBinary(File)}
+   * without parsing nor validating properties again
+   */
+  public static void toBinary(UpdateCenter center, File toFile) {
+    try {
+      Files.write(toFile.toPath(), UpdateCenterBinaryFormat.write(center));
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to store update center binary to: " + toFile.getAbsolutePath(), e);
+    }
+  }
+
+  /**
+   * Writes the snapshot in a binary format, that is loaded with {@link UpdateCenterDeserializer#snapshotFromBinary(File)}
+   */
+  public static void toBinary(UpdateCenterSnapshot snapshot, File toFile) {
+    try {
+      Files.write(toFile.toPath(), snapshot.toBytes());
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to store update center snapshot to: " + toFile.getAbsolutePath(), e);
+    }
+  }
+
   private static String[] getRequiredList(Release release) {
     List<String> requiredStringList = new ArrayList<>();
     for (Release requiredRelease : release.getOutgoingDependencies()) {
       requiredStringList.add(requiredRelease.getArtifact().getKey() + ":" + requiredRelease.getVersion().getName());
     }
+    // sorted, so that the output does not depend on the order of the set
+    Collections.sort(requiredStringList);
     return requiredStringList.toArray(new String[]{});
   }
 }
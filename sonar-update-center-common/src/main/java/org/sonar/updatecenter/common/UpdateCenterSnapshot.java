@@ -0,0 +1,238 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+
+/**
+ * Update center loaded by {@link UpdateCenterDeserializer#fromManyFiles(java.io.File, UpdateCenterSnapshot)}, with
+ * what is needed to load it again incrementally: the hash of the content of each file, and the parsed plugins and scanners.
+ * <p/>
+ * It is stored between builds with {@link UpdateCenterSerializer#toBinary(UpdateCenterSnapshot, java.io.File)}:
+ * <pre>
+ * header    magic, format version
+ * digests   digest of the main file, then count, key and hash of the file of each plugin, then same for scanners
+ * model     length, then the update center in the format of {@link UpdateCenterBinaryFormat}
+ * </pre>
+ */
+public final class UpdateCenterSnapshot {
+
+  static final int MAGIC = 0x53515553;
+  static final int FORMAT_VERSION = 1;
+
+  private final UpdateCenter updateCenter;
+  private final String mainDigest;
+  private final Map<String, String> pluginHashes;
+  private final Map<String, String> scannerHashes;
+  private final Map<String, Plugin> plugins;
+  private final Map<String, Scanner> scanners;
+  private final int parsedComponents;
+
+  UpdateCenterSnapshot(UpdateCenter updateCenter, String mainDigest, Map<String, String> pluginHashes, Map<String, String> scannerHashes,
+    Map<String, Plugin> plugins, Map<String, Scanner> scanners, int parsedComponents) {
+    this.updateCenter = updateCenter;
+    this.mainDigest = mainDigest;
+    this.pluginHashes = pluginHashes;
+    this.scannerHashes = scannerHashes;
+    this.plugins = plugins;
+    this.scanners = scanners;
+    this.parsedComponents = parsedComponents;
+  }
+
+  byte[] toBytes() {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      writeString(out, mainDigest);
+      writeHashes(out, pluginHashes);
+      writeHashes(out, scannerHashes);
+      byte[] model = UpdateCenterBinaryFormat.write(updateCenter);
+      out.writeInt(model.length);
+      out.write(model);
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      // only in-memory streams are used
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeHashes(DataOutputStream out, Map<String, String> hashes) throws IOException {
+    out.writeInt(hashes.size());
+    for (Map.Entry<String, String> hash : hashes.entrySet()) {
+      writeString(out, hash.getKey());
+      writeString(out, hash.getValue());
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  /**
+   * The plugins and scanners of the snapshot are the ones of the stored update center, the others being considered as
+   * discarded. No validation is done, the buffer is expected to be written by {@link #toBytes()}.
+   *
+   * @throws IllegalStateException if the buffer is not a snapshot in the supported format version
+   */
+  static UpdateCenterSnapshot fromBytes(ByteBuffer buffer) {
+    if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+      throw new IllegalStateException("Not an update center snapshot");
+    }
+    int formatVersion = buffer.getInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IllegalStateException("Unsupported update center snapshot format version: " + formatVersion);
+    }
+    String mainDigest = readString(buffer);
+    Map<String, String> pluginHashes = readHashes(buffer);
+    Map<String, String> scannerHashes = readHashes(buffer);
+    int modelLength = buffer.getInt();
+    ByteBuffer model = buffer.slice(buffer.position(), modelLength);
+    UpdateCenter updateCenter = UpdateCenterBinaryFormat.read(model);
+
+    Map<String, Plugin> plugins = new LinkedHashMap<>();
+    for (Plugin plugin : updateCenter.getUpdateCenterPluginReferential().getPlugins()) {
+      plugins.put(plugin.getKey(), plugin);
+    }
+    Map<String, Scanner> scanners = new LinkedHashMap<>();
+    for (Scanner scanner : updateCenter.getScanners()) {
+      scanners.put(scanner.getKey(), scanner);
+    }
+    return new UpdateCenterSnapshot(updateCenter, mainDigest, pluginHashes, scannerHashes, plugins, scanners, 0);
+  }
+
+  private static Map<String, String> readHashes(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    Map<String, String> hashes = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      hashes.put(readString(buffer), readString(buffer));
+    }
+    return hashes;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] utf8 = new byte[buffer.getInt()];
+    buffer.get(utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+
+  public UpdateCenter getUpdateCenter() {
+    return updateCenter;
+  }
+
+  /**
+   * Number of plugins and scanners that were parsed to build this snapshot, the other ones being reused from the previous one
+   */
+  public int getParsedComponents() {
+    return parsedComponents;
+  }
+
+  String getMainDigest() {
+    return mainDigest;
+  }
+
+  Sonar getSonar() {
+    return updateCenter.getSonar();
+  }
+
+  /**
+   * @return null if the plugin was discarded, for example because it is not compatible with any SonarQube version
+   */
+  @CheckForNull
+  Plugin getPlugin(String key) {
+    return plugins.get(key);
+  }
+
+  /**
+   * @return null if the scanner was discarded because it has no release
+   */
+  @CheckForNull
+  Scanner getScanner(String key) {
+    return scanners.get(key);
+  }
+
+  /**
+   * Plugins whose file was added or changed, and the plugins linked to them or to a removed plugin by dependencies,
+   * as their releases reference each other.
+   */
+  Set<String> getPluginsToParse(Map<String, String> newPluginHashes) {
+    Set<String> affected = new HashSet<>(changedKeys(pluginHashes, newPluginHashes));
+    Deque<String> toVisit = new ArrayDeque<>(affected);
+    while (!toVisit.isEmpty()) {
+      Plugin plugin = plugins.get(toVisit.pop());
+      if (plugin == null) {
+        continue;
+      }
+      for (Release release : plugin.getAllReleases()) {
+        for (Release linked : release.getOutgoingDependencies()) {
+          visit(linked, affected, toVisit);
+        }
+        for (Release linked : release.getIncomingDependencies()) {
+          visit(linked, affected, toVisit);
+        }
+      }
+    }
+    affected.retainAll(newPluginHashes.keySet());
+    return affected;
+  }
+
+  private static void visit(Release linked, Set<String> affected, Deque<String> toVisit) {
+    String key = linked.getArtifact().getKey();
+    if (affected.add(key)) {
+      toVisit.push(key);
+    }
+  }
+
+  Set<String> getScannersToParse(Map<String, String> newScannerHashes) {
+    Set<String> changed = changedKeys(scannerHashes, newScannerHashes);
+    changed.retainAll(newScannerHashes.keySet());
+    return changed;
+  }
+
+  private static Set<String> changedKeys(Map<String, String> previousHashes, Map<String, String> newHashes) {
+    Set<String> changed = new HashSet<>();
+    newHashes.forEach((key, hash) -> {
+      if (!hash.equals(previousHashes.get(key))) {
+        changed.add(key);
+      }
+    });
+    for (String key : previousHashes.keySet()) {
+      if (!newHashes.containsKey(key)) {
+        changed.add(key);
+      }
+    }
+    return changed;
+  }
+}
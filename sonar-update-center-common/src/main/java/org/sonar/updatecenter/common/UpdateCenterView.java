@@ -0,0 +1,162 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+
+/**
+ * Read-only view of an update center written by {@link UpdateCenterSerializer#toBinary(UpdateCenter, File)}, backed by
+ * the memory-mapped file. Plugins and their releases are created when they are first requested, so that looking up
+ * a few plugins does not load the whole update center.
+ * <p/>
+ * Plugins and releases returned by the view must not be modified. The view is thread-safe.
+ */
+public final class UpdateCenterView {
+
+  private final UpdateCenterBinaryFormat.Reader reader;
+  private final Map<String, Integer> pluginIndexes = new HashMap<>();
+  private final Plugin[] plugins;
+  private Sonar sonar;
+  private List<Scanner> scanners;
+  private UpdateCenter updateCenter;
+
+  private UpdateCenterView(UpdateCenterBinaryFormat.Reader reader) {
+    this.reader = reader;
+    this.plugins = new Plugin[reader.getPluginCount()];
+    for (int i = 0; i < plugins.length; i++) {
+      pluginIndexes.put(reader.getPluginKey(i), i);
+    }
+  }
+
+  /**
+   * @throws IllegalStateException if the file is not in the supported format version
+   */
+  public static UpdateCenterView open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      // the mapping stays valid once the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new UpdateCenterView(new UpdateCenterBinaryFormat.Reader(buffer));
+    }
+  }
+
+  @CheckForNull
+  public Date getDate() {
+    return reader.getDate();
+  }
+
+  /**
+   * Keys of all plugins, sorted
+   */
+  public List<String> getPluginKeys() {
+    List<String> keys = new ArrayList<>(pluginIndexes.keySet());
+    Collections.sort(keys);
+    return keys;
+  }
+
+  /**
+   * Creates the plugin on first call, as well as the plugins linked to it by dependencies
+   *
+   * @return null if there is no plugin with this key
+   */
+  @CheckForNull
+  public synchronized Plugin findPlugin(String key) {
+    Integer index = pluginIndexes.get(key);
+    return index == null ? null : plugin(index);
+  }
+
+  /**
+   * Shortcut for {@link Artifact#getLastCompatible(Version, Product)}
+   *
+   * @return null if there is no plugin with this key, or no compatible release
+   */
+  @CheckForNull
+  public synchronized Release findLastCompatible(String pluginKey, Version sonarVersion, Product product) {
+    Plugin plugin = findPlugin(pluginKey);
+    return plugin == null ? null : plugin.getLastCompatible(sonarVersion, product);
+  }
+
+  public synchronized Sonar getSonar() {
+    if (sonar == null) {
+      sonar = reader.readSonar();
+    }
+    return sonar;
+  }
+
+  public synchronized List<Scanner> getScanners() {
+    if (scanners == null) {
+      List<Scanner> list = new ArrayList<>();
+      for (int i = 0; i < reader.getScannerCount(); i++) {
+        list.add(reader.readScanner(i));
+      }
+      scanners = Collections.unmodifiableList(list);
+    }
+    return scanners;
+  }
+
+  /**
+   * Creates all the plugins that were not requested yet, and returns the update center containing them
+   */
+  public synchronized UpdateCenter toUpdateCenter() {
+    if (updateCenter == null) {
+      List<Plugin> all = new ArrayList<>();
+      for (int i = 0; i < plugins.length; i++) {
+        all.add(plugin(i));
+      }
+      updateCenter = UpdateCenter.create(PluginReferential.create(all), new ArrayList<>(getScanners()), getSonar(), reader.getInstalledProduct())
+        .setDate(reader.getDate());
+    }
+    return updateCenter;
+  }
+
+  /**
+   * Number of plugins created so far
+   */
+  synchronized int getMaterializedPluginCount() {
+    int count = 0;
+    for (Plugin plugin : plugins) {
+      if (plugin != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private Plugin plugin(int index) {
+    Plugin plugin = plugins[index];
+    if (plugin == null) {
+      plugin = reader.readPlugin(index);
+      // registered before wiring, as dependencies may lead back to this plugin
+      plugins[index] = plugin;
+      reader.wireDependencies(index, this::plugin);
+    }
+    return plugin;
+  }
+}
@@ -23,44 +23,77 @@ import org.apache.commons.lang3.StringUtils;
 
 public class Version implements Comparable<Version> {
 
-  private String normalizedMajor = normalizePart("0");
-  private String normalizedMinor = normalizePart("0");
-  private String normalizedPatch = normalizePart("0");
-  private String normalizedPatch2 = normalizePart("0");
-  private String major = "0";
-  private String minor = "0";
-  private String patch = "0";
-  private String patch2 = "0";
-  private String qualifier;
-  private String name;
-  private String fromString;
+  private static final int PARTS = 4;
+  private static final long NOT_NUMERIC = -1L;
+  // numeric parts up to this number of digits are compared as numbers, longer ones as strings
+  static final int MAX_NUMERIC_DIGITS = 18;
+  private static final int PACKED_PART_BITS = 15;
+  private static final long PACKED_PART_MAX = (1L << PACKED_PART_BITS) - 1;
+
+  private final String major;
+  private final String minor;
+  private final String patch;
+  private final String patch2;
+  private final String qualifier;
+  private final String name;
+  private final String fromString;
+
+  /**
+   * Numeric value of major, minor, patch and patch2, or {@link #NOT_NUMERIC}
+   */
+  private final long[] numericParts = new long[PARTS];
+  /**
+   * Parts without their leading zeros, used to compare parts that are not both numeric
+   */
+  private final String[] strippedParts = new String[PARTS];
+  /**
+   * The four parts packed in a long, 15 bits each, or {@link #NOT_NUMERIC} if a part is not numeric or too large.
+   * Most versions can this way be compared and tested for equality with a single comparison.
+   */
+  private final long packedParts;
+  private final int hashCode;
 
   protected Version(String version, String fromString) {
     this.name = StringUtils.trimToEmpty(version);
     this.qualifier = StringUtils.substringAfter(this.name, "-");
     String numbers = StringUtils.substringBefore(this.name, "-");
     String[] split = StringUtils.split(numbers, '.');
-    if (split.length >= 1) {
-      major = split[0];
-      normalizedMajor = normalizePart(major);
-    }
-    if (split.length >= 2) {
-      minor = split[1];
-      normalizedMinor = normalizePart(minor);
-    }
-    if (split.length >= 3) {
-      patch = split[2];
-      normalizedPatch = normalizePart(patch);
-    }
-    if (split.length >= 4) {
-      patch2 = split[3];
-      normalizedPatch2 = normalizePart(patch2);
-    }
+    String[] parts = {"0", "0", "0", "0"};
+    System.arraycopy(split, 0, parts, 0, Math.min(split.length, PARTS));
+    this.major = parts[0];
+    this.minor = parts[1];
+    this.patch = parts[2];
+    this.patch2 = parts[3];
     this.fromString = fromString;
+
+    long packed = 0;
+    int hash = 0;
+    for (int i = 0; i < PARTS; i++) {
+      long numeric = parseNumericPart(parts[i]);
+      numericParts[i] = numeric;
+      strippedParts[i] = StringUtils.stripStart(parts[i], "0");
+      hash = 31 * hash + strippedParts[i].hashCode();
+      if (packed != NOT_NUMERIC) {
+        packed = numeric == NOT_NUMERIC || numeric > PACKED_PART_MAX ? NOT_NUMERIC : ((packed << PACKED_PART_BITS) | numeric);
+      }
+    }
+    this.packedParts = packed;
+    this.hashCode = 31 * hash + qualifier.hashCode();
   }
 
-  private static String normalizePart(String part) {
-    return StringUtils.leftPad(part, 4, '0');
+  private static long parseNumericPart(String part) {
+    if (part.length() > MAX_NUMERIC_DIGITS) {
+      return NOT_NUMERIC;
+    }
+    long value = 0;
+    for (int i = 0; i < part.length(); i++) {
+      char c = part.charAt(i);
+      if (c < '0' || c > '9') {
+        return NOT_NUMERIC;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
   }
 
   public String getMajor() {
@@ -104,21 +137,14 @@ public class Version implements Comparable<Version> {
       return false;
     }
     Version other = (Version) o;
-    return normalizedMajor.equals(other.normalizedMajor)
-      && normalizedMinor.equals(other.normalizedMinor)
-      && normalizedPatch.equals(other.normalizedPatch)
-      && normalizedPatch2.equals(other.normalizedPatch2)
+    return hashCode == other.hashCode
+      && compareToIgnoreQualifier(other) == 0
       && qualifier.equals(other.qualifier);
   }
 
   @Override
   public int hashCode() {
-    int result = normalizedMajor.hashCode();
-    result = 31 * result + normalizedMinor.hashCode();
-    result = 31 * result + normalizedPatch.hashCode();
-    result = 31 * result + normalizedPatch2.hashCode();
-    result = 31 * result + qualifier.hashCode();
-    return result;
+    return hashCode;
   }
 
   @Override
@@ -136,18 +162,36 @@ public class Version implements Comparable<Version> {
     return c;
   }
 
+  /**
+   * Numeric parts are compared as numbers, so that for example 10 is greater than 9 and 20251 greater than 2025.
+   * Other parts are compared the same way: leading zeros are ignored, the longer part is the greater one,
+   * and parts of the same length are compared as strings.
+   */
   public int compareToIgnoreQualifier(Version other) {
-    int c = normalizedMajor.compareTo(other.normalizedMajor);
-    if (c == 0) {
-      c = normalizedMinor.compareTo(other.normalizedMinor);
-      if (c == 0) {
-        c = normalizedPatch.compareTo(other.normalizedPatch);
-        if (c == 0) {
-          c = normalizedPatch2.compareTo(other.normalizedPatch2);
-        }
+    if (packedParts != NOT_NUMERIC && other.packedParts != NOT_NUMERIC) {
+      return Long.compare(packedParts, other.packedParts);
+    }
+    for (int i = 0; i < PARTS; i++) {
+      int c = comparePart(other, i);
+      if (c != 0) {
+        return c;
       }
     }
-    return c;
+    return 0;
+  }
+
+  private int comparePart(Version other, int index) {
+    long numeric = numericParts[index];
+    long otherNumeric = other.numericParts[index];
+    if (numeric != NOT_NUMERIC && otherNumeric != NOT_NUMERIC) {
+      return Long.compare(numeric, otherNumeric);
+    }
+    String stripped = strippedParts[index];
+    String otherStripped = other.strippedParts[index];
+    if (stripped.length() != otherStripped.length()) {
+      return Integer.compare(stripped.length(), otherStripped.length());
+    }
+    return stripped.compareTo(otherStripped);
   }
 
   @Override
@@ -180,6 +224,6 @@ public class Version implements Comparable<Version> {
    * Two versions are compatible when they are identical except for qualifier.
    */
   public boolean isCompatibleWith(Version version) {
-    return this.removeQualifier().equals(version.removeQualifier());
+    return compareToIgnoreQualifier(version) == 0;
   }
 }
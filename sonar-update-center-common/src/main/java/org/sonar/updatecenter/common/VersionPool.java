@@ -0,0 +1,101 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Returns a shared {@link Version} instance for each name and {@link Version#getFromString() fromString}, so that
+ * the same SonarQube versions repeated in the compatibility lists of every plugin release are not parsed and stored again.
+ * Versions are immutable, so instances can be shared. Thread-safe.
+ */
+final class VersionPool {
+
+  private final ConcurrentMap<Key, Version> versions = new ConcurrentHashMap<>();
+  private final AtomicInteger hits = new AtomicInteger();
+
+  Version create(String version) {
+    return create(version, version);
+  }
+
+  Version create(Version version, String fromString) {
+    return create(version.getName(), fromString);
+  }
+
+  Version create(String version, String fromString) {
+    Key key = new Key(version, fromString);
+    Version existing = versions.get(key);
+    if (existing != null) {
+      hits.incrementAndGet();
+      return existing;
+    }
+    Version created = Version.create(version, fromString);
+    existing = versions.putIfAbsent(key, created);
+    if (existing != null) {
+      hits.incrementAndGet();
+      return existing;
+    }
+    return created;
+  }
+
+  /**
+   * Number of distinct versions created
+   */
+  int size() {
+    return versions.size();
+  }
+
+  /**
+   * Number of times an existing version was returned instead of creating a new one
+   */
+  int getHits() {
+    return hits.get();
+  }
+
+  private static class Key {
+    private final String version;
+    private final String fromString;
+
+    private Key(String version, String fromString) {
+      this.version = version;
+      this.fromString = fromString;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return version.equals(other.version) && Objects.equals(fromString, other.fromString);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * version.hashCode() + Objects.hashCode(fromString);
+    }
+  }
+}
@@ -22,10 +22,13 @@ package org.sonar.updatecenter.common;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
 import org.junit.Test;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class ArtifactTest {
 
@@ -124,6 +127,122 @@ public class ArtifactTest {
       .containsExactly("1.1.2", "2.0.2");
   }
 
+  @Test
+  public void getRelease_finds_release_or_dev_release_by_version() {
+    FakeArtifact artifact = new FakeArtifact("fake");
+    Release release11 = artifact.addRelease(Version.create("1.1"));
+    Release release20 = artifact.addRelease(new Release(artifact, "2.0"));
+    Release dev = artifact.setDevRelease(new Release(artifact, "2.1-SNAPSHOT"));
+
+    assertThat(artifact.getRelease(Version.create("1.1"))).isSameAs(release11);
+    assertThat(artifact.getRelease(Version.create("2.0"))).isSameAs(release20);
+    assertThat(artifact.getRelease(Version.create("2.1-SNAPSHOT"))).isSameAs(dev);
+    assertThat(artifact.doesContainVersion(Version.create("2.0"))).isTrue();
+    assertThat(artifact.doesContainVersion(Version.create("2.1-SNAPSHOT"))).isTrue();
+    assertThat(artifact.doesContainVersion(Version.create("2.1"))).isFalse();
+    assertThatThrownBy(() -> artifact.getRelease(Version.create("3.0")))
+      .isInstanceOf(NoSuchElementException.class)
+      .hasMessage("Unable to find a release of plugin fake with version 3.0");
+  }
+
+  @Test
+  public void getRelease_finds_release_by_its_new_version_after_it_changed() {
+    FakeArtifact artifact = new FakeArtifact("fake");
+    Release release = artifact.addRelease(Version.create("1.0"));
+    assertThat(artifact.getRelease(Version.create("1.0"))).isSameAs(release);
+
+    release.setVersion(Version.create("1.0.1"));
+
+    assertThat(artifact.getRelease(Version.create("1.0.1"))).isSameAs(release);
+    assertThat(artifact.doesContainVersion(Version.create("1.0"))).isFalse();
+  }
+
+  @Test
+  public void getRelease_only_returns_releases_of_the_requested_product() {
+    FakeArtifact artifact = new FakeArtifact("fake");
+    Release release = artifact.addRelease(new Release(artifact, "1.0").setProduct(Product.SONARQUBE_SERVER));
+
+    assertThat(artifact.getRelease(Version.create("1.0"), Product.SONARQUBE_SERVER)).isSameAs(release);
+    assertThat(artifact.doesContainVersion(Version.create("1.0"))).isFalse();
+    assertThatThrownBy(() -> artifact.getRelease(Version.create("1.0"), Product.SONARQUBE_COMMUNITY_BUILD))
+      .isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  public void compatible_releases_ignore_sonar_version_qualifier() {
+    FakeArtifact artifact = new FakeArtifact("fake");
+    Release release10 = artifact.addRelease(new Release(artifact, "1.0").addRequiredSonarVersions(Product.SONARQUBE_SERVER, "9.9", "10.0"));
+    Release release11 = artifact.addRelease(new Release(artifact, "1.1").addRequiredSonarVersions(Product.SONARQUBE_SERVER, "10.0"));
+    Release dev = artifact.setDevRelease(new Release(artifact, "1.2-SNAPSHOT").addRequiredSonarVersions(Product.SONARQUBE_SERVER, "10.0", "10.1"));
+
+    assertThat(artifact.getLastCompatible(Version.create("10.0-RC1"), Product.SONARQUBE_SERVER)).isSameAs(release11);
+    assertThat(artifact.getLastCompatibleIncludingDev(Version.create("10.0.0.1234"), Product.SONARQUBE_SERVER)).isNull();
+    assertThat(artifact.getLastCompatibleIncludingDev(Version.create("10.0"), Product.SONARQUBE_SERVER)).isSameAs(dev);
+    assertThat(artifact.getFirstCompatible(Version.create("10.0"), Product.SONARQUBE_SERVER)).isSameAs(release10);
+    assertThat(artifact.getLastCompatible(Version.create("10.1"), Product.SONARQUBE_SERVER)).isNull();
+    assertThat(artifact.getFirstCompatible(Version.create("10.1"), Product.SONARQUBE_SERVER)).isSameAs(dev);
+    assertThat(artifact.getLastCompatible(Version.create("10.0"), Product.SONARQUBE_COMMUNITY_BUILD)).isNull();
+  }
+
+  @Test
+  public void compatible_releases_are_updated_when_releases_change() {
+    FakeArtifact artifact = new FakeArtifact("fake");
+    Release release10 = artifact.addRelease(new Release(artifact, "1.0").addRequiredSonarVersions(Product.OLD_SONARQUBE, "9.9"));
+    assertThat(artifact.getLastCompatible(Version.create("9.9"), Product.OLD_SONARQUBE)).isSameAs(release10);
+
+    Release release11 = artifact.addRelease(new Release(artifact, "1.1"));
+    assertThat(artifact.getLastCompatible(Version.create("9.9"), Product.OLD_SONARQUBE)).isSameAs(release10);
+
+    release11.addRequiredSonarVersions(Product.OLD_SONARQUBE, "9.9");
+    assertThat(artifact.getLastCompatible(Version.create("9.9"), Product.OLD_SONARQUBE)).isSameAs(release11);
+
+    Release release12 = artifact.addRelease(Version.create("1.2"));
+    release12.addRequiredSonarVersions(Product.OLD_SONARQUBE, "9.9");
+    assertThat(artifact.getLastCompatible(Version.create("9.9"), Product.OLD_SONARQUBE)).isSameAs(release12);
+  }
+
+  @Test
+  public void release_views_are_cached_and_unmodifiable() {
+    FakeArtifact artifact = new FakeArtifact("fake");
+    artifact.addRelease(new Release(artifact, "1.0"));
+    artifact.setDevRelease(new Release(artifact, "1.1-SNAPSHOT"));
+
+    SortedSet<Release> allReleases = artifact.getAllReleases();
+
+    assertThat(artifact.getAllReleases()).isSameAs(allReleases);
+    assertThat(artifact.getPublicVersions()).isSameAs(artifact.getPublicVersions());
+    assertThatThrownBy(() -> allReleases.add(new Release(artifact, "2.0"))).isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> artifact.getReleases().clear()).isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> artifact.getPublicVersions().clear()).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void release_views_are_refreshed_when_releases_change() {
+    FakeArtifact artifact = new FakeArtifact("fake");
+    Release release10 = artifact.addRelease(new Release(artifact, "1.0"));
+    assertThat(artifact.getPublicVersions()).extracting(Version::getName).containsExactly("1.0");
+    assertThat(artifact.getPrivateVersions()).isEmpty();
+
+    release10.setPublic(false);
+    assertThat(artifact.getPublicVersions()).isEmpty();
+    assertThat(artifact.getPrivateVersions()).extracting(Version::getName).containsExactly("1.0");
+
+    release10.setArchived(true);
+    assertThat(artifact.getPrivateVersions()).isEmpty();
+    assertThat(artifact.getArchivedVersions()).extracting(Version::getName).containsExactly("1.0");
+
+    artifact.addRelease(new Release(artifact, "2.0"));
+    assertThat(artifact.getPublicVersions()).extracting(Version::getName).containsExactly("2.0");
+    assertThat(artifact.getVersions()).extracting(Version::getName).containsExactly("2.0");
+
+    artifact.addRelease(Version.create("3.0"));
+    assertThat(artifact.getAllReleases()).extracting(Release::getVersion).extracting(Version::getName).containsExactly("1.0", "2.0", "3.0");
+    assertThat(artifact.getLastRelease().getVersion().getName()).isEqualTo("3.0");
+
+    artifact.setDevRelease(new Release(artifact, "3.1-SNAPSHOT"));
+    assertThat(artifact.getAllReleases()).hasSize(4);
+  }
+
   private static class FakeArtifact extends Artifact {
 
     private FakeArtifact(String key) {
@@ -0,0 +1,165 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import org.sonar.updatecenter.common.exception.DependencyCycleException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DependencyGraphTest {
+
+  private final DependencyGraph underTest = new DependencyGraph();
+
+  @Test
+  public void order_required_releases_first() {
+    Release core = release("core");
+    Release java = release("java");
+    Release kotlin = release("kotlin");
+    underTest.add(kotlin);
+    underTest.add(java);
+    underTest.add(core);
+
+    underTest.addDependency(kotlin, java);
+    underTest.addDependency(java, core);
+
+    assertThat(underTest.topologicalOrder()).containsExactly(core, java, kotlin);
+  }
+
+  @Test
+  public void fail_on_self_dependency() {
+    Release foo = release("foo");
+
+    assertThatThrownBy(() -> underTest.addDependency(foo, foo))
+      .isInstanceOf(DependencyCycleException.class)
+      .hasMessage("There is a dependency cycle between plugins 'foo' that must be cut.");
+  }
+
+  @Test
+  public void leave_graph_unchanged_when_edge_closes_a_cycle() {
+    Release foo = release("foo");
+    Release bar = release("bar");
+    Release baz = release("baz");
+    underTest.addDependency(foo, bar);
+    underTest.addDependency(bar, baz);
+    List<Release> order = new ArrayList<>(underTest.topologicalOrder());
+
+    assertThat(underTest.tryAddDependency(baz, foo)).containsExactly(foo, bar, baz);
+    assertThat(underTest.topologicalOrder()).containsExactlyElementsOf(order);
+    // the refused edge was not stored, so the reverse one is accepted
+    assertThat(underTest.tryAddDependency(foo, baz)).isNull();
+  }
+
+  @Test
+  public void accept_diamonds() {
+    Release core = release("core");
+    Release left = release("left");
+    Release right = release("right");
+    Release top = release("top");
+    underTest.addDependency(top, left);
+    underTest.addDependency(top, right);
+    underTest.addDependency(left, core);
+    underTest.addDependency(right, core);
+
+    List<Release> order = underTest.topologicalOrder();
+    assertThat(order.get(0)).isEqualTo(core);
+    assertThat(order.get(3)).isEqualTo(top);
+  }
+
+  @Test
+  public void deep_ecosystem() {
+    // each release requires the next one, added from the top of the chain so that every edge reorders the graph
+    int depth = 2_000;
+    List<Release> chain = new ArrayList<>();
+    for (int i = 0; i < depth; i++) {
+      chain.add(release("p" + i));
+      underTest.add(chain.get(i));
+    }
+    for (int i = 0; i < depth - 1; i++) {
+      underTest.addDependency(chain.get(i), chain.get(i + 1));
+    }
+
+    List<Release> order = underTest.topologicalOrder();
+    assertThat(order.get(0)).isEqualTo(chain.get(depth - 1));
+    assertThat(order.get(depth - 1)).isEqualTo(chain.get(0));
+    assertThat(underTest.tryAddDependency(chain.get(depth - 1), chain.get(0))).hasSize(depth);
+  }
+
+  @Test
+  public void wide_ecosystem() {
+    // many plugins requiring a few shared libraries, added before the libraries
+    List<Release> plugins = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      plugins.add(release("plugin" + i));
+      underTest.add(plugins.get(i));
+    }
+    List<Release> libraries = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      libraries.add(release("library" + i));
+    }
+    for (Release plugin : plugins) {
+      for (Release library : libraries) {
+        underTest.addDependency(plugin, library);
+      }
+    }
+
+    assertThat(underTest.topologicalOrder().subList(0, libraries.size())).containsExactlyInAnyOrderElementsOf(libraries);
+  }
+
+  @Test
+  public void order_is_consistent_with_random_dependencies() {
+    Random random = new Random(42);
+    List<Release> releases = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      releases.add(release("p" + i));
+      underTest.add(releases.get(i));
+    }
+    Map<Release, List<Release>> accepted = new HashMap<>();
+    int refused = 0;
+    for (int i = 0; i < 3_000; i++) {
+      Release release = releases.get(random.nextInt(releases.size()));
+      Release required = releases.get(random.nextInt(releases.size()));
+      if (underTest.tryAddDependency(release, required) == null) {
+        accepted.computeIfAbsent(release, r -> new ArrayList<>()).add(required);
+      } else {
+        refused++;
+      }
+    }
+
+    assertThat(refused).isPositive();
+    List<Release> order = underTest.topologicalOrder();
+    assertThat(order).hasSize(releases.size()).doesNotHaveDuplicates();
+    accepted.forEach((release, requirements) -> {
+      for (Release required : requirements) {
+        assertThat(order.indexOf(required)).isLessThan(order.indexOf(release));
+      }
+    });
+  }
+
+  private static Release release(String key) {
+    return new Release(Plugin.factory(key), "1.0");
+  }
+}
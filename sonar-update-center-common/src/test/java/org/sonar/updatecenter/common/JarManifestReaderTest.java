@@ -0,0 +1,147 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JarManifestReaderTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void read_same_manifest_as_jar_file() throws Exception {
+    File dir = new File(getClass().getResource("/org/sonar/updatecenter/common/PluginManifestTest").toURI());
+    File[] jars = dir.listFiles((d, name) -> name.endsWith(".jar"));
+    assertThat(jars).isNotEmpty();
+
+    for (File jar : jars) {
+      assertThat(JarManifestReader.read(jar)).as(jar.getName()).isEqualTo(JarManifestReader.readWithJarFile(jar));
+    }
+  }
+
+  @Test
+  public void read_deflated_manifest() throws IOException {
+    File jar = temp.newFile("deflated.jar");
+    try (JarOutputStream output = new JarOutputStream(new FileOutputStream(jar), manifest("deflated"))) {
+      output.putNextEntry(new ZipEntry("org/Foo.class"));
+      output.write(new byte[] {1, 2, 3});
+    }
+
+    assertThat(JarManifestReader.read(jar).getMainAttributes().getValue("Plugin-Key")).isEqualTo("deflated");
+  }
+
+  @Test
+  public void read_stored_manifest_after_other_entries() throws IOException {
+    File jar = temp.newFile("stored.jar");
+    try (ZipOutputStream output = new ZipOutputStream(new FileOutputStream(jar))) {
+      output.putNextEntry(new ZipEntry("org/Foo.class"));
+      output.write(new byte[] {1, 2, 3});
+      byte[] bytes = "Manifest-Version: 1.0\r\nPlugin-Key: stored\r\n\r\n".getBytes(StandardCharsets.UTF_8);
+      output.putNextEntry(storedEntry("META-INF/MANIFEST.MF", bytes));
+      output.write(bytes);
+      output.setComment("some comment");
+    }
+
+    assertThat(JarManifestReader.read(jar).getMainAttributes().getValue("Plugin-Key")).isEqualTo("stored");
+  }
+
+  @Test
+  public void read_manifest_whose_name_differs_by_case() throws IOException {
+    File jar = temp.newFile("lowercase.jar");
+    try (ZipOutputStream output = new ZipOutputStream(new FileOutputStream(jar))) {
+      output.putNextEntry(new ZipEntry("meta-inf/manifest.mf"));
+      output.write("Manifest-Version: 1.0\r\nPlugin-Key: lower\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(JarManifestReader.read(jar)).isEqualTo(JarManifestReader.readWithJarFile(jar));
+    assertThat(JarManifestReader.read(jar).getMainAttributes().getValue("Plugin-Key")).isEqualTo("lower");
+  }
+
+  @Test
+  public void return_null_if_no_manifest() throws IOException {
+    File jar = temp.newFile("no-manifest.jar");
+    try (ZipOutputStream output = new ZipOutputStream(new FileOutputStream(jar))) {
+      output.putNextEntry(new ZipEntry("org/Foo.class"));
+      output.write(new byte[] {1, 2, 3});
+    }
+
+    assertThat(JarManifestReader.read(jar)).isNull();
+  }
+
+  @Test
+  public void fail_if_not_a_zip_file() throws IOException {
+    File file = temp.newFile("not-a-jar.jar");
+    Files.write(file.toPath(), "this is not a zip file, but it is long enough".getBytes(StandardCharsets.UTF_8));
+
+    assertThatThrownBy(() -> JarManifestReader.read(file)).isInstanceOf(ZipException.class);
+  }
+
+  @Test
+  public void fail_if_empty_file() throws IOException {
+    File file = temp.newFile("empty.jar");
+
+    assertThatThrownBy(() -> JarManifestReader.read(file)).isInstanceOf(ZipException.class);
+  }
+
+  @Test
+  public void plugin_manifest_is_loaded_from_jar() throws URISyntaxException, IOException {
+    File jar = new File(getClass().getResource("/org/sonar/updatecenter/common/PluginManifestTest/plugin-with-devs.jar").toURI());
+
+    PluginManifest manifest = new PluginManifest(jar);
+
+    assertThat(manifest.getKey()).isEqualTo(JarManifestReader.readWithJarFile(jar).getMainAttributes().getValue(PluginManifest.KEY));
+  }
+
+  private static Manifest manifest(String key) {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().putValue("Plugin-Key", key);
+    return manifest;
+  }
+
+  private static ZipEntry storedEntry(String name, byte[] bytes) {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(ZipEntry.STORED);
+    entry.setSize(bytes.length);
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    entry.setCrc(crc.getValue());
+    return entry;
+  }
+}
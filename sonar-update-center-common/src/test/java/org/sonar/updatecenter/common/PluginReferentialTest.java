@@ -32,6 +32,7 @@ import org.sonar.updatecenter.common.exception.PluginNotFoundException;
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toSet;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.fail;
 import static org.sonar.updatecenter.common.PluginReferential.PLUGINS_BUNDLED_IN_LTS;
 
@@ -60,6 +61,26 @@ public class PluginReferentialTest {
     pluginReferential.findPlugin("not_found");
   }
 
+  @Test
+  public void find_plugins_and_releases_by_key() {
+    List<Plugin> plugins = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      Plugin plugin = Plugin.factory("plugin" + i);
+      plugin.addRelease(new Release(plugin, "1." + i));
+      plugins.add(plugin);
+    }
+
+    PluginReferential pluginReferential = PluginReferential.create(plugins);
+
+    assertThat(pluginReferential.getPlugins()).hasSize(1_000);
+    assertThat(pluginReferential.findPlugin("plugin42")).isSameAs(plugins.get(42));
+    assertThat(pluginReferential.doesContainPlugin("plugin999")).isTrue();
+    assertThat(pluginReferential.doesContainPlugin("plugin1000")).isFalse();
+    assertThat(pluginReferential.doesContainRelease("plugin42", Version.create("1.42"))).isTrue();
+    assertThat(pluginReferential.doesContainRelease("plugin42", Version.create("1.43"))).isFalse();
+    assertThat(pluginReferential.doesContainRelease("plugin1000", Version.create("1.1000"))).isFalse();
+  }
+
   @Test
   public void should_return_releases_keys_to_remove() {
     // Standalone plugin
@@ -201,4 +222,52 @@ public class PluginReferentialTest {
     }
   }
 
+  @Test
+  public void should_accept_diamond_dependencies() {
+    Plugin core = Plugin.factory("core");
+    Release core10 = new Release(core, "1.0");
+    core.addRelease(core10);
+    Plugin left = Plugin.factory("left");
+    Release left10 = new Release(left, "1.0");
+    left.addRelease(left10);
+    Plugin right = Plugin.factory("right");
+    Release right10 = new Release(right, "1.0");
+    right.addRelease(right10);
+    Plugin top = Plugin.factory("top");
+    Release top10 = new Release(top, "1.0");
+    top.addRelease(top10);
+
+    PluginReferential pluginReferential = PluginReferential.create(asList(core, left, right, top));
+    pluginReferential.addOutgoingDependency(left10, "core", "1.0");
+    pluginReferential.addOutgoingDependency(right10, "core", "1.0");
+    pluginReferential.addOutgoingDependency(top10, "left", "1.0");
+    pluginReferential.addOutgoingDependency(top10, "right", "1.0");
+
+    assertThat(top10.getOutgoingDependencies()).containsOnly(left10, right10);
+    assertThat(core10.getIncomingDependencies()).containsOnly(left10, right10);
+  }
+
+  @Test
+  public void should_not_link_releases_of_a_dependency_cycle() {
+    Plugin foo = Plugin.factory("foo");
+    Release foo10 = new Release(foo, "1.0");
+    foo.addRelease(foo10);
+    Plugin bar = Plugin.factory("bar");
+    Release bar10 = new Release(bar, "1.0");
+    bar.addRelease(bar10);
+    Plugin baz = Plugin.factory("baz");
+    Release baz10 = new Release(baz, "1.0");
+    baz.addRelease(baz10);
+
+    PluginReferential pluginReferential = PluginReferential.create(asList(foo, bar, baz));
+    pluginReferential.addOutgoingDependency(foo10, "bar", "1.0");
+    pluginReferential.addOutgoingDependency(bar10, "baz", "1.0");
+
+    assertThatThrownBy(() -> pluginReferential.addOutgoingDependency(baz10, "foo", "1.0"))
+      .isInstanceOf(DependencyCycleException.class)
+      .hasMessage("There is a dependency cycle between plugins 'foo', 'bar', 'baz' that must be cut.");
+    assertThat(baz10.getOutgoingDependencies()).isEmpty();
+    assertThat(foo10.getIncomingDependencies()).isEmpty();
+  }
+
 }
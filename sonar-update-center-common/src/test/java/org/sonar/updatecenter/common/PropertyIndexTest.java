@@ -0,0 +1,86 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.Properties;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyIndexTest {
+
+  @Test
+  public void index_properties_by_first_key_segment() {
+    Properties props = new Properties();
+    props.setProperty("plugins", "foo");
+    props.setProperty("10.0.changelogUrl", "http://changelog");
+    props.setProperty("foo.name", "Foo");
+    props.setProperty("foo.1.0.downloadUrl", "http://foo-1.0.jar");
+    props.setProperty("foo.defaults.date", "");
+
+    PropertyIndex index = PropertyIndex.of(props);
+
+    assertThat(index.get("plugins")).isEqualTo("foo");
+    assertThat(index.get("10.0.changelogUrl")).isEqualTo("http://changelog");
+    assertThat(index.get("foo.name")).isEqualTo("Foo");
+    assertThat(index.get("foo", "name")).isEqualTo("Foo");
+    assertThat(index.get("foo", "1.0.downloadUrl")).isEqualTo("http://foo-1.0.jar");
+    assertThat(index.contains("foo", "defaults.date")).isTrue();
+    assertThat(index.get("foo", "defaults.date")).isEmpty();
+    assertThat(index.contains("foo", "description")).isFalse();
+    assertThat(index.get("bar", "name")).isNull();
+    assertThat(index.contains("unknown")).isFalse();
+  }
+
+  @Test
+  public void add_properties_of_component_file() {
+    Properties main = new Properties();
+    main.setProperty("plugins", "foo");
+    main.setProperty("foo.name", "Old name");
+    Properties foo = new Properties();
+    foo.setProperty("name", "Foo");
+    foo.setProperty("publicVersions", "1.0");
+
+    PropertyIndex index = PropertyIndex.of(main).putAll("foo", foo);
+
+    assertThat(index.get("foo", "name")).isEqualTo("Foo");
+    assertThat(index.get("foo.name")).isEqualTo("Foo");
+    assertThat(index.get("foo", "publicVersions")).isEqualTo("1.0");
+    assertThat(index.get("foo.publicVersions")).isEqualTo("1.0");
+  }
+
+  @Test
+  public void keys_include_fields_of_component_files() {
+    Properties main = new Properties();
+    main.setProperty("plugins", "foo,bar.baz");
+    main.setProperty("foo.name", "Old name");
+    Properties foo = new Properties();
+    foo.setProperty("name", "Foo");
+    foo.setProperty("1.0.date", "2024-01-01");
+    Properties barBaz = new Properties();
+    barBaz.setProperty("name", "Bar Baz");
+
+    PropertyIndex index = PropertyIndex.of(main).putAll("foo", foo).putAll("bar.baz", barBaz);
+
+    assertThat(index.keys()).containsExactlyInAnyOrder("plugins", "foo.name", "foo.1.0.date", "bar.baz.name");
+    assertThat(index.get("bar.baz.name")).isEqualTo("Bar Baz");
+    assertThat(index.contains("foo.1.0.date")).isTrue();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.List;
+import org.junit.Test;
+import org.sonar.updatecenter.common.SonarVersionsExpression.Element;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SonarVersionsExpressionTest {
+
+  @Test
+  public void parse_versions_keywords_and_ranges() {
+    List<Element> elements = SonarVersionsExpression.parse("9.9,[10.0,LATEST],[10.1],10.*").getElements();
+
+    assertThat(elements).extracting(Element::getText).containsExactly("9.9", "[10.0,LATEST]", "[10.1]", "10.*");
+
+    assertThat(elements.get(0).isRange()).isFalse();
+    assertThat(elements.get(0).getHigh().getText()).isEqualTo("9.9");
+
+    assertThat(elements.get(1).isRange()).isTrue();
+    assertThat(elements.get(1).getLow().getText()).isEqualTo("10.0");
+    assertThat(elements.get(1).getHigh().isLatest()).isTrue();
+
+    assertThat(elements.get(2).isRange()).isFalse();
+    assertThat(elements.get(2).getHigh().getText()).isEqualTo("10.1");
+
+    assertThat(elements.get(3).getHigh().isWildcard()).isTrue();
+    assertThat(elements.get(3).getHigh().getWildcardPrefix()).isEqualTo("10.");
+  }
+
+  @Test
+  public void range_bounds_are_split_on_last_comma() {
+    Element range = SonarVersionsExpression.parse("[9.9,10.*]").getElements().get(0);
+
+    assertThat(range.getLow().getText()).isEqualTo("9.9");
+    assertThat(range.getHigh().getText()).isEqualTo("10.*");
+    assertThat(range.getLow().isWildcard()).isFalse();
+  }
+
+  @Test
+  public void parse_empty_expression() {
+    assertThat(SonarVersionsExpression.parse(null).getElements()).isEmpty();
+    assertThat(SonarVersionsExpression.parse("").getElements()).isEmpty();
+    assertThat(SonarVersionsExpression.parse("9.9,").getElements()).extracting(Element::getText).containsExactly("9.9");
+  }
+}
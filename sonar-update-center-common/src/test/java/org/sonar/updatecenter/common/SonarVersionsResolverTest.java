@@ -0,0 +1,118 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import org.sonar.updatecenter.common.exception.SonarVersionRangeException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class SonarVersionsResolverTest {
+
+  private final Sonar sonar = new Sonar();
+  private SonarVersionsResolver underTest;
+
+  @Test
+  public void resolve_ranges_latest_and_wildcards() {
+    addSonarReleases(Product.SONARQUBE_SERVER, "9.9", "10.0", "10.1", "10.2");
+
+    assertThat(underTest.resolve("[10.0,LATEST]", Product.SONARQUBE_SERVER, "foo"))
+      .extracting(Version::getName, Version::getFromString)
+      .containsExactly(
+        tuple("10.0", "10.0"),
+        tuple("10.1", ""),
+        tuple("10.2", "LATEST"));
+    assertThat(underTest.resolve("9.9,10.*", Product.SONARQUBE_SERVER, "foo"))
+      .extracting(Version::getName)
+      .containsExactly("9.9", "10.2");
+    assertThat(underTest.resolve(null, Product.SONARQUBE_SERVER, "foo")).isEmpty();
+  }
+
+  @Test
+  public void resolution_is_kept_per_expression_and_product() {
+    addSonarReleases(Product.SONARQUBE_SERVER, "10.0", "10.1");
+    addSonarReleases(Product.SONARQUBE_COMMUNITY_BUILD, "24.12");
+
+    Version[] first = underTest.resolve("LATEST", Product.SONARQUBE_SERVER, "foo");
+    Version[] second = underTest.resolve("LATEST", Product.SONARQUBE_SERVER, "bar");
+
+    assertThat(second).isNotSameAs(first).containsExactly(first);
+    assertThat(second[0]).isSameAs(first[0]);
+    assertThat(underTest.resolve("LATEST", Product.SONARQUBE_COMMUNITY_BUILD, "foo")).extracting(Version::getName).containsExactly("24.12");
+  }
+
+  @Test
+  public void errors_refer_to_the_plugin() {
+    addSonarReleases(Product.SONARQUBE_SERVER, "10.0");
+
+    assertThatThrownBy(() -> underTest.resolve("[LATEST,10.0]", Product.SONARQUBE_SERVER, "foo"))
+      .isInstanceOf(SonarVersionRangeException.class)
+      .hasMessageContaining("in plugin 'foo'");
+    assertThatThrownBy(() -> underTest.resolve("[LATEST,10.0]", Product.SONARQUBE_SERVER, "bar"))
+      .isInstanceOf(SonarVersionRangeException.class)
+      .hasMessageContaining("in plugin 'bar'");
+    assertThatThrownBy(() -> underTest.resolve("11.*", Product.SONARQUBE_SERVER, "bar"))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Unable to resolve version '11.*' (in plugin 'bar')");
+  }
+
+  @Test
+  public void resolve_wildcards_on_last_matching_version() {
+    addSonarReleases(Product.SONARQUBE_SERVER, "9.9", "9.9.1", "10.1", "10.1.0.1234-RC1", "10.1.0.1234", "10.1.2", "10.2", "10.10", "11.0");
+
+    assertThat(underTest.resolve("10.1.*", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName).containsExactly("10.1.2");
+    assertThat(underTest.resolve("10.1.0.*", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName).containsExactly("10.1.0.1234");
+    assertThat(underTest.resolve("10.*", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName).containsExactly("10.10");
+    assertThat(underTest.resolve("9.*", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName).containsExactly("9.9.1");
+    assertThat(underTest.resolve("10.1*", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName).containsExactly("10.10");
+    assertThat(underTest.resolve("11.0.*", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName).containsExactly("11.0");
+    assertThat(underTest.resolve("[10.1,10.2]", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName)
+      .containsExactly("10.1", "10.1.0.1234-RC1", "10.1.0.1234", "10.1.2", "10.2");
+  }
+
+  @Test
+  public void resolve_wildcards_with_long_numeric_parts_by_scanning_versions() {
+    addSonarReleases(Product.SONARQUBE_SERVER, "10.1", "1234567890123456789012.5");
+
+    assertThat(underTest.resolve("1234567890123456789012.*", Product.SONARQUBE_SERVER, "foo")).extracting(Version::getName)
+      .containsExactly("1234567890123456789012.5");
+    assertThatThrownBy(() -> underTest.resolve("99999999999999999999.*", Product.SONARQUBE_SERVER, "foo"))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Unable to resolve version '99999999999999999999.*' (in plugin 'foo')");
+  }
+
+  @Test
+  public void fail_on_LATEST_if_no_version() {
+    addSonarReleases(Product.SONARQUBE_SERVER, "10.0");
+
+    assertThatThrownBy(() -> underTest.resolve("LATEST", Product.SONARQUBE_COMMUNITY_BUILD, "foo"))
+      .isInstanceOf(NoSuchElementException.class);
+  }
+
+  private void addSonarReleases(Product product, String... versions) {
+    for (String version : versions) {
+      sonar.addRelease(new Release(sonar, version).setProduct(product));
+    }
+    underTest = new SonarVersionsResolver(sonar, new VersionPool());
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.updatecenter.common.UpdateCenterDeserializer.Mode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UpdateCenterBinaryFormatTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void read_the_update_center_that_was_written() throws Exception {
+    URL url = getClass().getResource("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/splitFileFormat/nominal/update-center.properties");
+    UpdateCenter center = new UpdateCenterDeserializer(Mode.DEV, false).fromManyFiles(new File(url.toURI()));
+
+    UpdateCenter loaded = UpdateCenterBinaryFormat.read(ByteBuffer.wrap(UpdateCenterBinaryFormat.write(center)));
+
+    assertThat(UpdateCenterSerializer.toProperties(loaded)).isEqualTo(UpdateCenterSerializer.toProperties(center));
+    assertThat(loaded.getDate()).isEqualTo(center.getDate());
+    assertThat(loaded.getSonar().getLtaVersion().getVersion()).isEqualTo(Version.create("3.7.1"));
+    assertThat(loaded.getSonar().getPastLtaVersion().getVersion()).isEqualTo(Version.create("2.9"));
+    assertThat(loaded.getSonar().getDevRelease().getVersion()).isEqualTo(Version.create("4.3-SNAPSHOT"));
+
+    Plugin php = loaded.getUpdateCenterPluginReferential().findPlugin("php");
+    assertThat(php.getArchivedVersions()).extracting(Version::getName).containsOnly("2.0");
+    assertThat(php.getPrivateVersions()).extracting(Version::getName).containsOnly("2.2.1");
+    assertThat(php.getDevRelease().getVersion()).isEqualTo(Version.create("2.3-SNAPSHOT"));
+
+    Release ssqvDev = loaded.getUpdateCenterPluginReferential().findPlugin("ssqv").getDevRelease();
+    assertThat(ssqvDev.getSonarVersionFromString(Product.OLD_SONARQUBE, "LATEST"))
+      .isEqualTo(center.getUpdateCenterPluginReferential().findPlugin("ssqv").getDevRelease().getSonarVersionFromString(Product.OLD_SONARQUBE, "LATEST"));
+
+    assertThat(loaded.getScanners()).extracting(Scanner::getKey).containsExactly("cli");
+    Scanner cli = loaded.getScanners().get(0);
+    Release cli42 = cli.getRelease("4.2");
+    Release expectedCli42 = center.getScanners().get(0).getRelease("4.2");
+    assertThat(cli.getName()).isEqualTo("Scanner CLI");
+    assertThat(cli42.getScannerDownloadUrl()).isEqualTo(expectedCli42.getScannerDownloadUrl());
+    assertThat(cli42.getFlavorLabel("linux")).isEqualTo("Linux 64bit");
+    assertThat(cli42.hasDownloadUrl()).isEqualTo(expectedCli42.hasDownloadUrl());
+  }
+
+  @Test
+  public void read_dependencies_without_validating_them_again() throws IOException {
+    UpdateCenter center;
+    try (InputStream input = getClass().getResourceAsStream("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/updates-with-requires-plugins.properties")) {
+      Properties props = new Properties();
+      props.load(input);
+      center = new UpdateCenterDeserializer(Mode.PROD, false).fromProperties(props);
+    }
+
+    UpdateCenter loaded = UpdateCenterBinaryFormat.read(ByteBuffer.wrap(UpdateCenterBinaryFormat.write(center)));
+
+    assertThat(UpdateCenterSerializer.toProperties(loaded)).isEqualTo(UpdateCenterSerializer.toProperties(center));
+    Release clirr11 = loaded.getUpdateCenterPluginReferential().findPlugin("clirr").getRelease("1.1");
+    assertThat(clirr11.getOutgoingDependencies()).extracting(Release::getKey).containsOnly("foo", "bar");
+    for (Release required : clirr11.getOutgoingDependencies()) {
+      assertThat(required.getIncomingDependencies()).contains(clirr11);
+    }
+  }
+
+  @Test
+  public void share_versions_between_releases() {
+    Sonar sonar = new Sonar();
+    sonar.addRelease(new Release(sonar, Version.create("9.9"))).setProduct(Product.OLD_SONARQUBE);
+    Plugin foo = Plugin.factory("foo");
+    foo.addRelease(new Release(foo, Version.create("1.0"))).addRequiredSonarVersions(Product.OLD_SONARQUBE, "9.9");
+    foo.addRelease(new Release(foo, Version.create("1.1"))).addRequiredSonarVersions(Product.OLD_SONARQUBE, "9.9");
+    UpdateCenter center = UpdateCenter.create(PluginReferential.create(List.of(foo)), List.of(), sonar, null).setDate(new Date(42L));
+
+    UpdateCenter loaded = UpdateCenterBinaryFormat.read(ByteBuffer.wrap(UpdateCenterBinaryFormat.write(center)));
+
+    Plugin loadedFoo = loaded.getUpdateCenterPluginReferential().findPlugin("foo");
+    assertThat(loadedFoo.getRelease("1.0").getRequiredSonarVersions().first())
+      .isSameAs(loadedFoo.getRelease("1.1").getRequiredSonarVersions().first())
+      .isSameAs(loaded.getSonar().getRelease("9.9", Product.OLD_SONARQUBE).getVersion());
+    assertThat(loaded.getDate()).isEqualTo(new Date(42L));
+    assertThat(loaded.getInstalledSonarProduct()).isNull();
+  }
+
+  @Test
+  public void fail_if_not_a_binary_update_center() {
+    ByteBuffer buffer = ByteBuffer.wrap("sonar.versions=1.0".getBytes());
+
+    assertThatThrownBy(() -> UpdateCenterBinaryFormat.read(buffer))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Not an update center binary file");
+  }
+
+  @Test
+  public void fail_if_format_version_is_not_supported() {
+    byte[] bytes = UpdateCenterBinaryFormat.write(UpdateCenter.create(PluginReferential.createEmpty(), List.of(), new Sonar(), null));
+    ByteBuffer buffer = ByteBuffer.wrap(bytes).putInt(4, UpdateCenterBinaryFormat.FORMAT_VERSION + 1);
+
+    assertThatThrownBy(() -> UpdateCenterBinaryFormat.read(buffer))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Unsupported update center binary format version: 2");
+  }
+
+  @Test
+  public void write_and_load_file() throws Exception {
+    URL url = getClass().getResource("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/splitFileFormat/nominal/update-center.properties");
+    UpdateCenter center = new UpdateCenterDeserializer(Mode.PROD, false).fromManyFiles(new File(url.toURI()));
+    File file = temp.newFile("sonar-updates.bin");
+
+    UpdateCenterSerializer.toBinary(center, file);
+    UpdateCenter loaded = UpdateCenterDeserializer.fromBinary(file);
+
+    assertThat(UpdateCenterSerializer.toProperties(loaded)).isEqualTo(UpdateCenterSerializer.toProperties(center));
+  }
+}
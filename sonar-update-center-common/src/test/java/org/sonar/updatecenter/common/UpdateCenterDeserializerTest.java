@@ -24,13 +24,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.SortedSet;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.sonar.updatecenter.common.UpdateCenterDeserializer.Mode;
 import org.sonar.updatecenter.common.exception.SonarVersionRangeException;
 
@@ -39,6 +42,9 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 public class UpdateCenterDeserializerTest {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   @Test
   public void read_infos_from_properties() throws IOException {
     try (InputStream input = getClass().getResourceAsStream("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/updates.properties")) {
@@ -405,6 +411,149 @@ public class UpdateCenterDeserializerTest {
 
   }
 
+  @Test
+  public void fromManyFiles_with_many_threads_loads_the_same_update_center() throws IOException, URISyntaxException {
+    URL url = getClass().getResource("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/splitFileFormat/nominal/update-center.properties");
+    File mainFile = new File(url.toURI());
+    UpdateCenter sequential = new UpdateCenterDeserializer(Mode.DEV, false).fromManyFiles(mainFile);
+    UpdateCenter parallel = new UpdateCenterDeserializer(Mode.DEV, false).setThreads(4).fromManyFiles(mainFile);
+
+    assertThat(parallel.getUpdateCenterPluginReferential().getPlugins())
+      .extracting(Plugin::getKey)
+      .containsExactlyElementsOf(sequential.getUpdateCenterPluginReferential().getPlugins().stream().map(Plugin::getKey).toList());
+    for (Plugin plugin : sequential.getUpdateCenterPluginReferential().getPlugins()) {
+      Plugin other = parallel.getUpdateCenterPluginReferential().findPlugin(plugin.getKey());
+      assertThat(other.getAllReleases()).extracting(Release::getVersion)
+        .containsExactlyElementsOf(plugin.getAllReleases().stream().map(Release::getVersion).toList());
+    }
+    assertThat(parallel.getSonar().getAllReleases()).extracting(Release::getVersion)
+      .containsExactlyElementsOf(sequential.getSonar().getAllReleases().stream().map(Release::getVersion).toList());
+  }
+
+  @Test
+  public void fromManyFiles_with_many_threads_throws_the_same_error() throws URISyntaxException {
+    URL url = getClass().getResource(
+      "/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/splitFileFormat/LATEST_is_another_plugin_version_then_latest/update-center.properties");
+    UpdateCenterDeserializer updateCenterDeserializer = new UpdateCenterDeserializer(Mode.PROD, false).setThreads(4);
+    File mainFile = new File(url.toURI());
+
+    assertThatExceptionOfType(IllegalStateException.class)
+      .isThrownBy(() -> updateCenterDeserializer.fromManyFiles(mainFile))
+      .withMessage("Only the latest release of plugin foo for product SONARQUBE_COMMUNITY_BUILD may depend on the LATEST SonarQube");
+  }
+
+  @Test
+  public void setThreads_rejects_non_positive_values() {
+    UpdateCenterDeserializer updateCenterDeserializer = new UpdateCenterDeserializer(Mode.PROD, false);
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+      .isThrownBy(() -> updateCenterDeserializer.setThreads(0))
+      .withMessage("threads must be strictly positive");
+  }
+
+  @Test
+  public void fromManyFiles_with_snapshot_only_parses_changed_files() throws IOException, URISyntaxException {
+    File mainFile = copySplitFiles("nominal");
+    UpdateCenterDeserializer deserializer = new UpdateCenterDeserializer(Mode.DEV, false);
+
+    UpdateCenterSnapshot first = deserializer.fromManyFiles(mainFile, null);
+    assertThat(first.getParsedComponents()).isEqualTo(5);
+    Plugin abap = first.getUpdateCenter().getUpdateCenterPluginReferential().findPlugin("abap");
+    Plugin php = first.getUpdateCenter().getUpdateCenterPluginReferential().findPlugin("php");
+
+    UpdateCenterSnapshot unchanged = deserializer.fromManyFiles(mainFile, first);
+    assertThat(unchanged.getParsedComponents()).isZero();
+    assertThat(unchanged.getUpdateCenter().getUpdateCenterPluginReferential().findPlugin("php")).isSameAs(php);
+
+    File phpFile = new File(mainFile.getParentFile(), "php.properties");
+    Files.writeString(phpFile.toPath(), Files.readString(phpFile.toPath()) + "\ndescription=Changed\n");
+    UpdateCenterSnapshot changed = deserializer.fromManyFiles(mainFile, unchanged);
+
+    assertThat(changed.getParsedComponents()).isOne();
+    PluginReferential plugins = changed.getUpdateCenter().getUpdateCenterPluginReferential();
+    assertThat(plugins.findPlugin("abap")).isSameAs(abap);
+    assertThat(plugins.findPlugin("php")).isNotSameAs(php);
+    assertThat(plugins.findPlugin("php").getDescription()).isEqualTo("Changed");
+    assertThat(plugins.findPlugin("php").getPublicVersions()).extracting(Version::getName).containsOnly("2.1", "2.2");
+    assertThat(changed.getUpdateCenter().getScanners()).extracting(Scanner::getKey).containsOnly("cli");
+  }
+
+  @Test
+  public void fromManyFiles_with_snapshot_parses_everything_when_main_file_changed() throws IOException, URISyntaxException {
+    File mainFile = copySplitFiles("nominal");
+    UpdateCenterDeserializer deserializer = new UpdateCenterDeserializer(Mode.DEV, false);
+    UpdateCenterSnapshot first = deserializer.fromManyFiles(mainFile, null);
+
+    Files.writeString(mainFile.toPath(), Files.readString(mainFile.toPath()).replace("ltaVersion=3.7.1", "ltaVersion=4.0"));
+    UpdateCenterSnapshot second = deserializer.fromManyFiles(mainFile, first);
+
+    assertThat(second.getParsedComponents()).isEqualTo(5);
+    assertThat(second.getUpdateCenter().getSonar().getLtaVersion().getVersion()).isEqualTo(Version.create("4.0"));
+  }
+
+  @Test
+  public void fromManyFiles_with_snapshot_parses_plugins_linked_by_dependencies() throws IOException, URISyntaxException {
+    File mainFile = copySplitFiles("nominal");
+    File ssqvFile = new File(mainFile.getParentFile(), "ssqv.properties");
+    Files.writeString(ssqvFile.toPath(), Files.readString(ssqvFile.toPath()) + "\n1.1.requirePlugins=php:2.1\n");
+    UpdateCenterDeserializer deserializer = new UpdateCenterDeserializer(Mode.DEV, false);
+    UpdateCenterSnapshot first = deserializer.fromManyFiles(mainFile, null);
+    Plugin abap = first.getUpdateCenter().getUpdateCenterPluginReferential().findPlugin("abap");
+
+    File phpFile = new File(mainFile.getParentFile(), "php.properties");
+    Files.writeString(phpFile.toPath(), Files.readString(phpFile.toPath()) + "\ndescription=Changed\n");
+    UpdateCenterSnapshot second = deserializer.fromManyFiles(mainFile, first);
+
+    assertThat(second.getParsedComponents()).isEqualTo(2);
+    PluginReferential plugins = second.getUpdateCenter().getUpdateCenterPluginReferential();
+    assertThat(plugins.findPlugin("abap")).isSameAs(abap);
+    Release php21 = plugins.findPlugin("php").getRelease("2.1");
+    Release ssqv11 = plugins.findPlugin("ssqv").getRelease("1.1");
+    assertThat(ssqv11.getOutgoingDependencies()).containsOnly(php21);
+    assertThat(php21.getIncomingDependencies()).containsOnly(ssqv11);
+  }
+
+  @Test
+  public void fromManyFiles_with_snapshot_stored_in_file_only_parses_changed_files() throws IOException, URISyntaxException {
+    File mainFile = copySplitFiles("nominal");
+    UpdateCenterDeserializer deserializer = new UpdateCenterDeserializer(Mode.DEV, false);
+    File snapshotFile = temp.newFile();
+    UpdateCenterSerializer.toBinary(deserializer.fromManyFiles(mainFile, null), snapshotFile);
+
+    UpdateCenterSnapshot unchanged = deserializer.fromManyFiles(mainFile, UpdateCenterDeserializer.snapshotFromBinary(snapshotFile));
+    assertThat(unchanged.getParsedComponents()).isZero();
+    assertThat(UpdateCenterSerializer.toProperties(unchanged.getUpdateCenter()))
+      .isEqualTo(UpdateCenterSerializer.toProperties(deserializer.fromManyFiles(mainFile)));
+
+    File phpFile = new File(mainFile.getParentFile(), "php.properties");
+    Files.writeString(phpFile.toPath(), Files.readString(phpFile.toPath()) + "\ndescription=Changed\n");
+    UpdateCenterSnapshot changed = deserializer.fromManyFiles(mainFile, UpdateCenterDeserializer.snapshotFromBinary(snapshotFile));
+
+    assertThat(changed.getParsedComponents()).isOne();
+    assertThat(changed.getUpdateCenter().getUpdateCenterPluginReferential().findPlugin("php").getDescription()).isEqualTo("Changed");
+    assertThat(UpdateCenterSerializer.toProperties(changed.getUpdateCenter()))
+      .isEqualTo(UpdateCenterSerializer.toProperties(deserializer.fromManyFiles(mainFile)));
+  }
+
+  @Test
+  public void snapshotFromBinary_fails_if_file_is_not_a_snapshot() throws IOException {
+    File file = temp.newFile();
+    Files.writeString(file.toPath(), "not a snapshot");
+
+    assertThatExceptionOfType(IllegalStateException.class)
+      .isThrownBy(() -> UpdateCenterDeserializer.snapshotFromBinary(file))
+      .withMessage("Not an update center snapshot");
+  }
+
+  private File copySplitFiles(String name) throws IOException, URISyntaxException {
+    URL url = getClass().getResource("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/splitFileFormat/" + name + "/update-center.properties");
+    File dir = temp.newFolder();
+    for (File file : new File(url.toURI()).getParentFile().listFiles()) {
+      Files.copy(file.toPath(), new File(dir, file.getName()).toPath());
+    }
+    return new File(dir, "update-center.properties");
+  }
+
   @Test
   public void should_discard_plugin_not_compatible_with_any_public_sq_versions() throws URISyntaxException, IOException {
     URL url = getClass().getResource("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/splitFileFormat/nominal/update-center.properties");
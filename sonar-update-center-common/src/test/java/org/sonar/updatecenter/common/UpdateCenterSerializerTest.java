@@ -19,16 +19,31 @@
  */
 package org.sonar.updatecenter.common;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.Properties;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class UpdateCenterSerializerTest {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   @Test
   public void toProperties_when108and20251released_includeThemInPublicVersions() {
     Sonar sonar = new Sonar();
@@ -181,6 +196,62 @@ public class UpdateCenterSerializerTest {
     assertThat(requirePlugins).containsOnly("foo:1.2", "test:1.0");
   }
 
+  @Test
+  public void write_sorted_and_reproducible_properties_file() throws IOException {
+    UpdateCenter center = centerWithPlugins();
+    File first = temp.newFile();
+    File second = temp.newFile();
+
+    UpdateCenterSerializer.toProperties(center, first);
+    UpdateCenterSerializer.toProperties(center, second);
+
+    assertThat(Files.readAllBytes(first.toPath())).isEqualTo(Files.readAllBytes(second.toPath()));
+    List<String> lines = Files.readAllLines(first.toPath(), StandardCharsets.ISO_8859_1);
+    assertThat(lines.get(0)).isEqualTo("#Generated file");
+    List<String> keys = lines.subList(1, lines.size()).stream().map(line -> StringUtils.substringBefore(line, "=")).toList();
+    assertThat(keys).isSorted().contains("abc-foo.name", "abc.name", "foo.name", "plugins", "sonar.versions");
+
+    Properties loaded = new Properties();
+    try (Reader reader = Files.newBufferedReader(first.toPath(), StandardCharsets.ISO_8859_1)) {
+      loaded.load(reader);
+    }
+    assertThat(loaded).isEqualTo(UpdateCenterSerializer.toProperties(center));
+  }
+
+  @Test
+  public void escape_entries_like_properties_store() throws IOException {
+    UpdateCenter center = centerWithPlugins();
+    StringWriter written = new StringWriter();
+    UpdateCenterSerializer.writeProperties(center, written);
+
+    ByteArrayOutputStream stored = new ByteArrayOutputStream();
+    UpdateCenterSerializer.toProperties(center).store(stored, null);
+    List<String> storedLines = asList(stored.toString(StandardCharsets.ISO_8859_1).split(System.lineSeparator()));
+
+    assertThat(written.toString().split("\n"))
+      .contains("foo.description=\\ leading space, a\\=b\\: \\#c \\!d \\\\ \\u00E9t\\u00E9\\nnext line")
+      .filteredOn(line -> line.startsWith("foo.description") || line.startsWith("foo.name"))
+      .allMatch(storedLines::contains);
+  }
+
+  private static UpdateCenter centerWithPlugins() {
+    Sonar sonar = new Sonar();
+    addReleaseToSonarObject("2.0", sonar, Product.OLD_SONARQUBE);
+    Plugin foo = Plugin.factory("foo");
+    foo.setName("Foo plugin")
+      .setDescription(" leading space, a=b: #c !d \\ \u00e9t\u00e9\nnext line");
+    foo.addRelease(new Release(foo, Version.create("1.0")).addRequiredSonarVersions(Product.OLD_SONARQUBE, "2.0"));
+    Plugin abc = Plugin.factory("abc");
+    abc.setName("Abc");
+    abc.addRelease(new Release(abc, Version.create("1.0")).addRequiredSonarVersions(Product.OLD_SONARQUBE, "2.0"));
+    // not alphanumeric, its key starts with the key of another plugin but its entries are sorted before the ones of abc
+    Plugin abcFoo = Plugin.factory("abcfoo");
+    abcFoo.setKey("abc-foo");
+    abcFoo.setName("Abc foo");
+    abcFoo.addRelease(new Release(abcFoo, Version.create("1.0")).addRequiredSonarVersions(Product.OLD_SONARQUBE, "2.0"));
+    return UpdateCenter.create(PluginReferential.create(Arrays.asList(foo, abc, abcFoo)), new ArrayList<>(), sonar, null).setDate(new Date(0L));
+  }
+
   private void assertProperty(Properties props, String key, String value) {
     assertThat(props.getProperty(key)).isEqualTo(value);
   }
@@ -189,7 +260,7 @@ public class UpdateCenterSerializerTest {
     addReleaseToSonarObject(version, sonar, Product.OLD_SONARQUBE);
   }
 
-  private void addReleaseToSonarObject(String version, Sonar sonar, Product product) {
+  private static void addReleaseToSonarObject(String version, Sonar sonar, Product product) {
     Release release = new Release(sonar, Version.create(version));
     release.setProduct(product);
     sonar.addRelease(release);
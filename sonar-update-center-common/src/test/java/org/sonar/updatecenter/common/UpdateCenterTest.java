@@ -467,6 +467,8 @@ public class UpdateCenterTest {
     assertThat(getRelease("bar", "1.1", installablePlugins)).isNotNull();
     assertThat(getRelease("foobis", "1.1", installablePlugins)).isNotNull();
     assertThat(getRelease("foo", "1.1", installablePlugins)).isNotNull();
+    // required plugins first
+    assertThat(installablePlugins).extracting(Release::getKey).containsExactly("foo", "foobis", "bar");
 
 
     updateCenter = UpdateCenter.create(pluginReferentialLocal, new ArrayList<>(), sonarLocal, Product.SONARQUBE_SERVER).setInstalledSonarVersion(Version.create("2.3"));
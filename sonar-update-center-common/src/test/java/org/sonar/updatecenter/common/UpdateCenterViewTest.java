@@ -0,0 +1,114 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Properties;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.updatecenter.common.UpdateCenterDeserializer.Mode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UpdateCenterViewTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void create_only_requested_plugins() throws Exception {
+    URL url = getClass().getResource("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/splitFileFormat/nominal/update-center.properties");
+    UpdateCenter center = new UpdateCenterDeserializer(Mode.DEV, false).fromManyFiles(new File(url.toURI()));
+    UpdateCenterView view = UpdateCenterView.open(toBinary(center));
+
+    assertThat(view.getPluginKeys()).containsExactly("abap", "legacyplugin", "php", "ssqv");
+    assertThat(view.getMaterializedPluginCount()).isZero();
+
+    Plugin php = view.findPlugin("php");
+    assertThat(view.getMaterializedPluginCount()).isOne();
+    assertThat(view.findPlugin("php")).isSameAs(php);
+    assertThat(php.getPublicVersions()).extracting(Version::getName).containsOnly("2.1", "2.2");
+    assertThat(php.getDevRelease().getVersion()).isEqualTo(Version.create("2.3-SNAPSHOT"));
+
+    Release expected = center.getUpdateCenterPluginReferential().findPlugin("ssqv").getLastCompatible(Version.create("4.0"), Product.OLD_SONARQUBE);
+    assertThat(view.findLastCompatible("ssqv", Version.create("4.0"), Product.OLD_SONARQUBE).getVersion()).isEqualTo(expected.getVersion());
+    assertThat(view.getMaterializedPluginCount()).isEqualTo(2);
+
+    assertThat(view.findPlugin("unknown")).isNull();
+    assertThat(view.findLastCompatible("unknown", Version.create("4.0"), Product.OLD_SONARQUBE)).isNull();
+    assertThat(view.getSonar().getLtaVersion().getVersion()).isEqualTo(Version.create("3.7.1"));
+    assertThat(view.getScanners()).extracting(Scanner::getKey).containsExactly("cli");
+    assertThat(view.getDate()).isEqualTo(center.getDate());
+  }
+
+  @Test
+  public void create_plugins_linked_by_dependencies() throws IOException {
+    UpdateCenter center;
+    try (InputStream input = getClass().getResourceAsStream("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/updates-with-requires-plugins.properties")) {
+      Properties props = new Properties();
+      props.load(input);
+      center = new UpdateCenterDeserializer(Mode.PROD, false).fromProperties(props);
+    }
+    UpdateCenterView view = UpdateCenterView.open(toBinary(center));
+
+    Release clirr11 = view.findPlugin("clirr").getRelease("1.1");
+
+    assertThat(view.getMaterializedPluginCount()).isEqualTo(3);
+    assertThat(clirr11.getOutgoingDependencies()).extracting(Release::getKey).containsOnly("foo", "bar");
+    assertThat(view.findPlugin("foo").getRelease("1.0").getIncomingDependencies()).containsOnly(clirr11);
+  }
+
+  @Test
+  public void convert_to_update_center() throws IOException {
+    UpdateCenter center;
+    try (InputStream input = getClass().getResourceAsStream("/org/sonar/updatecenter/common/UpdateCenterDeserializerTest/updates-with-requires-plugins.properties")) {
+      Properties props = new Properties();
+      props.load(input);
+      center = new UpdateCenterDeserializer(Mode.PROD, false).fromProperties(props);
+    }
+    UpdateCenterView view = UpdateCenterView.open(toBinary(center));
+    Plugin foo = view.findPlugin("foo");
+
+    UpdateCenter converted = view.toUpdateCenter();
+
+    assertThat(converted.getUpdateCenterPluginReferential().findPlugin("foo")).isSameAs(foo);
+    assertThat(UpdateCenterSerializer.toProperties(converted)).isEqualTo(UpdateCenterSerializer.toProperties(center));
+  }
+
+  @Test
+  public void fail_if_not_a_binary_update_center() throws IOException {
+    File file = temp.newFile();
+
+    assertThatThrownBy(() -> UpdateCenterView.open(file))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Not an update center binary file");
+  }
+
+  private File toBinary(UpdateCenter center) throws IOException {
+    File file = temp.newFile();
+    UpdateCenterSerializer.toBinary(center, file);
+    return file;
+  }
+}
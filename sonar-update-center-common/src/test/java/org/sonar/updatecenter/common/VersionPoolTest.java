@@ -0,0 +1,60 @@
+/*
+ * SonarSource :: Update Center :: Common
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.common;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VersionPoolTest {
+
+  private final VersionPool underTest = new VersionPool();
+
+  @Test
+  public void return_same_instance_for_same_version() {
+    Version version = underTest.create("9.9");
+
+    assertThat(underTest.create("9.9")).isSameAs(version);
+    assertThat(underTest.create("9.9", "9.9")).isSameAs(version);
+    assertThat(underTest.size()).isEqualTo(1);
+    assertThat(underTest.getHits()).isEqualTo(2);
+  }
+
+  @Test
+  public void distinguish_versions_created_from_different_strings() {
+    Version version = underTest.create("10.0");
+    Version latest = underTest.create(version, "LATEST");
+    Version wildcard = underTest.create(version, "*");
+
+    assertThat(latest).isNotSameAs(version).isEqualTo(version);
+    assertThat(latest.getFromString()).isEqualTo("LATEST");
+    assertThat(wildcard.getFromString()).isEqualTo("*");
+    assertThat(underTest.create("10.0", "LATEST")).isSameAs(latest);
+    assertThat(underTest.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void distinguish_equal_versions_with_different_names() {
+    Version version = underTest.create("1.0");
+
+    assertThat(underTest.create("1.0.0")).isNotSameAs(version).isEqualTo(version);
+    assertThat(underTest.create("1.0.0").getName()).isEqualTo("1.0.0");
+  }
+}
@@ -19,6 +19,8 @@
  */
 package org.sonar.updatecenter.common;
 
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -136,6 +138,73 @@ public class VersionTest {
     assertThat(version1dot10.compareTo(version1dot9) > 0).isTrue();
   }
 
+  @Test
+  public void compare_parts_longer_than_four_digits() {
+    Version version2025 = Version.create("2025.1");
+    Version version20251 = Version.create("20251.0");
+    Version build9999 = Version.create("10.8.0.9999");
+    Version build102418 = Version.create("10.8.0.102418");
+
+    assertThat(version20251).isGreaterThan(version2025);
+    assertThat(version2025).isGreaterThan(Version.create("10.8"));
+    assertThat(build102418).isGreaterThan(build9999);
+    assertThat(build102418.compareTo(Version.create("10.8.0.102418"))).isZero();
+    assertThat(Version.create("10.8.0.70000")).isGreaterThan(Version.create("10.8.0.32767"));
+  }
+
+  @Test
+  public void compare_parts_that_are_not_numeric() {
+    assertThat(Version.create("1.x")).isGreaterThan(Version.create("1.9"));
+    assertThat(Version.create("1.x").compareTo(Version.create("1.x"))).isZero();
+    assertThat(Version.create("1.x")).isEqualTo(Version.create("1.x"));
+    assertThat(Version.create("1.x")).isNotEqualTo(Version.create("1.y"));
+  }
+
+  @Test
+  public void ordering_is_consistent_across_numeric_and_not_numeric_parts() {
+    Version nonNumeric = Version.create("1.2000x");
+    Version version13000 = Version.create("1.3000");
+    Version version110000 = Version.create("1.10000");
+    Version tooLong = Version.create("1.1234567890123456789");
+
+    assertThat(version13000).isLessThan(version110000);
+    assertThat(nonNumeric).isGreaterThan(version13000);
+    assertThat(nonNumeric).isGreaterThan(version110000);
+    assertThat(tooLong).isGreaterThan(version110000);
+    assertThat(tooLong).isGreaterThan(nonNumeric);
+    assertThat(Version.create("1.0002000x")).isEqualTo(nonNumeric);
+    assertThat(Version.create("1.0002000x")).hasSameHashCodeAs(nonNumeric);
+
+    List<Version> versions = Arrays.asList(tooLong, version110000, nonNumeric, Version.create("1.x"), version13000, Version.create("1.9"));
+    for (Version a : versions) {
+      for (Version b : versions) {
+        assertThat(Integer.signum(a.compareTo(b))).isEqualTo(-Integer.signum(b.compareTo(a)));
+        for (Version c : versions) {
+          if (a.compareTo(b) < 0 && b.compareTo(c) < 0) {
+            assertThat(a).isLessThan(c);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void equal_versions_have_same_hash_code() {
+    assertThat(Version.create("1.010")).isEqualTo(Version.create("1.10"));
+    assertThat(Version.create("1.010")).hasSameHashCodeAs(Version.create("1.10"));
+    assertThat(Version.create("1.00010")).isEqualTo(Version.create("1.10"));
+    assertThat(Version.create("1.00010")).hasSameHashCodeAs(Version.create("1.10"));
+    assertThat(Version.create("10.8.0.102418")).hasSameHashCodeAs(Version.create("10.8.0.102418"));
+    assertThat(Version.create("1.0-RC1")).isNotEqualTo(Version.create("1.0"));
+  }
+
+  @Test
+  public void isCompatibleWith_ignores_qualifier() {
+    assertThat(Version.create("1.2-RC1").isCompatibleWith(Version.create("1.2.0"))).isTrue();
+    assertThat(Version.create("2025.1.0.102418").isCompatibleWith(Version.create("2025.1.0.102418-SNAPSHOT"))).isTrue();
+    assertThat(Version.create("1.2").isCompatibleWith(Version.create("1.2.1"))).isFalse();
+  }
+
   @Test
   public void testFields() {
     Version version = Version.create("1.10.2");
@@ -0,0 +1,249 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Properties;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * On-disk cache of downloaded artifacts. Each artifact is stored in a directory named after the SHA-256 of its URL,
+ * so that two URLs ending with the same filename never collide, and is described by a sidecar index recording its
+ * checksum, size and HTTP validators.
+ * <p>
+ * Files and indexes are written to a temporary file then atomically renamed, so a cache directory can safely be
+ * shared by concurrent builds.
+ */
+class ArtifactCache {
+
+  static final String CACHE_DIR = "cache";
+
+  private static final String URL = "url";
+  private static final String SHA256 = "sha256";
+  private static final String SIZE = "size";
+  private static final String FILE_MODIFIED = "fileModified";
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "lastModified";
+  private static final String FETCHED_AT = "fetchedAt";
+
+  private final File cacheDir;
+
+  ArtifactCache(File outputDir) {
+    this.cacheDir = new File(outputDir, CACHE_DIR);
+  }
+
+  File fileFor(String url) {
+    return new File(new File(cacheDir, sha256Hex(url)), filename(url));
+  }
+
+  private File indexFor(String url) {
+    return new File(cacheDir, sha256Hex(url) + ".properties");
+  }
+
+  /**
+   * @return the cached entry of the URL, or null if the artifact is not cached or if the cached file does not match
+   * its index, for example because it was truncated.
+   */
+  @CheckForNull
+  Entry get(String url) throws IOException {
+    File indexFile = indexFor(url);
+    File file = fileFor(url);
+    if (!indexFile.isFile() || !file.isFile()) {
+      return null;
+    }
+    Entry entry = Entry.load(indexFile, file);
+    if (entry == null || !url.equals(entry.url) || file.length() != entry.size) {
+      return null;
+    }
+    if (file.lastModified() != entry.fileModified) {
+      // the file was touched since it was indexed, the checksum must be verified
+      if (!entry.sha256.equals(sha256Hex(file))) {
+        return null;
+      }
+      entry = new Entry(url, file, entry.sha256, entry.size, file.lastModified(), entry.etag, entry.lastModified, entry.fetchedAt);
+      writeIndex(indexFile, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * @return a new empty file, in the same file store than the cache entry of the URL
+   */
+  File createTempFile(String url) throws IOException {
+    File dir = fileFor(url).getParentFile();
+    FileUtils.forceMkdir(dir);
+    return Files.createTempFile(dir.toPath(), "download", ".tmp").toFile();
+  }
+
+  /**
+   * Moves a downloaded file to the cache entry of its URL and indexes it.
+   */
+  Entry commit(String url, File downloaded, @Nullable String etag, @Nullable String lastModified) throws IOException {
+    File file = fileFor(url);
+    String sha256 = sha256Hex(downloaded);
+    atomicMove(downloaded.toPath(), file.toPath());
+    Entry entry = new Entry(url, file, sha256, file.length(), file.lastModified(), etag, lastModified, Instant.now().toString());
+    writeIndex(indexFor(url), entry);
+    return entry;
+  }
+
+  private static void writeIndex(File indexFile, Entry entry) throws IOException {
+    Properties props = new Properties();
+    props.setProperty(URL, entry.url);
+    props.setProperty(SHA256, entry.sha256);
+    props.setProperty(SIZE, String.valueOf(entry.size));
+    props.setProperty(FILE_MODIFIED, String.valueOf(entry.fileModified));
+    props.setProperty(FETCHED_AT, entry.fetchedAt);
+    if (entry.etag != null) {
+      props.setProperty(ETAG, entry.etag);
+    }
+    if (entry.lastModified != null) {
+      props.setProperty(LAST_MODIFIED, entry.lastModified);
+    }
+    Path temp = Files.createTempFile(indexFile.getParentFile().toPath(), "index", ".tmp");
+    try {
+      try (OutputStream output = Files.newOutputStream(temp)) {
+        props.store(output, null);
+      }
+      atomicMove(temp, indexFile.toPath());
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void atomicMove(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static String filename(String url) {
+    return StringUtils.substringAfterLast(url, "/");
+  }
+
+  static String sha256Hex(String s) {
+    return HexFormat.of().formatHex(newSha256Digest().digest(s.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  static String sha256Hex(File file) throws IOException {
+    MessageDigest digest = newSha256Digest();
+    try (InputStream input = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+      input.transferTo(OutputStream.nullOutputStream());
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static MessageDigest newSha256Digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static class Entry {
+    private final String url;
+    private final File file;
+    private final String sha256;
+    private final long size;
+    private final long fileModified;
+    private final String etag;
+    private final String lastModified;
+    private final String fetchedAt;
+
+    private Entry(String url, File file, String sha256, long size, long fileModified, @Nullable String etag, @Nullable String lastModified,
+      String fetchedAt) {
+      this.url = url;
+      this.file = file;
+      this.sha256 = sha256;
+      this.size = size;
+      this.fileModified = fileModified;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.fetchedAt = fetchedAt;
+    }
+
+    @CheckForNull
+    private static Entry load(File indexFile, File file) throws IOException {
+      Properties props = new Properties();
+      try (InputStream input = Files.newInputStream(indexFile.toPath())) {
+        props.load(input);
+      }
+      String url = props.getProperty(URL);
+      String sha256 = props.getProperty(SHA256);
+      String size = props.getProperty(SIZE);
+      String fileModified = props.getProperty(FILE_MODIFIED);
+      if (url == null || sha256 == null || !StringUtils.isNumeric(size) || !StringUtils.isNumeric(fileModified)) {
+        // corrupted index
+        return null;
+      }
+      return new Entry(url, file, sha256, Long.parseLong(size), Long.parseLong(fileModified), props.getProperty(ETAG),
+        props.getProperty(LAST_MODIFIED), props.getProperty(FETCHED_AT, ""));
+    }
+
+    File getFile() {
+      return file;
+    }
+
+    boolean hasValidators() {
+      return etag != null || lastModified != null;
+    }
+
+    String getSha256() {
+      return sha256;
+    }
+
+    long getSize() {
+      return size;
+    }
+
+    @CheckForNull
+    String getEtag() {
+      return etag;
+    }
+
+    @CheckForNull
+    String getLastModified() {
+      return lastModified;
+    }
+
+    String getFetchedAt() {
+      return fetchedAt;
+    }
+  }
+}
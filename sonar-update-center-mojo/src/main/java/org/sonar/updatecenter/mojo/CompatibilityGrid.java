@@ -0,0 +1,132 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sonar.updatecenter.common.Product;
+import org.sonar.updatecenter.common.Release;
+import org.sonar.updatecenter.common.Sonar;
+import org.sonar.updatecenter.common.UpdateCenter;
+import org.sonar.updatecenter.common.Version;
+
+import static org.sonar.updatecenter.common.Product.OLD_SONARQUBE;
+import static org.sonar.updatecenter.common.Product.SONARQUBE_COMMUNITY_BUILD;
+import static org.sonar.updatecenter.common.Product.SONARQUBE_SERVER;
+
+/**
+ * Last compatible version of every plugin for each major version of each product. The plugins are traversed once
+ * for all the products, and the grid is shared by the HTML and the machine-readable outputs.
+ */
+public class CompatibilityGrid {
+
+  static final List<Product> PRODUCTS = List.of(OLD_SONARQUBE, SONARQUBE_COMMUNITY_BUILD, SONARQUBE_SERVER);
+
+  private static final Comparator<SonarVersionModel> SONAR_VERSION_MODEL_COMPARATOR =
+    Comparator.comparing(SonarVersionModel::isLta).thenComparing(svm -> Version.create(svm.getRealVersion())).reversed();
+
+  private final Map<Product, List<SonarVersionModel>> versionsByProduct = new EnumMap<>(Product.class);
+  private final Map<Product, List<CompatibilityMatrix.Plugin>> pluginsByProduct = new EnumMap<>(Product.class);
+
+  private CompatibilityGrid() {
+    for (Product product : PRODUCTS) {
+      versionsByProduct.put(product, new ArrayList<>());
+      pluginsByProduct.put(product, new ArrayList<>());
+    }
+  }
+
+  static CompatibilityGrid empty() {
+    return new CompatibilityGrid();
+  }
+
+  static CompatibilityGrid build(UpdateCenter center) {
+    CompatibilityGrid grid = new CompatibilityGrid();
+    Sonar sonar = center.getSonar();
+    Release lta = sonar.getLtaVersion();
+
+    Map<Product, List<Release>> majorReleasesByProduct = new EnumMap<>(Product.class);
+    for (Product product : PRODUCTS) {
+      List<Release> majorReleases = new ArrayList<>(sonar.getMajorReleases(product));
+      majorReleasesByProduct.put(product, majorReleases);
+      List<SonarVersionModel> versions = grid.versionsByProduct.get(product);
+      for (Release sq : majorReleases) {
+        // We want to keep only latest patch version. For example for 3.7, 3.7.1, 3.7.2 we keep only 3.7.2
+        String displayVersion = sq.getVersion().getMajor() + "." + sq.getVersion().getMinor();
+        boolean isLta = lta != null && lta.getVersion().equals(sq.getVersion());
+        versions.add(new SonarVersionModel(sq.getVersion().toString(), displayVersion, sq.getDate(), isLta));
+      }
+      versions.sort(SONAR_VERSION_MODEL_COMPARATOR);
+    }
+
+    for (org.sonar.updatecenter.common.Plugin plugin : center.getUpdateCenterPluginReferential().getPlugins()) {
+      for (Product product : PRODUCTS) {
+        CompatibilityMatrix.Plugin row = new CompatibilityMatrix.Plugin(plugin.getKey(), plugin.getName(), plugin.getHomepageUrl());
+        for (Release majorRelease : majorReleasesByProduct.get(product)) {
+          Release lastCompatible = plugin.getLastCompatible(majorRelease.getVersion(), product);
+          if (isNotArchived(lastCompatible)) {
+            row.getCompatibleVersionBySqVersion().put(majorRelease.getVersion().toString(), lastCompatible.getVersion().toString());
+          }
+        }
+        grid.pluginsByProduct.get(product).add(row);
+      }
+    }
+    return grid;
+  }
+
+  private static boolean isNotArchived(@Nullable Release lastCompatible) {
+    return lastCompatible != null && !lastCompatible.isArchived();
+  }
+
+  public List<Product> getProducts() {
+    return PRODUCTS;
+  }
+
+  /**
+   * @return the major versions of the product, LTA first then from the most recent
+   */
+  public List<SonarVersionModel> getVersions(Product product) {
+    return versionsByProduct.getOrDefault(product, Collections.emptyList());
+  }
+
+  /**
+   * @return one row per plugin, in the order of the plugin referential
+   */
+  public List<CompatibilityMatrix.Plugin> getPlugins(Product product) {
+    return pluginsByProduct.getOrDefault(product, Collections.emptyList());
+  }
+
+  /**
+   * @return true if at least one plugin is compatible with a major version of the product
+   */
+  public boolean hasCompatiblePlugins(Product product) {
+    return getPlugins(product).stream().anyMatch(p -> !p.getCompatibleVersionBySqVersion().isEmpty());
+  }
+
+  void sortPluginsByName() {
+    for (List<CompatibilityMatrix.Plugin> plugins : pluginsByProduct.values()) {
+      plugins.sort((o1, o2) -> o1.getName().compareToIgnoreCase(o2.getName()));
+    }
+  }
+}
@@ -21,42 +21,37 @@ package org.sonar.updatecenter.mojo;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.sonar.updatecenter.common.Product;
-import org.sonar.updatecenter.common.Release;
 import org.sonar.updatecenter.common.UpdateCenter;
-import org.sonar.updatecenter.common.Version;
 
 import static org.sonar.updatecenter.common.Product.OLD_SONARQUBE;
 
 public class CompatibilityMatrix {
-  private static final Comparator<SonarVersionModel> SONAR_VERSION_MODEL_COMPARATOR =
-    Comparator.comparing(SonarVersionModel::isLta).thenComparing(svm -> Version.create(svm.getRealVersion())).reversed();
 
   private final File outputDirectory;
   private final UpdateCenter center;
   private final Log log;
+  private final TemplateEngine templateEngine;
 
-  private final List<SonarVersionModel> sqVersions = new ArrayList<>();
-  private final List<SonarVersionModel> communityBuildVersions = new ArrayList<>();
-  private final List<SonarVersionModel> sonarqubeServerVersions = new ArrayList<>();
-
-  private final List<Plugin> pluginsForOldSonarQube = new ArrayList<>();
-  private final List<Plugin> pluginsForSonarQubeServer = new ArrayList<>();
-  private final List<Plugin> pluginsForCommunityBuild = new ArrayList<>();
+  private CompatibilityGrid grid = CompatibilityGrid.empty();
 
   CompatibilityMatrix(UpdateCenter center, File outputDirectory, Log log) {
+    this(center, outputDirectory, log, new TemplateEngine());
+  }
+
+  CompatibilityMatrix(UpdateCenter center, File outputDirectory, Log log, TemplateEngine templateEngine) {
     this.outputDirectory = outputDirectory;
     this.center = center;
     this.log = log;
+    this.templateEngine = templateEngine;
   }
 
   private void init() throws IOException {
@@ -70,127 +65,80 @@ public class CompatibilityMatrix {
   public void generateHtmls() throws IOException {
     init();
 
-    fillSonarVersionModelList(OLD_SONARQUBE);
-    fillSonarVersionModelList(Product.SONARQUBE_COMMUNITY_BUILD);
-    fillSonarVersionModelList(Product.SONARQUBE_SERVER);
-
-    Map<String, Object> dataModel = new HashMap<>();
-    fillPluginsList(OLD_SONARQUBE, pluginsForOldSonarQube, dataModel);
-    generateHtml("matrix-template.html.ftl", "compatibility-matrix.html", pluginsForOldSonarQube, dataModel);
-
-    dataModel = new HashMap<>();
-    fillPluginsList(Product.SONARQUBE_COMMUNITY_BUILD, pluginsForCommunityBuild, dataModel);
-    generateHtml("matrix-template-sqcb.html.ftl", "compatibility-matrix-sqcb.html", pluginsForCommunityBuild, dataModel);
-
-    dataModel = new HashMap<>();
-    fillPluginsList(Product.SONARQUBE_SERVER, pluginsForSonarQubeServer, dataModel);
-    generateHtml("matrix-template-sqs.html.ftl", "compatibility-matrix-sqs.html", pluginsForSonarQubeServer, dataModel);
-    sortPluginsLists();
-  }
-
-  private void sortPluginsLists() {
-    pluginsForOldSonarQube.sort((o1, o2) -> o1.getName().compareToIgnoreCase(o2.getName()));
-    pluginsForSonarQubeServer.sort((o1, o2) -> o1.getName().compareToIgnoreCase(o2.getName()));
-    pluginsForCommunityBuild.sort((o1, o2) -> o1.getName().compareToIgnoreCase(o2.getName()));
-  }
-
-  private void fillPluginsList(Product product, List<Plugin> plugins, Map<String, Object> dataModel) {
-    List<org.sonar.updatecenter.common.Plugin> pluginList = center.getUpdateCenterPluginReferential().getPlugins();
-    for (org.sonar.updatecenter.common.Plugin plugin : pluginList) {
-      PluginModel pluginModel = new PluginModel(plugin, center.getSonar());
-      dataModel.put("pluginHeader", pluginModel);
-
-      CompatibilityMatrix.Plugin matrixPlugin = new CompatibilityMatrix.Plugin(plugin.getName(), plugin.getHomepageUrl());
-      plugins.add(matrixPlugin);
-
-      for (Release majorRelease : center.getSonar().getMajorReleases(product)) {
-        Release lastCompatible = plugin.getLastCompatible(majorRelease.getVersion(), product);
-        if (isNotArchived(lastCompatible)) {
-          matrixPlugin.getCompatibleVersionBySqVersion().put(majorRelease.getVersion().toString(), lastCompatible.getVersion().toString());
-        }
-      }
-    }
+    grid = CompatibilityGrid.build(center);
+    generateHtml("matrix-template.html.ftl", "compatibility-matrix.html", OLD_SONARQUBE);
+    generateHtml("matrix-template-sqcb.html.ftl", "compatibility-matrix-sqcb.html", Product.SONARQUBE_COMMUNITY_BUILD);
+    generateHtml("matrix-template-sqs.html.ftl", "compatibility-matrix-sqs.html", Product.SONARQUBE_SERVER);
+    grid.sortPluginsByName();
   }
 
-  private void generateHtml(String templateName, String outputFileName, List<Plugin> plugins, Map<String, Object> dataModel) {
-    if (!plugins.isEmpty() && plugins.stream().filter(p -> p.compatibleVersionBySqVersion.size() > 0).count() > 0) {
+  private void generateHtml(String templateName, String outputFileName, Product product) {
+    if (grid.hasCompatiblePlugins(product)) {
       File file = new File(outputDirectory, outputFileName);
+      Map<String, Object> dataModel = new HashMap<>();
       dataModel.put("matrix", this);
       log.info("Generate compatibility matrix in: " + file);
-      FreeMarkerUtils.print(dataModel, file, templateName);
+      templateEngine.render(templateName, dataModel, file);
     }
   }
 
-  private void fillSonarVersionModelList(Product product) {
-    // We want to keep only latest patch version. For example for 3.7, 3.7.1, 3.7.2 we keep only 3.7.2
-    for (Release sq : center.getSonar().getMajorReleases(product)) {
-      String displayVersion = sq.getVersion().getMajor() + "." + sq.getVersion().getMinor();
-      Date releaseDate = sq.getDate();
-      boolean isLta = center.getSonar().getLtaVersion().getVersion().equals(sq.getVersion());
-      SonarVersionModel sonarVersionModel = new SonarVersionModel(sq.getVersion().toString(), displayVersion, releaseDate, isLta);
-      switch (product) {
-        case OLD_SONARQUBE: {
-          sqVersions.add(sonarVersionModel);
-          sqVersions.sort(SONAR_VERSION_MODEL_COMPARATOR);
-          break;
-        }
-        case SONARQUBE_COMMUNITY_BUILD: {
-          communityBuildVersions.add(sonarVersionModel);
-          communityBuildVersions.sort(SONAR_VERSION_MODEL_COMPARATOR);
-          break;
-        }
-        case SONARQUBE_SERVER: {
-          sonarqubeServerVersions.add(sonarVersionModel);
-          sonarqubeServerVersions.sort(SONAR_VERSION_MODEL_COMPARATOR);
-          break;
-        }
-      }
-    }
-  }
-
-  private static boolean isNotArchived(@Nullable Release lastCompatible) {
-    return lastCompatible != null && !lastCompatible.isArchived();
+  /**
+   * The grid of the last {@link #generateHtmls()}
+   */
+  public CompatibilityGrid getGrid() {
+    return grid;
   }
 
   /**
    * Used by HTML templating framework. Do not remove it.
    */
   public List<SonarVersionModel> getSqVersions() {
-    return sqVersions;
+    return grid.getVersions(OLD_SONARQUBE);
   }
 
   public List<Plugin> getPluginsForOldSonarQube() {
-    return pluginsForOldSonarQube;
+    return grid.getPlugins(OLD_SONARQUBE);
   }
 
   public List<Plugin> getPluginsForSonarQubeServer() {
-    return pluginsForSonarQubeServer;
+    return grid.getPlugins(Product.SONARQUBE_SERVER);
   }
 
   public List<Plugin> getPluginsForCommunityBuild() {
-    return pluginsForCommunityBuild;
+    return grid.getPlugins(Product.SONARQUBE_COMMUNITY_BUILD);
   }
 
   public List<SonarVersionModel> getCommunityBuildVersions() {
-    return communityBuildVersions;
+    return grid.getVersions(Product.SONARQUBE_COMMUNITY_BUILD);
   }
 
   public List<SonarVersionModel> getSonarqubeServerVersions() {
-    return sonarqubeServerVersions;
+    return grid.getVersions(Product.SONARQUBE_SERVER);
   }
 
   public static class Plugin {
 
+    private final String key;
     private final String name;
     private final String homepageUrl;
-    private final Map<String, String> compatibleVersionBySqVersion = new HashMap<>();
+    private final Map<String, String> compatibleVersionBySqVersion = new LinkedHashMap<>();
 
 
     public Plugin(String name, String homepageUrl) {
+      this(null, name, homepageUrl);
+    }
+
+    public Plugin(@Nullable String key, String name, String homepageUrl) {
+      this.key = key;
       this.name = name;
       this.homepageUrl = homepageUrl;
     }
 
+    @CheckForNull
+    public String getKey() {
+      return key;
+    }
+
     public String getName() {
       return name;
     }
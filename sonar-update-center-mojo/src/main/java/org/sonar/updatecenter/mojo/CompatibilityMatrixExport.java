@@ -0,0 +1,162 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.sonar.updatecenter.common.Product;
+import org.sonar.updatecenter.common.Version;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Machine-readable exports of the {@link CompatibilityGrid}, so that tools do not have to scrape the HTML matrix.
+ * Plugins are sorted by key and versions in ascending order, so that two exports can be diffed.
+ */
+class CompatibilityMatrixExport {
+
+  static final String JSON_FILENAME = "compatibility-matrix.json";
+  static final String CSV_FILENAME = "compatibility-matrix.csv";
+
+  private static final Comparator<CompatibilityMatrix.Plugin> BY_KEY =
+    Comparator.comparing(CompatibilityMatrix.Plugin::getKey, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final CompatibilityGrid grid;
+
+  CompatibilityMatrixExport(CompatibilityGrid grid) {
+    this.grid = grid;
+  }
+
+  void writeAll(File outputDirectory) throws IOException {
+    writeJson(new File(outputDirectory, JSON_FILENAME));
+    writeCsv(new File(outputDirectory, CSV_FILENAME));
+  }
+
+  /**
+   * Compact json, for example
+   * <pre>
+   * {"products":[{"product":"SONARQUBE_SERVER","lta":null,"versions":["2025.1"],"plugins":[{"key":"java","name":"Java","compatibility":{"2025.1":"8.9"}}]}]}
+   * </pre>
+   */
+  void writeJson(File file) throws IOException {
+    try (Writer writer = newWriter(file); JsonWriter json = new JsonWriter(writer)) {
+      json.setSerializeNulls(true);
+      json.beginObject().name("products").beginArray();
+      for (Product product : grid.getProducts()) {
+        json.beginObject();
+        json.name("product").value(product.name());
+        json.name("lta").value(lta(product));
+        json.name("versions").beginArray();
+        for (SonarVersionModel version : sortedVersions(product)) {
+          json.value(version.getRealVersion());
+        }
+        json.endArray();
+        json.name("plugins").beginArray();
+        for (CompatibilityMatrix.Plugin plugin : sortedPlugins(product)) {
+          json.beginObject();
+          json.name("key").value(plugin.getKey());
+          json.name("name").value(plugin.getName());
+          json.name("compatibility").beginObject();
+          for (Map.Entry<String, String> entry : plugin.getCompatibleVersionBySqVersion().entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue());
+          }
+          json.endObject();
+          json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+      }
+      json.endArray().endObject();
+    }
+  }
+
+  /**
+   * One line per compatible (product, SonarQube version, plugin), with the columns
+   * {@code product,sonarVersion,plugin,pluginVersion}
+   */
+  void writeCsv(File file) throws IOException {
+    try (Writer writer = newWriter(file)) {
+      writer.write("product,sonarVersion,plugin,pluginVersion\n");
+      for (Product product : grid.getProducts()) {
+        List<SonarVersionModel> versions = sortedVersions(product);
+        List<CompatibilityMatrix.Plugin> plugins = sortedPlugins(product);
+        for (SonarVersionModel version : versions) {
+          for (CompatibilityMatrix.Plugin plugin : plugins) {
+            String pluginVersion = plugin.supportedVersion(version.getRealVersion());
+            if (pluginVersion != null) {
+              writer.write(product.name());
+              writer.write(',');
+              writer.write(csv(version.getRealVersion()));
+              writer.write(',');
+              writer.write(csv(plugin.getKey()));
+              writer.write(',');
+              writer.write(csv(pluginVersion));
+              writer.write('\n');
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private String lta(Product product) {
+    return grid.getVersions(product).stream()
+      .filter(SonarVersionModel::isLta)
+      .map(SonarVersionModel::getRealVersion)
+      .findFirst()
+      .orElse(null);
+  }
+
+  private List<SonarVersionModel> sortedVersions(Product product) {
+    List<SonarVersionModel> versions = new ArrayList<>(grid.getVersions(product));
+    versions.sort(Comparator.comparing(v -> Version.create(v.getRealVersion())));
+    return versions;
+  }
+
+  private List<CompatibilityMatrix.Plugin> sortedPlugins(Product product) {
+    List<CompatibilityMatrix.Plugin> plugins = new ArrayList<>(grid.getPlugins(product));
+    plugins.sort(BY_KEY);
+    return plugins;
+  }
+
+  private static String csv(@Nullable String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  private static Writer newWriter(File file) throws IOException {
+    return new BufferedWriter(new OutputStreamWriter(FileUtils.openOutputStream(file), UTF_8));
+  }
+}
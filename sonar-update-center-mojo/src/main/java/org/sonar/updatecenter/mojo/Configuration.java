@@ -21,18 +21,37 @@ package org.sonar.updatecenter.mojo;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import javax.annotation.CheckForNull;
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.sonar.updatecenter.common.UpdateCenter;
 import org.sonar.updatecenter.common.UpdateCenterDeserializer;
 import org.sonar.updatecenter.common.UpdateCenterDeserializer.Mode;
+import org.sonar.updatecenter.common.UpdateCenterSerializer;
+import org.sonar.updatecenter.common.UpdateCenterSnapshot;
 
 class Configuration {
 
+  static final int DEFAULT_DOWNLOAD_THREADS = 8;
+  static final int DEFAULT_JSON_THREADS = Runtime.getRuntime().availableProcessors();
+  static final int DEFAULT_HTML_THREADS = Runtime.getRuntime().availableProcessors();
+  static final int DEFAULT_PARSE_THREADS = Math.min(8, Runtime.getRuntime().availableProcessors());
+
   private File outputDir;
   private File inputFile;
+  private File snapshotFile;
+  private UpdateCenterSnapshot snapshot;
   private UpdateCenter updateCenter;
   private boolean checkDownloadUrls;
+  private int downloadThreads = DEFAULT_DOWNLOAD_THREADS;
+  private int maxConnectionsPerHost = HttpDownloader.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+  private int jsonThreads = DEFAULT_JSON_THREADS;
+  private int htmlThreads = DEFAULT_HTML_THREADS;
 
   Configuration(File outputDir, File inputFile, boolean devMode, boolean ignoreErrors, boolean includeArchives, boolean checkDownloadUrls, Log log) {
     if (!inputFile.exists() || !inputFile.isFile()) {
@@ -47,13 +66,62 @@ class Configuration {
     this.inputFile = inputFile;
     this.checkDownloadUrls = checkDownloadUrls;
     log(log);
+    Mode mode = devMode ? Mode.DEV : Mode.PROD;
+    this.snapshotFile = new File(new File(outputDir, ArtifactCache.CACHE_DIR), snapshotFilename(mode, ignoreErrors, includeArchives));
     try {
-      this.updateCenter = new UpdateCenterDeserializer(devMode ? Mode.DEV : Mode.PROD, ignoreErrors, includeArchives).fromManyFiles(inputFile);
+      UpdateCenterSnapshot previous = loadSnapshot(snapshotFile, log);
+      this.snapshot = new UpdateCenterDeserializer(mode, ignoreErrors, includeArchives)
+        .setThreads(DEFAULT_PARSE_THREADS)
+        .fromManyFiles(inputFile, previous);
+      this.updateCenter = snapshot.getUpdateCenter();
+      if (previous != null) {
+        log.info(String.format("Update center snapshot: %d plugins and scanners parsed again", snapshot.getParsedComponents()));
+      }
     } catch (IOException e) {
       throw new IllegalStateException("Can not read properties from: " + inputFile, e);
     }
   }
 
+  /**
+   * One snapshot per set of settings, as a snapshot is reused only if it was loaded with the same settings
+   */
+  private static String snapshotFilename(Mode mode, boolean ignoreErrors, boolean includeArchives) {
+    return "update-center-" + mode.name().toLowerCase(Locale.ENGLISH) + (ignoreErrors ? "-ignore-errors" : "") + (includeArchives ? "-archives" : "")
+      + ".snapshot";
+  }
+
+  @CheckForNull
+  private static UpdateCenterSnapshot loadSnapshot(File file, Log log) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      return UpdateCenterDeserializer.snapshotFromBinary(file);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring corrupted update center snapshot " + file + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Stores the snapshot of the update center, so that only the files changed in the meantime are parsed by the next
+   * build. Must be called before the update center is modified by the generator.
+   */
+  void saveSnapshot() throws IOException {
+    FileUtils.forceMkdir(snapshotFile.getParentFile());
+    Path temp = Files.createTempFile(snapshotFile.getParentFile().toPath(), "snapshot", ".tmp");
+    try {
+      UpdateCenterSerializer.toBinary(snapshot, temp.toFile());
+      try {
+        Files.move(temp, snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
   private void log(Log log) {
     String commentLine = "-------------------------------";
     log.info(commentLine);
@@ -70,10 +138,62 @@ class Configuration {
     return new File(getOutputDir(), "sonar-updates.properties");
   }
 
+  File getBinaryOutputFile() {
+    return new File(getOutputDir(), "sonar-updates.bin");
+  }
+
   boolean mustCheckDownloadUrls() {
     return checkDownloadUrls;
   }
 
+  int getDownloadThreads() {
+    return downloadThreads;
+  }
+
+  Configuration setDownloadThreads(int downloadThreads) {
+    if (downloadThreads < 1) {
+      throw new IllegalArgumentException("downloadThreads must be strictly positive");
+    }
+    this.downloadThreads = downloadThreads;
+    return this;
+  }
+
+  int getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  Configuration setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+    if (maxConnectionsPerHost < 1) {
+      throw new IllegalArgumentException("maxConnectionsPerHost must be strictly positive");
+    }
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+    return this;
+  }
+
+  int getJsonThreads() {
+    return jsonThreads;
+  }
+
+  Configuration setJsonThreads(int jsonThreads) {
+    if (jsonThreads < 1) {
+      throw new IllegalArgumentException("jsonThreads must be strictly positive");
+    }
+    this.jsonThreads = jsonThreads;
+    return this;
+  }
+
+  int getHtmlThreads() {
+    return htmlThreads;
+  }
+
+  Configuration setHtmlThreads(int htmlThreads) {
+    if (htmlThreads < 1) {
+      throw new IllegalArgumentException("htmlThreads must be strictly positive");
+    }
+    this.htmlThreads = htmlThreads;
+    return this;
+  }
+
   UpdateCenter getUpdateCenter() {
     return this.updateCenter;
   }
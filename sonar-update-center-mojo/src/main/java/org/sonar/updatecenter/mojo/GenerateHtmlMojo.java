@@ -47,10 +47,32 @@ public class GenerateHtmlMojo extends AbstractMojo {
   @Parameter(property = "ignoreErrors")
   private boolean ignoreErrors = false;
 
+  /**
+   * Number of releases downloaded concurrently
+   */
+  @Parameter(property = "downloadThreads")
+  private int downloadThreads = Configuration.DEFAULT_DOWNLOAD_THREADS;
+
+  /**
+   * Maximum number of concurrent connections to a single host
+   */
+  @Parameter(property = "maxConnectionsPerHost")
+  private int maxConnectionsPerHost = HttpDownloader.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+
+  /**
+   * Number of plugin pages rendered concurrently
+   */
+  @Parameter(property = "htmlThreads")
+  private int htmlThreads = Configuration.DEFAULT_HTML_THREADS;
+
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
     try {
-      Configuration configuration = new Configuration(outputDir, inputFile, false, ignoreErrors, false, false, getLog());
+      Configuration configuration = new Configuration(outputDir, inputFile, false, ignoreErrors, false, false, getLog())
+        .setDownloadThreads(downloadThreads)
+        .setMaxConnectionsPerHost(maxConnectionsPerHost)
+        .setHtmlThreads(htmlThreads);
+      configuration.saveSnapshot();
       new Generator(configuration, getLog()).generateHtml();
     } catch (Exception e) {
       throw new MojoExecutionException("Fail to execute mojo", e);
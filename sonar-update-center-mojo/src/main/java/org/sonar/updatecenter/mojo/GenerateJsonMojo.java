@@ -48,6 +48,24 @@ public class GenerateJsonMojo extends AbstractMojo {
   @Parameter(property = "ignoreErrors")
   private boolean ignoreErrors = false;
 
+  /**
+   * Number of releases downloaded concurrently
+   */
+  @Parameter(property = "downloadThreads")
+  private int downloadThreads = Configuration.DEFAULT_DOWNLOAD_THREADS;
+
+  /**
+   * Maximum number of concurrent connections to a single host
+   */
+  @Parameter(property = "maxConnectionsPerHost")
+  private int maxConnectionsPerHost = HttpDownloader.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+
+  /**
+   * Number of plugins and scanners serialized to json concurrently
+   */
+  @Parameter(property = "jsonThreads")
+  private int jsonThreads = Configuration.DEFAULT_JSON_THREADS;
+
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
     try {
@@ -58,7 +76,11 @@ public class GenerateJsonMojo extends AbstractMojo {
         ignoreErrors,
         false,
         false,
-        getLog());
+        getLog())
+        .setDownloadThreads(downloadThreads)
+        .setMaxConnectionsPerHost(maxConnectionsPerHost)
+        .setJsonThreads(jsonThreads);
+      configuration.saveSnapshot();
       new Generator(configuration, getLog()).generateJson();
     } catch (Exception e) {
       throw new MojoExecutionException("Fail to execute mojo", e);
@@ -71,16 +71,32 @@ public class GenerateMetadataMojo extends AbstractMojo {
   @Parameter(property = "validateOnly")
   boolean validateOnly = false;
 
+  /**
+   * Number of releases downloaded concurrently
+   */
+  @Parameter(property = "downloadThreads")
+  int downloadThreads = Configuration.DEFAULT_DOWNLOAD_THREADS;
+
+  /**
+   * Maximum number of concurrent connections to a single host
+   */
+  @Parameter(property = "maxConnectionsPerHost")
+  int maxConnectionsPerHost = HttpDownloader.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+
   @Override
   public void execute() throws MojoExecutionException {
     try {
-      Configuration configuration = new Configuration(outputDir, inputFile, devMode, ignoreErrors, includeArchives, checkDownloadUrls, getLog());
+      Configuration configuration = new Configuration(outputDir, inputFile, devMode, ignoreErrors, includeArchives, checkDownloadUrls, getLog())
+        .setDownloadThreads(downloadThreads)
+        .setMaxConnectionsPerHost(maxConnectionsPerHost);
 
       // Are we in validation mode? If so, stop here.
       if (validateOnly) {
         return;
       }
 
+      configuration.saveSnapshot();
+
       // generate properties
       new Generator(configuration, getLog()).generateMetadata();
 
@@ -31,6 +31,12 @@ import org.sonar.updatecenter.common.UpdateCenterSerializer;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.commons.io.FileUtils.forceMkdir;
 
@@ -46,20 +52,19 @@ class Generator {
     this.log = log;
   }
 
-  private static void mergeFromManifest(Plugin plugin, @Nullable File masterJar) throws IOException {
+  private static void mergeFromManifest(Plugin plugin, @Nullable DownloadedJar master) {
     // the last release is the master version for loading metadata included in manifest
-    if (masterJar != null) {
-      PluginManifest manifest = new PluginManifest(masterJar);
+    if (master != null) {
+      PluginManifest manifest = master.manifest;
       if (!StringUtils.equals(plugin.getKey(), manifest.getKey())) {
         throw new IllegalStateException(
-          "Plugin " + masterJar.getName() + " is declared with key '" + manifest.getKey() + "' in its MANIFEST, but with key '" + plugin.getKey() + "' in the update center");
+          "Plugin " + master.jar.getName() + " is declared with key '" + manifest.getKey() + "' in its MANIFEST, but with key '" + plugin.getKey() + "' in the update center");
       }
       plugin.merge(manifest);
     }
   }
 
-  private static void updateReleaseRequirePluginsParentPropertiesAndDisplayVersion(PluginReferential pluginReferential, File jar, Release release) throws IOException {
-    PluginManifest releaseManifest = new PluginManifest(jar);
+  private static void updateReleaseRequirePluginsParentPropertiesAndDisplayVersion(PluginReferential pluginReferential, PluginManifest releaseManifest, Release release) {
     if (releaseManifest.getRequirePlugins() != null) {
       for (String requirePlugin : releaseManifest.getRequirePlugins()) {
         String[] split = requirePlugin.split(":");
@@ -101,45 +106,136 @@ class Generator {
     prepareDirectoryAndOutputJson(center);
   }
 
+  /**
+   * Downloads and manifest parsing are done concurrently, but their results are applied to the referential
+   * sequentially, in declaration order, so that the generated output is the same as with a single thread.
+   */
   private void downloadReleases(UpdateCenter center) throws IOException {
-    HttpDownloader downloader = new HttpDownloader(configuration.getOutputDir(), configuration.mustCheckDownloadUrls(), log);
+    HttpDownloader downloader = new HttpDownloader(configuration.getOutputDir(), configuration.mustCheckDownloadUrls(),
+      configuration.getMaxConnectionsPerHost(), log);
     PluginReferential pluginReferential = center.getUpdateCenterPluginReferential();
-    for (Plugin plugin : pluginReferential.getPlugins()) {
-      log.info("Load plugin: " + plugin.getKey());
-
-      File masterJar = null;
-      for (Release release : plugin.getAllReleases()) {
-        if (StringUtils.isNotBlank(release.getDownloadUrl())) {
-          boolean forceDownload = release.equals(plugin.getDevRelease());
-          File jar = downloader.download(release.getDownloadUrl(), forceDownload);
-          if (jar != null && jar.exists()) {
-            updateReleaseRequirePluginsParentPropertiesAndDisplayVersion(pluginReferential, jar, release);
-            masterJar = jar;
+    List<Plugin> plugins = pluginReferential.getPlugins();
+
+    ManifestCache manifestCache = ManifestCache.load(configuration.getOutputDir(), log);
+    ExecutorService executor = Executors.newFixedThreadPool(configuration.getDownloadThreads());
+    try {
+      List<List<Future<DownloadedJar>>> downloadsByPlugin = new ArrayList<>();
+      for (Plugin plugin : plugins) {
+        downloadsByPlugin.add(submitDownloads(executor, downloader, manifestCache, plugin));
+      }
+
+      for (int i = 0; i < plugins.size(); i++) {
+        Plugin plugin = plugins.get(i);
+        log.info("Load plugin: " + plugin.getKey());
+
+        DownloadedJar master = null;
+        List<Future<DownloadedJar>> downloads = downloadsByPlugin.get(i);
+        int downloadIndex = 0;
+        for (Release release : plugin.getAllReleases()) {
+          if (StringUtils.isNotBlank(release.getDownloadUrl())) {
+            DownloadedJar downloaded = await(downloads.get(downloadIndex));
+            downloadIndex++;
+            updateReleaseRequirePluginsParentPropertiesAndDisplayVersion(pluginReferential, downloaded.manifest, release);
+            master = downloaded;
           } else {
-            throw new IllegalStateException("Plugin " + plugin.getKey() + " can't be downloaded at: " + release.getDownloadUrl());
+            log.warn("Ignored because of missing downloadUrl: plugin " + plugin.getKey() + ", version " + release.getVersion());
           }
-        } else {
-          log.warn("Ignored because of missing downloadUrl: plugin " + plugin.getKey() + ", version " + release.getVersion());
         }
+        mergeFromManifest(plugin, master);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    manifestCache.save();
+  }
+
+  private static List<Future<DownloadedJar>> submitDownloads(ExecutorService executor, HttpDownloader downloader, ManifestCache manifestCache,
+    Plugin plugin) {
+    List<Future<DownloadedJar>> downloads = new ArrayList<>();
+    for (Release release : plugin.getAllReleases()) {
+      if (StringUtils.isNotBlank(release.getDownloadUrl())) {
+        boolean forceDownload = release.equals(plugin.getDevRelease());
+        downloads.add(executor.submit(() -> download(downloader, manifestCache, plugin, release, forceDownload)));
+      }
+    }
+    return downloads;
+  }
+
+  private static DownloadedJar download(HttpDownloader downloader, ManifestCache manifestCache, Plugin plugin, Release release,
+    boolean forceDownload) throws IOException {
+    ArtifactCache.Entry artifact = downloader.fetch(release.getDownloadUrl(), forceDownload);
+    if (!artifact.getFile().exists()) {
+      throw new IllegalStateException("Plugin " + plugin.getKey() + " can't be downloaded at: " + release.getDownloadUrl());
+    }
+    return new DownloadedJar(artifact.getFile(), manifestCache.get(artifact));
+  }
+
+  private static DownloadedJar await(Future<DownloadedJar> download) throws IOException {
+    try {
+      return download.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while downloading plugins", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
       }
-      mergeFromManifest(plugin, masterJar);
+      throw new IllegalStateException(cause);
     }
   }
 
   private void generateMetadata(UpdateCenter center) {
     log.info("Generate output: " + configuration.getOutputFile());
     UpdateCenterSerializer.toProperties(center, configuration.getOutputFile());
+    UpdateCenterSerializer.toBinary(center, configuration.getBinaryOutputFile());
   }
 
   private void generateHtmlMatrix(UpdateCenter center) throws IOException {
     File htmlOutputDir = ensureDirectory(configuration.getOutputDir(), HTML_HEADER_DIR);
-    CompatibilityMatrix matrix = new CompatibilityMatrix(center, htmlOutputDir, log);
+    TemplateEngine templateEngine = new TemplateEngine();
+    CompatibilityMatrix matrix = new CompatibilityMatrix(center, htmlOutputDir, log, templateEngine);
     matrix.generateHtmls();
+    log.info("Generate compatibility matrix exports in: " + htmlOutputDir);
+    new CompatibilityMatrixExport(matrix.getGrid()).writeAll(htmlOutputDir);
+
+    ExecutorService executor = Executors.newFixedThreadPool(configuration.getHtmlThreads());
+    try {
+      new PluginPages(center, matrix.getGrid(), htmlOutputDir, templateEngine, log).generate(executor);
+    } finally {
+      executor.shutdownNow();
+    }
+    templateEngine.logTimings(log);
   }
 
+  /**
+   * Plugins and scanners are serialized and validated concurrently, then their files are written in order
+   */
   private void prepareDirectoryAndOutputJson(UpdateCenter center) throws IOException {
     File jsonOutputDir = ensureDirectory(configuration.getOutputDir(), JSON_DIR);
-    PluginsJsonGenerator.create(center, jsonOutputDir, log).generateJsonFiles();
-    ScannerJsonGenerator.create(center, jsonOutputDir, log).generateJsonFiles();
+    PluginsJsonGenerator pluginsGenerator = PluginsJsonGenerator.create(center, jsonOutputDir, log);
+    ScannerJsonGenerator scannerGenerator = ScannerJsonGenerator.create(center, jsonOutputDir, log);
+    ExecutorService executor = Executors.newFixedThreadPool(configuration.getJsonThreads());
+    try {
+      List<Future<JsonGenerator.JsonFile>> pluginFiles = pluginsGenerator.submitJsonFiles(executor);
+      List<Future<JsonGenerator.JsonFile>> scannerFiles = scannerGenerator.submitJsonFiles(executor);
+      pluginsGenerator.writeJsonFiles(pluginFiles);
+      scannerGenerator.writeJsonFiles(scannerFiles);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static class DownloadedJar {
+    private final File jar;
+    private final PluginManifest manifest;
+
+    private DownloadedJar(File jar, PluginManifest manifest) {
+      this.jar = jar;
+      this.manifest = manifest;
+    }
   }
 }
@@ -24,34 +24,64 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.logging.Log;
 
+/**
+ * Downloads artifacts into a local {@link ArtifactCache}. Instances are thread-safe: concurrent requests to the same host are
+ * limited to {@code maxConnectionsPerHost}.
+ */
 class HttpDownloader {
 
   private static final int DEFAULT_TIMEOUT_SECONDS = 30;
+  static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+  private static final int HTTP_NOT_MODIFIED = 304;
+  private static final String ETAG = "ETag";
+  private static final String LAST_MODIFIED = "Last-Modified";
 
   private final File outputDir;
   private final boolean verifyUrlIfCached;
   private final Log log;
   private final HttpClient httpClient;
+  private final int maxConnectionsPerHost;
+  private final ConcurrentMap<String, Semaphore> permitsByHost = new ConcurrentHashMap<>();
+  private final ArtifactCache cache;
 
   public HttpDownloader(File outputDir, boolean verifyUrlIfCached, Log log) {
-    this(outputDir, verifyUrlIfCached, log, createDefaultHttpClient());
+    this(outputDir, verifyUrlIfCached, DEFAULT_MAX_CONNECTIONS_PER_HOST, log);
+  }
+
+  public HttpDownloader(File outputDir, boolean verifyUrlIfCached, int maxConnectionsPerHost, Log log) {
+    this(outputDir, verifyUrlIfCached, log, createDefaultHttpClient(), maxConnectionsPerHost);
   }
 
   HttpDownloader(File outputDir, boolean verifyUrlIfCached, Log log, HttpClient httpClient) {
+    this(outputDir, verifyUrlIfCached, log, httpClient, DEFAULT_MAX_CONNECTIONS_PER_HOST);
+  }
+
+  HttpDownloader(File outputDir, boolean verifyUrlIfCached, Log log, HttpClient httpClient, int maxConnectionsPerHost) {
+    if (maxConnectionsPerHost < 1) {
+      throw new IllegalArgumentException("maxConnectionsPerHost must be strictly positive");
+    }
     this.outputDir = outputDir;
     this.verifyUrlIfCached = verifyUrlIfCached;
     this.log = log;
     this.httpClient = httpClient;
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+    this.cache = new ArtifactCache(outputDir);
   }
 
   private static HttpClient createDefaultHttpClient() {
@@ -62,45 +92,143 @@ class HttpDownloader {
   }
 
   public File download(String url, boolean force) throws IOException {
+    return fetch(url, force).getFile();
+  }
+
+  /**
+   * @return the cache entry of the artifact, downloaded if it is not cached yet. When {@code force} is true, or when
+   * download URLs must be verified, a cached artifact is revalidated with a conditional request if its validators
+   * (ETag or Last-Modified) are known, so that it is downloaded again only if it changed.
+   */
+  ArtifactCache.Entry fetch(String url, boolean force) throws IOException {
     FileUtils.forceMkdir(outputDir);
 
-    String filename = StringUtils.substringAfterLast(url, "/");
-    File output = new File(outputDir, filename);
-    if (force || !output.exists() || output.length() <= 0) {
-      downloadFile(new URL(url), output);
-    } else {
-      log.info("File found in local cache: " + url);
-      if (verifyUrlIfCached && !verifyDownloadUrl(new URL(url))) {
-        throw new IllegalStateException(String.format("Failed to download %s, URL is no longer valid!", url));
+    ArtifactCache.Entry entry = cache.get(url);
+    if (entry == null) {
+      return downloadToCache(url);
+    }
+    if ((force || verifyUrlIfCached) && entry.hasValidators()) {
+      return revalidate(url, entry, force);
+    }
+    if (force) {
+      return downloadToCache(url);
+    }
+    log.info("File found in local cache: " + url);
+    if (verifyUrlIfCached && !verifyDownloadUrl(new URL(url))) {
+      throw new IllegalStateException(String.format("Failed to download %s, URL is no longer valid!", url));
+    }
+    return entry;
+  }
+
+  private ArtifactCache.Entry downloadToCache(String url) throws IOException {
+    File temp = cache.createTempFile(url);
+    try {
+      HttpHeaders headers = transfer(new URL(url), temp, cache.fileFor(url));
+      return cache.commit(url, temp, headers.firstValue(ETAG).orElse(null), headers.firstValue(LAST_MODIFIED).orElse(null));
+    } finally {
+      FileUtils.deleteQuietly(temp);
+    }
+  }
+
+  private ArtifactCache.Entry revalidate(String url, ArtifactCache.Entry entry, boolean force) throws IOException {
+    File temp = cache.createTempFile(url);
+    try {
+      Revalidation revalidation = conditionalTransfer(new URL(url), entry, temp);
+      if (revalidation.notModified) {
+        log.info("File found in local cache and not modified: " + url);
+        return entry;
+      }
+      if (revalidation.headers != null) {
+        log.info(String.format("Downloaded modified %s in %s", url, entry.getFile()));
+        return cache.commit(url, temp, revalidation.headers.firstValue(ETAG).orElse(null), revalidation.headers.firstValue(LAST_MODIFIED).orElse(null));
+      }
+      if (force) {
+        throw new IllegalStateException(String.format("Fail to download %s to %s", url, entry.getFile()), revalidation.failure);
       }
+      throw new IllegalStateException(String.format("Failed to download %s, URL is no longer valid!", url), revalidation.failure);
+    } finally {
+      FileUtils.deleteQuietly(temp);
     }
-    return output;
   }
 
-  File downloadFile(URL fileURL, File toFile) {
-    log.info(String.format("Download %s in %s", fileURL, toFile));
+  private Revalidation conditionalTransfer(URL fileURL, ArtifactCache.Entry entry, File toFile) {
+    log.debug(String.format("Revalidate cached download URL (%s)", fileURL));
     try {
       if ("file".equals(fileURL.getProtocol())) {
         File src = new File(fileURL.toURI());
-        FileUtils.copyFile(src, toFile);
+        if (!src.isFile()) {
+          return Revalidation.failed(new IllegalStateException("File not found: " + src));
+        }
+        if (fileValidator(src).equals(entry.getEtag())) {
+          return Revalidation.notModified();
+        }
+        return Revalidation.modified(copyFile(src, toFile));
+      }
+      HttpRequest.Builder request = newHttpRequestBuilder(fileURL).GET();
+      if (entry.getEtag() != null) {
+        request.header("If-None-Match", entry.getEtag());
+      }
+      if (entry.getLastModified() != null) {
+        request.header("If-Modified-Since", entry.getLastModified());
+      }
+      HttpResponse<Path> response = send(fileURL, request.build(), HttpResponse.BodyHandlers.ofFile(toFile.toPath()));
+      if (response.statusCode() == HTTP_NOT_MODIFIED) {
+        return Revalidation.notModified();
+      }
+      if (isSuccessStatusCode(response.statusCode())) {
+        return Revalidation.modified(response.headers());
+      }
+      log.error(String.format("Download URL (%s) is no longer valid (HTTP status: %d)", fileURL, response.statusCode()));
+      return Revalidation.failed(new IllegalStateException("HTTP " + response.statusCode()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Revalidation.failed(e);
+    } catch (Exception e) {
+      return Revalidation.failed(e);
+    }
+  }
+
+  File downloadFile(URL fileURL, File toFile) {
+    transfer(fileURL, toFile, toFile);
+    return toFile;
+  }
+
+  /**
+   * @param target the file reported in logs and errors, which differs from {@code toFile} when downloading to a temporary file
+   * @return the headers of the HTTP response. For local files, an ETag is derived from the size and modification date
+   */
+  private HttpHeaders transfer(URL fileURL, File toFile, File target) {
+    log.info(String.format("Download %s in %s", fileURL, target));
+    try {
+      if ("file".equals(fileURL.getProtocol())) {
+        return copyFile(new File(fileURL.toURI()), toFile);
       } else {
         HttpRequest request = buildHttpRequest(fileURL, "GET");
-        HttpResponse<Path> response = httpClient.send(request,
-          HttpResponse.BodyHandlers.ofFile(toFile.toPath()));
+        HttpResponse<Path> response = send(fileURL, request, HttpResponse.BodyHandlers.ofFile(toFile.toPath()));
 
         if (!isSuccessStatusCode(response.statusCode())) {
           throw new IllegalStateException("HTTP " + response.statusCode());
         }
+        return response.headers();
       }
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       FileUtils.deleteQuietly(toFile);
-      throw new IllegalStateException(String.format("Fail to download %s to %s", fileURL, toFile), e);
+      throw new IllegalStateException(String.format("Fail to download %s to %s", fileURL, target), e);
     } catch (Exception e) {
       FileUtils.deleteQuietly(toFile);
-      throw new IllegalStateException(String.format("Fail to download %s to %s", fileURL, toFile), e);
+      throw new IllegalStateException(String.format("Fail to download %s to %s", fileURL, target), e);
     }
-    return toFile;
+  }
+
+  private static HttpHeaders copyFile(File src, File toFile) throws IOException {
+    String etag = fileValidator(src);
+    FileUtils.copyFile(src, toFile);
+    return HttpHeaders.of(Map.of(ETAG, List.of(etag)), (name, value) -> true);
+  }
+
+  private static String fileValidator(File file) {
+    return "W/\"" + file.length() + "-" + file.lastModified() + "\"";
   }
 
 
@@ -124,7 +252,7 @@ class HttpDownloader {
   private boolean verifyHttpUrl(URL fileURL) throws URISyntaxException, IOException, InterruptedException {
     // Try HEAD request first
     HttpRequest headRequest = buildHttpRequest(fileURL, "HEAD");
-    HttpResponse<Void> headResponse = httpClient.send(headRequest, HttpResponse.BodyHandlers.discarding());
+    HttpResponse<Void> headResponse = send(fileURL, headRequest, HttpResponse.BodyHandlers.discarding());
 
     if (isSuccessStatusCode(headResponse.statusCode())) {
       return true;
@@ -133,7 +261,7 @@ class HttpDownloader {
     // Some services refuse HEAD requests. Try a GET instead.
     log.debug(String.format("Download URL (%s) failed with a HEAD request. Double check using GET...", fileURL));
     HttpRequest getRequest = buildHttpRequest(fileURL, "GET");
-    HttpResponse<Void> getResponse = httpClient.send(getRequest, HttpResponse.BodyHandlers.discarding());
+    HttpResponse<Void> getResponse = send(fileURL, getRequest, HttpResponse.BodyHandlers.discarding());
 
     if (isSuccessStatusCode(getResponse.statusCode())) {
       log.debug(String.format("Download URL (%s) is still valid", fileURL));
@@ -144,10 +272,18 @@ class HttpDownloader {
     return false;
   }
 
+  private <T> HttpResponse<T> send(URL fileURL, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+    Semaphore permits = permitsByHost.computeIfAbsent(fileURL.getHost() + ":" + fileURL.getPort(), host -> new Semaphore(maxConnectionsPerHost));
+    permits.acquire();
+    try {
+      return httpClient.send(request, bodyHandler);
+    } finally {
+      permits.release();
+    }
+  }
+
   private static HttpRequest buildHttpRequest(URL fileURL, String method) throws URISyntaxException {
-    HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-      .uri(fileURL.toURI())
-      .timeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS));
+    HttpRequest.Builder requestBuilder = newHttpRequestBuilder(fileURL);
 
     if ("GET".equals(method)) {
       requestBuilder.GET();
@@ -155,16 +291,48 @@ class HttpDownloader {
       requestBuilder.method("HEAD", HttpRequest.BodyPublishers.noBody());
     }
 
+    return requestBuilder.build();
+  }
+
+  private static HttpRequest.Builder newHttpRequestBuilder(URL fileURL) throws URISyntaxException {
+    HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+      .uri(fileURL.toURI())
+      .timeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS));
+
     if (fileURL.getUserInfo() != null) {
       String encoded = Base64.getEncoder().encodeToString(fileURL.getUserInfo().getBytes(StandardCharsets.UTF_8));
       requestBuilder.header("Authorization", "Basic " + encoded);
     }
-
-    return requestBuilder.build();
+    return requestBuilder;
   }
 
   private static boolean isSuccessStatusCode(int statusCode) {
     return statusCode >= 200 && statusCode < 300;
   }
 
+  private static class Revalidation {
+    private final boolean notModified;
+    @Nullable
+    private final HttpHeaders headers;
+    @Nullable
+    private final Exception failure;
+
+    private Revalidation(boolean notModified, @Nullable HttpHeaders headers, @Nullable Exception failure) {
+      this.notModified = notModified;
+      this.headers = headers;
+      this.failure = failure;
+    }
+
+    private static Revalidation notModified() {
+      return new Revalidation(true, null, null);
+    }
+
+    private static Revalidation modified(HttpHeaders headers) {
+      return new Revalidation(false, headers, null);
+    }
+
+    private static Revalidation failed(Exception failure) {
+      return new Revalidation(false, null, failure);
+    }
+  }
 }
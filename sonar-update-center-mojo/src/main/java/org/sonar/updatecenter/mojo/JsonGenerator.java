@@ -21,11 +21,15 @@ package org.sonar.updatecenter.mojo;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.ValidationException;
 import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.sonar.updatecenter.common.Component;
@@ -33,15 +37,26 @@ import org.sonar.updatecenter.common.UpdateCenter;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-public abstract class JsonGenerator {
+public abstract class JsonGenerator<C extends Component> {
 
   public interface Factory<T> {
     T create(
@@ -93,31 +108,143 @@ public abstract class JsonGenerator {
   }
 
 
-  protected void serializeToFile(Component component, Object from) throws IOException {
-    String jsonOutputString = gson.toJson(from);
+  /**
+   * Serializes and validates the components, then writes their files. Same as
+   * {@code writeJsonFiles(submitJsonFiles(null))}.
+   */
+  void generateJsonFiles() throws IOException {
+    writeJsonFiles(submitJsonFiles(null));
+  }
 
-    try {
-      checkComplianceWithSchema(jsonOutputString);
-    } catch (ValidationException exception) {
-      log.error(component.getKey() + " json not compliant with schema");
-      throw exception;
+  /**
+   * Serializes and validates each component on the executor, or immediately if there is none. Nothing is logged nor
+   * written, see {@link #writeJsonFiles(List)}.
+   */
+  List<Future<JsonFile>> submitJsonFiles(@Nullable ExecutorService executor) {
+    List<Future<JsonFile>> files = new ArrayList<>();
+    for (C component : getComponents()) {
+      Callable<JsonFile> task = () -> serialize(component);
+      if (executor == null) {
+        FutureTask<JsonFile> future = new FutureTask<>(task);
+        future.run();
+        files.add(future);
+      } else {
+        files.add(executor.submit(task));
+      }
     }
+    return files;
+  }
 
-    File file = new File(outputDirectory, component.getKey() + ".json");
-    log.info("Generate json data for component " + component.getKey() + " in: " + file);
+  /**
+   * Logs and writes the files in the order of the components, stopping at the first one that is not compliant with
+   * the schema, so that the result does not depend on the number of threads.
+   */
+  void writeJsonFiles(List<Future<JsonFile>> files) throws IOException {
+    boolean schemaCopied = false;
+    for (Future<JsonFile> future : files) {
+      JsonFile jsonFile = await(future);
+      String key = jsonFile.component.getKey();
+      if (jsonFile.failure != null) {
+        log.error(key + " json not compliant with schema");
+        throw jsonFile.failure;
+      }
+
+      File file = new File(outputDirectory, key + ".json");
+      log.info("Generate json data for component " + key + " in: " + file);
+      try (Writer writer = new BufferedWriter(new OutputStreamWriter(FileUtils.openOutputStream(file), UTF_8))) {
+        gson.toJson(jsonFile.json, writer);
+      }
+
+      if (!schemaCopied) {
+        FileUtils.copyURLToFile(
+          PluginsJsonGenerator.class.getResource("/" + resourceFile),
+          new File(outputDirectory, resourceFile));
+        schemaCopied = true;
+      }
+    }
+  }
 
-    FileUtils.writeStringToFile(file, jsonOutputString, UTF_8);
+  protected abstract List<C> getComponents();
 
-    // copy the schema
-    FileUtils.copyURLToFile(
-      PluginsJsonGenerator.class.getResource("/" + resourceFile),
-      new File(outputDirectory, resourceFile));
+  protected abstract Object createJsonOutput(C component);
 
+  /**
+   * The json tree is validated as is and only written on disk afterwards, it is never printed nor parsed back
+   */
+  private JsonFile serialize(C component) {
+    JsonElement json = gson.toJsonTree(createJsonOutput(component));
+    try {
+      checkComplianceWithSchema(json);
+      return new JsonFile(component, json, null);
+    } catch (ValidationException e) {
+      return new JsonFile(component, json, e);
+    }
   }
 
+  private static JsonFile await(Future<JsonFile> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while generating json files", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
 
-  protected void checkComplianceWithSchema(String inputJson) {
-    this.jsonSchema.validate(new JSONObject(inputJson));
+  static final class JsonFile {
+    private final Component component;
+    private final JsonElement json;
+    private final ValidationException failure;
+
+    private JsonFile(Component component, JsonElement json, @Nullable ValidationException failure) {
+      this.component = component;
+      this.json = json;
+      this.failure = failure;
+    }
+  }
+
+  protected void checkComplianceWithSchema(JsonElement json) {
+    this.jsonSchema.validate(toOrgJson(json));
+  }
+
+  /**
+   * Converts a Gson tree to the org.json model expected by the schema validator
+   */
+  static Object toOrgJson(JsonElement element) {
+    if (element.isJsonObject()) {
+      JSONObject object = new JSONObject();
+      for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+        object.put(entry.getKey(), toOrgJson(entry.getValue()));
+      }
+      return object;
+    }
+    if (element.isJsonArray()) {
+      JsonArray array = element.getAsJsonArray();
+      JSONArray result = new JSONArray(array.size());
+      for (JsonElement item : array) {
+        result.put(toOrgJson(item));
+      }
+      return result;
+    }
+    if (element.isJsonNull()) {
+      return JSONObject.NULL;
+    }
+    JsonPrimitive primitive = element.getAsJsonPrimitive();
+    if (primitive.isBoolean()) {
+      return primitive.getAsBoolean();
+    }
+    if (primitive.isNumber()) {
+      return primitive.getAsNumber();
+    }
+    return primitive.getAsString();
   }
 
   @CheckForNull
@@ -0,0 +1,183 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.sonar.updatecenter.common.PluginManifest;
+
+/**
+ * Persistent cache of the manifest fields used by the generator, keyed by the SHA-256 of the plugin JAR, so that
+ * JAR files already processed by a previous run are not opened again.
+ */
+class ManifestCache {
+
+  private static final String FILENAME = "manifests.properties";
+  private static final String CACHED = "cached";
+
+  private static final Map<String, Field> FIELDS = Map.ofEntries(
+    field("key", PluginManifest::getKey, PluginManifest::setKey),
+    field("name", PluginManifest::getName, PluginManifest::setName),
+    field("description", PluginManifest::getDescription, PluginManifest::setDescription),
+    field("organization", PluginManifest::getOrganization, PluginManifest::setOrganization),
+    field("organizationUrl", PluginManifest::getOrganizationUrl, PluginManifest::setOrganizationUrl),
+    field("license", PluginManifest::getLicense, PluginManifest::setLicense),
+    field("version", PluginManifest::getVersion, PluginManifest::setVersion),
+    field("displayVersion", PluginManifest::getDisplayVersion, PluginManifest::setDisplayVersion),
+    field("sonarVersion", PluginManifest::getSonarVersion, PluginManifest::setSonarVersion),
+    field("homepage", PluginManifest::getHomepage, PluginManifest::setHomepage),
+    field("termsConditionsUrl", PluginManifest::getTermsConditionsUrl, PluginManifest::setTermsConditionsUrl),
+    field("issueTrackerUrl", PluginManifest::getIssueTrackerUrl, PluginManifest::setIssueTrackerUrl),
+    field("sourcesUrl", PluginManifest::getSourcesUrl, PluginManifest::setSourcesUrl),
+    field("developers", m -> join(m.getDevelopers()), (m, v) -> m.setDevelopers(split(v))),
+    field("requirePlugins", m -> join(m.getRequirePlugins()), (m, v) -> m.setRequirePlugins(split(v))));
+
+  private final File file;
+  private final Log log;
+  private final Map<String, PluginManifest> manifestsBySha256 = new ConcurrentHashMap<>();
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  private ManifestCache(File file, Log log) {
+    this.file = file;
+    this.log = log;
+  }
+
+  static ManifestCache load(File outputDir, Log log) {
+    ManifestCache cache = new ManifestCache(new File(new File(outputDir, ArtifactCache.CACHE_DIR), FILENAME), log);
+    if (cache.file.isFile()) {
+      Properties props = new Properties();
+      try (InputStream input = Files.newInputStream(cache.file.toPath())) {
+        props.load(input);
+        cache.read(props);
+      } catch (IOException | IllegalArgumentException e) {
+        log.warn("Ignoring corrupted manifest cache " + cache.file + ": " + e.getMessage());
+        cache.manifestsBySha256.clear();
+      }
+    }
+    return cache;
+  }
+
+  private void read(Properties props) {
+    for (String name : props.stringPropertyNames()) {
+      if (name.endsWith("." + CACHED)) {
+        String sha256 = StringUtils.substringBeforeLast(name, ".");
+        PluginManifest manifest = new PluginManifest();
+        for (Map.Entry<String, Field> field : FIELDS.entrySet()) {
+          field.getValue().setter.accept(manifest, props.getProperty(sha256 + "." + field.getKey()));
+        }
+        manifestsBySha256.put(sha256, manifest);
+      }
+    }
+  }
+
+  /**
+   * @return the manifest of the cached artifact, read from the JAR only if it was not processed yet
+   */
+  PluginManifest get(ArtifactCache.Entry artifact) throws IOException {
+    PluginManifest manifest = manifestsBySha256.get(artifact.getSha256());
+    if (manifest != null) {
+      hits.incrementAndGet();
+      return manifest;
+    }
+    misses.incrementAndGet();
+    manifest = new PluginManifest(artifact.getFile());
+    manifestsBySha256.put(artifact.getSha256(), manifest);
+    return manifest;
+  }
+
+  int getHits() {
+    return hits.get();
+  }
+
+  int getMisses() {
+    return misses.get();
+  }
+
+  void save() throws IOException {
+    log.info(String.format("Manifest cache: %d hits, %d misses", hits.get(), misses.get()));
+    if (misses.get() == 0) {
+      return;
+    }
+    Properties props = new Properties();
+    for (Map.Entry<String, PluginManifest> entry : manifestsBySha256.entrySet()) {
+      props.setProperty(entry.getKey() + "." + CACHED, "true");
+      for (Map.Entry<String, Field> field : FIELDS.entrySet()) {
+        String value = field.getValue().getter.apply(entry.getValue());
+        if (value != null) {
+          props.setProperty(entry.getKey() + "." + field.getKey(), value);
+        }
+      }
+    }
+    FileUtils.forceMkdir(file.getParentFile());
+    Path temp = Files.createTempFile(file.getParentFile().toPath(), "manifests", ".tmp");
+    try {
+      try (OutputStream output = Files.newOutputStream(temp)) {
+        props.store(output, null);
+      }
+      try {
+        Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @CheckForNull
+  private static String join(@CheckForNull String[] values) {
+    return values == null || values.length == 0 ? null : String.join(",", values);
+  }
+
+  private static String[] split(@CheckForNull String value) {
+    return StringUtils.split(StringUtils.defaultString(value), ',');
+  }
+
+  private static Map.Entry<String, Field> field(String name, Function<PluginManifest, String> getter, BiConsumer<PluginManifest, String> setter) {
+    return Map.entry(name, new Field(getter, setter));
+  }
+
+  private static class Field {
+    private final Function<PluginManifest, String> getter;
+    private final BiConsumer<PluginManifest, String> setter;
+
+    private Field(Function<PluginManifest, String> getter, BiConsumer<PluginManifest, String> setter) {
+      this.getter = getter;
+      this.setter = setter;
+    }
+  }
+}
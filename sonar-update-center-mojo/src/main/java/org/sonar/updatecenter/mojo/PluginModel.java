@@ -43,6 +43,10 @@ public class PluginModel {
     return plugin.getName();
   }
 
+  public String getHomepageUrl() {
+    return plugin.getHomepageUrl();
+  }
+
   public String getIssueTracker() {
     return plugin.getIssueTrackerUrl();
   }
@@ -0,0 +1,286 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.sonar.updatecenter.common.Plugin;
+import org.sonar.updatecenter.common.Product;
+import org.sonar.updatecenter.common.UpdateCenter;
+import org.sonar.updatecenter.common.Version;
+
+import static org.sonar.updatecenter.common.Product.OLD_SONARQUBE;
+import static org.sonar.updatecenter.common.Product.SONARQUBE_COMMUNITY_BUILD;
+import static org.sonar.updatecenter.common.Product.SONARQUBE_SERVER;
+
+/**
+ * Detail page per plugin, generated in {@code plugins/<key>.html}. Pages are rendered concurrently. The hash of the
+ * data displayed by each page is stored along the pages, so that a page is not rendered again when its data did not
+ * change since the previous run. The compatibility of each version is taken from the {@link CompatibilityGrid}, so that
+ * pages and matrices are consistent.
+ */
+class PluginPages {
+
+  static final String DIR = "plugins";
+  static final String TEMPLATE = "plugin-template.html.ftl";
+  private static final String HASHES_FILENAME = "pages.properties";
+  private static final Map<Product, String> PRODUCT_NAMES = Map.of(
+    OLD_SONARQUBE, "SonarQube",
+    SONARQUBE_COMMUNITY_BUILD, "SonarQube Community Build",
+    SONARQUBE_SERVER, "SonarQube Server");
+
+  private final UpdateCenter center;
+  private final CompatibilityGrid grid;
+  private final File outputDirectory;
+  private final TemplateEngine templateEngine;
+  private final Log log;
+  private final String templateHash;
+  private int rendered;
+  private int skipped;
+
+  PluginPages(UpdateCenter center, CompatibilityGrid grid, File htmlOutputDirectory, TemplateEngine templateEngine, Log log) {
+    this.center = center;
+    this.grid = grid;
+    this.outputDirectory = new File(htmlOutputDirectory, DIR);
+    this.templateEngine = templateEngine;
+    this.log = log;
+    this.templateHash = hashTemplate();
+  }
+
+  void generate(ExecutorService executor) throws IOException {
+    FileUtils.forceMkdir(outputDirectory);
+    File hashesFile = new File(outputDirectory, HASHES_FILENAME);
+    Properties previousHashes = loadHashes(hashesFile);
+    Properties hashes = new Properties();
+
+    Map<Product, Map<String, CompatibilityMatrix.Plugin>> rowsByProduct = rowsByProduct();
+    Map<Product, List<SonarVersionModel>> versionsByProduct = ascendingVersionsByProduct();
+    List<Future<?>> renderings = new ArrayList<>();
+    for (Plugin plugin : center.getUpdateCenterPluginReferential().getPlugins()) {
+      PluginModel model = new PluginModel(plugin, center.getSonar());
+      Map<String, List<String>> compatibility = compatibility(plugin.getKey(), rowsByProduct, versionsByProduct);
+      String hash = hash(model, compatibility);
+      File page = new File(outputDirectory, plugin.getKey() + ".html");
+      hashes.setProperty(plugin.getKey(), hash);
+      if (hash.equals(previousHashes.getProperty(plugin.getKey())) && page.isFile()) {
+        skipped++;
+      } else {
+        renderings.add(executor.submit(() -> render(model, compatibility, page)));
+        rendered++;
+      }
+    }
+    for (Future<?> rendering : renderings) {
+      await(rendering);
+    }
+    deleteRemovedPages(previousHashes, hashes);
+
+    try (OutputStream output = Files.newOutputStream(hashesFile.toPath())) {
+      hashes.store(output, null);
+    }
+    log.info(String.format("Generate plugin pages in: %s (%d rendered, %d unchanged)", outputDirectory, rendered, skipped));
+  }
+
+  int getRendered() {
+    return rendered;
+  }
+
+  int getSkipped() {
+    return skipped;
+  }
+
+  private void render(PluginModel model, Map<String, List<String>> compatibility, File page) {
+    Map<String, Object> dataModel = new HashMap<>();
+    dataModel.put("plugin", model);
+    dataModel.put("compatibility", compatibility);
+    templateEngine.render(TEMPLATE, dataModel, page);
+  }
+
+  private Map<Product, Map<String, CompatibilityMatrix.Plugin>> rowsByProduct() {
+    Map<Product, Map<String, CompatibilityMatrix.Plugin>> rowsByProduct = new EnumMap<>(Product.class);
+    for (Product product : grid.getProducts()) {
+      Map<String, CompatibilityMatrix.Plugin> rows = new HashMap<>();
+      for (CompatibilityMatrix.Plugin row : grid.getPlugins(product)) {
+        rows.put(row.getKey(), row);
+      }
+      rowsByProduct.put(product, rows);
+    }
+    return rowsByProduct;
+  }
+
+  private Map<Product, List<SonarVersionModel>> ascendingVersionsByProduct() {
+    Map<Product, List<SonarVersionModel>> versionsByProduct = new EnumMap<>(Product.class);
+    for (Product product : grid.getProducts()) {
+      List<SonarVersionModel> versions = new ArrayList<>(grid.getVersions(product));
+      versions.sort(Comparator.comparing(version -> Version.create(version.getRealVersion())));
+      versionsByProduct.put(product, versions);
+    }
+    return versionsByProduct;
+  }
+
+  /**
+   * @return for each version of the plugin, one range per product: the major versions of the product whose last
+   * compatible version of the plugin is this one, as displayed by the compatibility matrix of the product
+   */
+  private Map<String, List<String>> compatibility(String pluginKey, Map<Product, Map<String, CompatibilityMatrix.Plugin>> rowsByProduct,
+    Map<Product, List<SonarVersionModel>> versionsByProduct) {
+    Map<String, List<String>> rangesByPluginVersion = new HashMap<>();
+    for (Product product : grid.getProducts()) {
+      CompatibilityMatrix.Plugin row = rowsByProduct.get(product).get(pluginKey);
+      if (row == null) {
+        continue;
+      }
+      Map<String, List<SonarVersionModel>> sonarVersionsByPluginVersion = new LinkedHashMap<>();
+      for (SonarVersionModel version : versionsByProduct.get(product)) {
+        String pluginVersion = row.getCompatibleVersionBySqVersion().get(version.getRealVersion());
+        if (pluginVersion != null) {
+          sonarVersionsByPluginVersion.computeIfAbsent(pluginVersion, k -> new ArrayList<>()).add(version);
+        }
+      }
+      sonarVersionsByPluginVersion.forEach((pluginVersion, sonarVersions) -> rangesByPluginVersion
+        .computeIfAbsent(pluginVersion, k -> new ArrayList<>())
+        .add(range(product, sonarVersions)));
+    }
+    return rangesByPluginVersion;
+  }
+
+  private static String range(Product product, List<SonarVersionModel> sonarVersions) {
+    StringBuilder sb = new StringBuilder(PRODUCT_NAMES.get(product)).append(' ');
+    sb.append(sonarVersions.get(0).getDisplayVersion());
+    if (sonarVersions.size() > 1) {
+      sb.append(" - ").append(sonarVersions.get(sonarVersions.size() - 1).getDisplayVersion());
+    }
+    if (sonarVersions.stream().anyMatch(SonarVersionModel::isLta)) {
+      sb.append(" (Compatible with LTA)");
+    }
+    return sb.toString();
+  }
+
+  private void deleteRemovedPages(Properties previousHashes, Properties hashes) throws IOException {
+    for (String key : previousHashes.stringPropertyNames()) {
+      if (!hashes.containsKey(key)) {
+        Files.deleteIfExists(new File(outputDirectory, key + ".html").toPath());
+      }
+    }
+  }
+
+  private Properties loadHashes(File hashesFile) {
+    Properties props = new Properties();
+    if (hashesFile.isFile()) {
+      try (InputStream input = Files.newInputStream(hashesFile.toPath())) {
+        props.load(input);
+      } catch (IOException | IllegalArgumentException e) {
+        log.warn("Ignoring corrupted plugin page hashes " + hashesFile + ": " + e.getMessage());
+        props.clear();
+      }
+    }
+    return props;
+  }
+
+  /**
+   * Hash of everything displayed by the page, including the template itself
+   */
+  private String hash(PluginModel model, Map<String, List<String>> compatibility) {
+    MessageDigest digest = sha256();
+    update(digest, templateHash);
+    update(digest, model.getKey());
+    update(digest, model.getName());
+    update(digest, model.getHomepageUrl());
+    update(digest, model.getOrganization());
+    update(digest, model.getOrganizationUrl());
+    update(digest, model.getCategory());
+    update(digest, model.getLicense());
+    update(digest, model.getIssueTracker());
+    update(digest, model.getSources());
+    for (ReleaseModel release : model.getAllVersions()) {
+      update(digest, release.getVersion());
+      update(digest, release.getDate());
+      update(digest, release.getDescription());
+      update(digest, release.getChangelogUrl());
+      for (String range : compatibility.getOrDefault(release.getVersion(), List.of())) {
+        update(digest, range);
+      }
+      update(digest, release.getDownloadUrl());
+      update(digest, String.valueOf(release.isArchived()));
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, @Nullable String value) {
+    if (value == null) {
+      digest.update((byte) 0);
+    } else {
+      digest.update((byte) 1);
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+  }
+
+  private static String hashTemplate() {
+    try (InputStream input = PluginPages.class.getResourceAsStream(TEMPLATE)) {
+      return HexFormat.of().formatHex(sha256().digest(input.readAllBytes()));
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read template " + TEMPLATE, e);
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void await(Future<?> rendering) {
+    try {
+      rendering.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while generating plugin pages", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
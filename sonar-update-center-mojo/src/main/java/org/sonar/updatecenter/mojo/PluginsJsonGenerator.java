@@ -22,7 +22,6 @@ package org.sonar.updatecenter.mojo;
 import com.google.gson.Gson;
 import com.google.gson.annotations.Expose;
 import java.io.File;
-import java.io.IOException;
 import java.net.URL;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -34,7 +33,7 @@ import org.sonar.updatecenter.common.UpdateCenter;
 /**
  * TODO https://sonarsource.atlassian.net/browse/UPC-145
  */
-class PluginsJsonGenerator extends JsonGenerator {
+class PluginsJsonGenerator extends JsonGenerator<Plugin> {
 
   private PluginsJsonGenerator(
     String resourceFile,
@@ -58,16 +57,14 @@ class PluginsJsonGenerator extends JsonGenerator {
     );
   }
 
-  void generateJsonFiles() throws IOException {
-
-    List<Plugin> plugins = center.getUpdateCenterPluginReferential().getPlugins();
-
-    for (Plugin plugin : plugins) {
-      PluginModel pluginModel = new PluginModel(plugin, center.getSonar());
+  @Override
+  protected List<Plugin> getComponents() {
+    return center.getUpdateCenterPluginReferential().getPlugins();
+  }
 
-      final JsonOutput from = JsonOutput.createFrom(pluginModel);
-      serializeToFile(plugin, from);
-    }
+  @Override
+  protected Object createJsonOutput(Plugin plugin) {
+    return JsonOutput.createFrom(new PluginModel(plugin, center.getSonar()));
   }
 
   private static class JsonOutput {
@@ -103,13 +103,12 @@ public class ReleaseModel {
       latest = lastRelease.getVersion();
     }
 
-    if (release.getRequiredSonarVersions().isEmpty()) {
+    Version min = release.getMinimumRequiredSonarVersion(Product.OLD_SONARQUBE);
+    Version max = release.getLastRequiredSonarVersion(Product.OLD_SONARQUBE);
+    if (min == null || max == null) {
       // pathological case but still valid, where no more SQ version for this plugin
       return null;
     } else {
-      Version min = release.getMinimumRequiredSonarVersion(Product.OLD_SONARQUBE);
-      Version max = release.getLastRequiredSonarVersion(Product.OLD_SONARQUBE);
-
       StringBuilder sb = new StringBuilder();
       sb.append(min.toString());
       if (max.equals(latest)) {
@@ -22,7 +22,6 @@ package org.sonar.updatecenter.mojo;
 import com.google.gson.Gson;
 import com.google.gson.annotations.Expose;
 import java.io.File;
-import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,7 +31,7 @@ import org.everit.json.schema.Schema;
 import org.sonar.updatecenter.common.Scanner;
 import org.sonar.updatecenter.common.UpdateCenter;
 
-public class ScannerJsonGenerator extends JsonGenerator{
+public class ScannerJsonGenerator extends JsonGenerator<Scanner> {
 
   protected ScannerJsonGenerator(String resourceFile, UpdateCenter center, File outputDirectory, Log log, Gson gson, Schema jsonSchema) {
     super(resourceFile, center, outputDirectory, log, gson, jsonSchema);
@@ -50,16 +49,14 @@ public class ScannerJsonGenerator extends JsonGenerator{
     );
   }
 
-  void generateJsonFiles() throws IOException {
-
-    List<Scanner> scanners = center.getScanners();
-
-    for (Scanner scanner : scanners) {
-      ScannerModel scannerModel = new ScannerModel(scanner, center.getSonar());
+  @Override
+  protected List<Scanner> getComponents() {
+    return center.getScanners();
+  }
 
-      final ScannerJsonGenerator.JsonOutput from = ScannerJsonGenerator.JsonOutput.createFrom(scannerModel);
-      serializeToFile(scanner, from);
-    }
+  @Override
+  protected Object createJsonOutput(Scanner scanner) {
+    return JsonOutput.createFrom(new ScannerModel(scanner, center.getSonar()));
   }
 
   private static class JsonOutput {
@@ -0,0 +1,107 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import freemarker.log.Logger;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.Template;
+import freemarker.template.TemplateExceptionHandler;
+import freemarker.template.Version;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.maven.plugin.logging.Log;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * FreeMarker engine configured once for all the generated pages. Templates are loaded from the classpath, parsed on
+ * first use and then cached, so that pages can be rendered concurrently. Time spent per template is recorded.
+ */
+class TemplateEngine {
+
+  static {
+    // FreeMarker logging is disabled, unless configured otherwise. The logger library is read from the system property
+    // the first time a FreeMarker logger is requested, so the property is set only for that call and then removed,
+    // leaving other plugins of the build that use FreeMarker unaffected.
+    if (System.getProperty(Logger.SYSTEM_PROPERTY_NAME_LOGGER_LIBRARY) == null) {
+      System.setProperty(Logger.SYSTEM_PROPERTY_NAME_LOGGER_LIBRARY, Logger.LIBRARY_NAME_NONE);
+      try {
+        Logger.getLogger("freemarker");
+      } finally {
+        System.clearProperty(Logger.SYSTEM_PROPERTY_NAME_LOGGER_LIBRARY);
+      }
+    }
+  }
+
+  private static final Version FREEMARKER_VERSION = freemarker.template.Configuration.VERSION_2_3_34;
+
+  private final freemarker.template.Configuration cfg;
+  private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+
+  TemplateEngine() {
+    cfg = new freemarker.template.Configuration(FREEMARKER_VERSION);
+    cfg.setClassForTemplateLoading(TemplateEngine.class, "");
+    cfg.setDefaultEncoding(UTF_8.name());
+    cfg.setObjectWrapper(new DefaultObjectWrapperBuilder(FREEMARKER_VERSION).build());
+    cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+    cfg.setLogTemplateExceptions(false);
+    cfg.setWrapUncheckedExceptions(true);
+  }
+
+  void render(String templateName, Map<String, Object> dataModel, File toFile) {
+    long start = System.nanoTime();
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(toFile.toPath()), UTF_8))) {
+      Template template = cfg.getTemplate(templateName);
+      template.process(dataModel, writer);
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to generate HTML to: " + toFile, e);
+    } finally {
+      timings.computeIfAbsent(templateName, k -> new Timing()).add(System.nanoTime() - start);
+    }
+  }
+
+  void logTimings(Log log) {
+    new TreeMap<>(timings).forEach((templateName, timing) -> log.info(
+      "Template " + templateName + ": " + timing.count.sum() + " page(s) in " + TimeUnit.NANOSECONDS.toMillis(timing.nanos.sum()) + " ms"));
+  }
+
+  long getRenderCount(String templateName) {
+    Timing timing = timings.get(templateName);
+    return timing == null ? 0 : timing.count.sum();
+  }
+
+  private static class Timing {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    private void add(long elapsed) {
+      count.increment();
+      nanos.add(elapsed);
+    }
+  }
+}
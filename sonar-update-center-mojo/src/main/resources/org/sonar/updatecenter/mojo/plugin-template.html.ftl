@@ -0,0 +1,91 @@
+<#ftl output_format="HTML">
+<!DOCTYPE HTML PUBLIC "-//W3C//DTD HTML 4.01//EN">
+<html>
+<head>
+    <title>${plugin.name!plugin.key}</title>
+    <meta http-equiv="Content-Type" content="text/html; charset=UTF-8"/>
+    <meta name="generator" content="Sonar Update Center"/>
+    <style type="text/css">
+        @import url("../styles.css");
+    </style>
+</head>
+<body>
+<h1>
+  <#if plugin.homepageUrl?? >
+  <a target="_top" href="${plugin.homepageUrl}">${plugin.name!plugin.key}</a>
+  <#else>
+  ${plugin.name!plugin.key}
+  </#if>
+</h1>
+<table cellpadding="0" cellspacing="0">
+  <tbody>
+    <tr><th>Key</th><td>${plugin.key}</td></tr>
+    <#if plugin.organization?? >
+    <tr>
+        <th>Organization</th>
+        <td>
+        <#if plugin.organizationUrl?? >
+        <a target="_top" href="${plugin.organizationUrl}">${plugin.organization}</a>
+        <#else>
+        ${plugin.organization}
+        </#if>
+        </td>
+    </tr>
+    </#if>
+    <#if plugin.category?? >
+    <tr><th>Category</th><td>${plugin.category}</td></tr>
+    </#if>
+    <#if plugin.license?? >
+    <tr><th>License</th><td>${plugin.license}</td></tr>
+    </#if>
+    <#if plugin.issueTracker?? >
+    <tr><th>Issue Tracker</th><td><a target="_top" href="${plugin.issueTracker}">${plugin.issueTracker}</a></td></tr>
+    </#if>
+    <#if plugin.sources?? >
+    <tr><th>Sources</th><td><a target="_top" href="${plugin.sources}">${plugin.sources}</a></td></tr>
+    </#if>
+  </tbody>
+</table>
+<br/>
+<table cellpadding="0" cellspacing="0">
+  <thead>
+    <tr>
+        <th>Version</th>
+        <th>Date</th>
+        <th>Description</th>
+        <th>SonarQube Compatibility</th>
+        <th>Download</th>
+    </tr>
+  </thead>
+  <tbody>
+    <#list plugin.allVersions as version>
+    <tr>
+        <td>
+          ${version.version}
+          <#if version.archived >
+          <br/> <strong>(archived)</strong>
+          </#if>
+        </td>
+        <td style="white-space:nowrap">${version.date!}</td>
+        <td>
+          ${version.description!}
+          <#if version.changelogUrl?? >
+          <br/> <a target="_top" href="${version.changelogUrl}">Release notes</a>
+          </#if>
+        </td>
+        <td>
+          <#list compatibility[version.version]![] as range>
+          ${range}<#sep><br/></#sep>
+          </#list>
+        </td>
+        <td>
+          <#if version.downloadUrl?? >
+          <a target="_top" href="${version.downloadUrl}">Download</a>
+          </#if>
+        </td>
+    </tr>
+    </#list>
+  </tbody>
+</table>
+</body>
+</html>
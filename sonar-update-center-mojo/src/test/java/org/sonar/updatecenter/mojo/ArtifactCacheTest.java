@@ -0,0 +1,132 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArtifactCacheTest {
+
+  private static final String URL = "https://repo/org/foo/1.0/foo-1.0.jar";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File outputDir;
+  private ArtifactCache underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    outputDir = temp.newFolder();
+    underTest = new ArtifactCache(outputDir);
+  }
+
+  @Test
+  public void fileFor_whenUrlsShareTheSameFilename_shouldNotCollide() {
+    File first = underTest.fileFor("https://repo/org/foo/1.0/plugin.jar");
+    File second = underTest.fileFor("https://other/org/bar/1.0/plugin.jar");
+
+    assertThat(first).hasName("plugin.jar").isNotEqualTo(second);
+    assertThat(second).hasName("plugin.jar");
+  }
+
+  @Test
+  public void get_whenNotCached_shouldReturnNull() throws IOException {
+    assertThat(underTest.get(URL)).isNull();
+  }
+
+  @Test
+  public void commit_shouldIndexChecksumSizeAndValidators() throws IOException {
+    File downloaded = download("content");
+
+    ArtifactCache.Entry entry = underTest.commit(URL, downloaded, "\"abc\"", "Wed, 21 Oct 2015 07:28:00 GMT");
+
+    assertThat(downloaded).doesNotExist();
+    assertThat(entry.getFile()).isEqualTo(underTest.fileFor(URL)).hasContent("content");
+    assertThat(entry.getSha256()).isEqualTo(ArtifactCache.sha256Hex(entry.getFile()));
+    assertThat(entry.getSize()).isEqualTo(7);
+    assertThat(entry.getEtag()).isEqualTo("\"abc\"");
+    assertThat(entry.getLastModified()).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT");
+    assertThat(entry.getFetchedAt()).isNotEmpty();
+
+    ArtifactCache.Entry cached = new ArtifactCache(outputDir).get(URL);
+    assertThat(cached).isNotNull();
+    assertThat(cached.getSha256()).isEqualTo(entry.getSha256());
+    assertThat(cached.getEtag()).isEqualTo("\"abc\"");
+  }
+
+  @Test
+  public void get_whenCachedFileIsTruncated_shouldReturnNull() throws IOException {
+    ArtifactCache.Entry entry = underTest.commit(URL, download("content"), null, null);
+    Files.writeString(entry.getFile().toPath(), "cont");
+
+    assertThat(underTest.get(URL)).isNull();
+  }
+
+  @Test
+  public void get_whenCachedFileIsModifiedWithSameSize_shouldVerifyChecksum() throws IOException {
+    ArtifactCache.Entry entry = underTest.commit(URL, download("content"), null, null);
+    Files.writeString(entry.getFile().toPath(), "CONTENT");
+    entry.getFile().setLastModified(entry.getFile().lastModified() - 10_000);
+
+    assertThat(underTest.get(URL)).isNull();
+  }
+
+  @Test
+  public void get_whenCachedFileIsTouched_shouldKeepEntry() throws IOException {
+    ArtifactCache.Entry entry = underTest.commit(URL, download("content"), null, null);
+    entry.getFile().setLastModified(entry.getFile().lastModified() - 10_000);
+
+    ArtifactCache.Entry cached = underTest.get(URL);
+    assertThat(cached).isNotNull();
+    assertThat(cached.getSha256()).isEqualTo(entry.getSha256());
+  }
+
+  @Test
+  public void get_whenFileIsStoredInOutputDirectoryOnly_shouldReturnNull() throws IOException {
+    Files.writeString(new File(outputDir, "foo-1.0.jar").toPath(), "legacy");
+
+    assertThat(underTest.get(URL)).isNull();
+  }
+
+  /**
+   * Stores a copy of the file in the cache of the output directory, as if it had been downloaded from the URL.
+   */
+  static void addToCache(File outputDir, String url, File file) throws IOException {
+    ArtifactCache cache = new ArtifactCache(outputDir);
+    File copy = cache.createTempFile(url);
+    Files.copy(file.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    cache.commit(url, copy, null, null);
+  }
+
+  private File download(String content) throws IOException {
+    File file = underTest.createTempFile(URL);
+    Files.writeString(file.toPath(), content);
+    return file;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.sonar.updatecenter.common.Plugin;
+import org.sonar.updatecenter.common.PluginReferential;
+import org.sonar.updatecenter.common.Product;
+import org.sonar.updatecenter.common.Release;
+import org.sonar.updatecenter.common.Sonar;
+import org.sonar.updatecenter.common.UpdateCenter;
+import org.sonar.updatecenter.common.Version;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompatibilityMatrixExportTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private CompatibilityMatrixExport underTest;
+
+  @Before
+  public void before() {
+    Sonar sonar = new Sonar();
+    addSonarRelease(sonar, "9.9", Product.OLD_SONARQUBE);
+    addSonarRelease(sonar, "10.0", Product.OLD_SONARQUBE);
+    addSonarRelease(sonar, "2025.1", Product.SONARQUBE_SERVER);
+    sonar.setLtaVersion("9.9");
+
+    Plugin java = Plugin.factory("java");
+    java.setName("Java, Kotlin");
+    Release java7 = new Release(java, Version.create("7.0"));
+    java7.addRequiredSonarVersions(Product.OLD_SONARQUBE, "9.9");
+    Release java8 = new Release(java, Version.create("8.0"));
+    java8.addRequiredSonarVersions(Product.OLD_SONARQUBE, "10.0");
+    java8.addRequiredSonarVersions(Product.SONARQUBE_SERVER, "2025.1");
+    java.addRelease(java7);
+    java.addRelease(java8);
+
+    Plugin abap = Plugin.factory("abap");
+    abap.setName("ABAP");
+    Release abap1 = new Release(abap, Version.create("1.0"));
+    abap1.addRequiredSonarVersions(Product.OLD_SONARQUBE, "9.9", "10.0");
+    abap.addRelease(abap1);
+
+    UpdateCenter center = UpdateCenter.create(PluginReferential.create(Arrays.asList(java, abap)), new ArrayList<>(), sonar, Product.OLD_SONARQUBE);
+    underTest = new CompatibilityMatrixExport(CompatibilityGrid.build(center));
+  }
+
+  private static void addSonarRelease(Sonar sonar, String version, Product product) {
+    Release release = new Release(sonar, Version.create(version));
+    release.setProduct(product);
+    sonar.addRelease(release);
+  }
+
+  @Test
+  public void write_json() throws Exception {
+    File file = temp.newFile();
+    underTest.writeJson(file);
+
+    String json = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+    assertThat(json).doesNotContain("\n");
+    JSONAssert.assertEquals("""
+      {"products": [
+        {"product": "OLD_SONARQUBE", "lta": "9.9", "versions": ["9.9", "10.0"], "plugins": [
+          {"key": "abap", "name": "ABAP", "compatibility": {"9.9": "1.0", "10.0": "1.0"}},
+          {"key": "java", "name": "Java, Kotlin", "compatibility": {"9.9": "7.0", "10.0": "8.0"}}
+        ]},
+        {"product": "SONARQUBE_COMMUNITY_BUILD", "lta": null, "versions": [], "plugins": [
+          {"key": "abap", "name": "ABAP", "compatibility": {}},
+          {"key": "java", "name": "Java, Kotlin", "compatibility": {}}
+        ]},
+        {"product": "SONARQUBE_SERVER", "lta": null, "versions": ["2025.1"], "plugins": [
+          {"key": "abap", "name": "ABAP", "compatibility": {}},
+          {"key": "java", "name": "Java, Kotlin", "compatibility": {"2025.1": "8.0"}}
+        ]}
+      ]}""", json, true);
+  }
+
+  @Test
+  public void write_csv() throws Exception {
+    File file = temp.newFile();
+    underTest.writeCsv(file);
+
+    assertThat(FileUtils.readFileToString(file, StandardCharsets.UTF_8)).isEqualTo("""
+      product,sonarVersion,plugin,pluginVersion
+      OLD_SONARQUBE,9.9,abap,1.0
+      OLD_SONARQUBE,9.9,java,7.0
+      OLD_SONARQUBE,10.0,abap,1.0
+      OLD_SONARQUBE,10.0,java,8.0
+      SONARQUBE_SERVER,2025.1,java,8.0
+      """);
+  }
+
+  @Test
+  public void write_empty_csv_field_for_plugin_without_key() throws Exception {
+    CompatibilityGrid grid = CompatibilityGrid.empty();
+    grid.getVersions(Product.OLD_SONARQUBE).add(new SonarVersionModel("9.9", "9.9", null, true));
+    CompatibilityMatrix.Plugin withoutKey = new CompatibilityMatrix.Plugin("No Key", "https://example.com");
+    withoutKey.getCompatibleVersionBySqVersion().put("9.9", "1.0");
+    grid.getPlugins(Product.OLD_SONARQUBE).add(withoutKey);
+
+    File file = temp.newFile();
+    new CompatibilityMatrixExport(grid).writeCsv(file);
+
+    assertThat(FileUtils.readFileToString(file, StandardCharsets.UTF_8)).isEqualTo("""
+      product,sonarVersion,plugin,pluginVersion
+      OLD_SONARQUBE,9.9,,1.0
+      """);
+  }
+
+  @Test
+  public void exports_are_reproducible() throws Exception {
+    File first = temp.newFolder();
+    File second = temp.newFolder();
+    underTest.writeAll(first);
+    underTest.writeAll(second);
+
+    assertThat(new File(first, CompatibilityMatrixExport.JSON_FILENAME)).hasSameBinaryContentAs(new File(second, CompatibilityMatrixExport.JSON_FILENAME));
+    assertThat(new File(first, CompatibilityMatrixExport.CSV_FILENAME)).hasSameBinaryContentAs(new File(second, CompatibilityMatrixExport.CSV_FILENAME));
+  }
+}
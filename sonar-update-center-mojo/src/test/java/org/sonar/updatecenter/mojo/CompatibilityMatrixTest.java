@@ -27,6 +27,10 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.logging.Log;
 import org.junit.Before;
@@ -43,6 +47,7 @@ import org.sonar.updatecenter.common.Version;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.mock;
 
 public class CompatibilityMatrixTest {
@@ -157,6 +162,79 @@ public class CompatibilityMatrixTest {
     assertHtmlForProduct(Product.SONARQUBE_SERVER, "compatibility-matrix-sqs.html");
   }
 
+  @Test
+  public void shouldBuildGridForAllProducts() throws Exception {
+    Plugin pluginFoo = Plugin.factory("foo");
+    Release releaseFoo = new Release(pluginFoo, Version.create("1.0"));
+    releaseFoo.addRequiredSonarVersions(Product.OLD_SONARQUBE, "3.7.4", "4.0");
+    releaseFoo.addRequiredSonarVersions(Product.SONARQUBE_SERVER, "2025.2");
+    pluginFoo.addRelease(releaseFoo);
+    pluginFoo.setName("foo");
+
+    Plugin pluginBar = Plugin.factory("bar");
+    pluginBar.setName("bar");
+    prepareMocks(pluginFoo, pluginBar);
+
+    CompatibilityGrid grid = CompatibilityGrid.build(center);
+
+    assertThat(grid.getVersions(Product.OLD_SONARQUBE)).extracting(SonarVersionModel::getRealVersion)
+      .containsExactly("3.7.4", "10.0", "4.0", "3.0");
+    assertThat(grid.getVersions(Product.SONARQUBE_SERVER)).extracting(SonarVersionModel::getRealVersion)
+      .containsExactly("2025.2", "2025.1");
+
+    assertThat(grid.getPlugins(Product.OLD_SONARQUBE)).extracting(CompatibilityMatrix.Plugin::getName).containsExactly("bar", "foo");
+    assertThat(grid.getPlugins(Product.OLD_SONARQUBE).get(0).getCompatibleVersionBySqVersion()).isEmpty();
+    assertThat(grid.getPlugins(Product.OLD_SONARQUBE).get(1).getCompatibleVersionBySqVersion())
+      .containsExactly(entry("3.7.4", "1.0"), entry("4.0", "1.0"));
+    assertThat(grid.getPlugins(Product.SONARQUBE_SERVER).get(1).getCompatibleVersionBySqVersion())
+      .containsExactly(entry("2025.2", "1.0"));
+
+    assertThat(grid.hasCompatiblePlugins(Product.OLD_SONARQUBE)).isTrue();
+    assertThat(grid.hasCompatiblePlugins(Product.SONARQUBE_COMMUNITY_BUILD)).isFalse();
+  }
+
+  @Test
+  public void shouldShareTemplateEngineBetweenConcurrentRenderings() throws Exception {
+    Plugin pluginFoo = Plugin.factory("foo");
+    Release releaseFoo = new Release(pluginFoo, Version.create("1.0"));
+    releaseFoo.setDate(getDate());
+    releaseFoo.addRequiredSonarVersions(Product.OLD_SONARQUBE, "3.0");
+    releaseFoo.addRequiredSonarVersions(Product.SONARQUBE_SERVER, "2025.1");
+    releaseFoo.addRequiredSonarVersions(Product.SONARQUBE_COMMUNITY_BUILD, "24.12");
+    pluginFoo.addRelease(releaseFoo);
+    pluginFoo.setName("foo");
+    prepareMocks(pluginFoo);
+
+    TemplateEngine templateEngine = new TemplateEngine();
+    List<File> folders = new ArrayList<>();
+    List<Future<?>> renderings = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < 4; i++) {
+        File folder = temporaryFolder.newFolder();
+        folders.add(folder);
+        renderings.add(executor.submit(() -> {
+          new CompatibilityMatrix(center, folder, mock(Log.class), templateEngine).generateHtmls();
+          return null;
+        }));
+      }
+      for (Future<?> rendering : renderings) {
+        rendering.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (File folder : folders) {
+      for (String fileName : asList("compatibility-matrix.html", "compatibility-matrix-sqcb.html", "compatibility-matrix-sqs.html")) {
+        assertThat(new File(folder, fileName)).hasSameTextualContentAs(new File(folders.get(0), fileName));
+      }
+    }
+    assertThat(templateEngine.getRenderCount("matrix-template.html.ftl")).isEqualTo(4);
+    assertThat(templateEngine.getRenderCount("matrix-template-sqs.html.ftl")).isEqualTo(4);
+    assertThat(templateEngine.getRenderCount("matrix-template-sqcb.html.ftl")).isEqualTo(4);
+  }
+
   private void assertHtmlForProduct(Product product, String fileName) throws IOException {
     File file = outputFolder.listFiles(new FilenameFilterForCompatibilityMatrixGeneratedHtml(product))[0];
     String flattenFile = flatHtmlFile(file);
@@ -21,6 +21,7 @@ package org.sonar.updatecenter.mojo;
 
 import java.io.IOException;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -31,6 +32,11 @@ import java.nio.charset.StandardCharsets;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class GenerateHtmlMojoTest {
+
+  private static final String ARTIFACT_SIZE_REPOSITORY = "http://repository.codehaus.org/org/codehaus/sonar-plugins/sonar-artifact-size-plugin/";
+  private static final String ARTIFACT_SIZE_0_2_URL = ARTIFACT_SIZE_REPOSITORY + "0.2/sonar-artifact-size-plugin-0.2.jar";
+  private static final String ARTIFACT_SIZE_0_3_URL = ARTIFACT_SIZE_REPOSITORY + "0.3/sonar-artifact-size-plugin-0.3.jar";
+
   @Rule
   public TemporaryFolder temp = new TemporaryFolder();
 
@@ -39,8 +45,8 @@ public class GenerateHtmlMojoTest {
     File outputDir = temp.newFolder();
 
     // plugin is already cached
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.2.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.3.jar"), outputDir);
+    cache(outputDir, ARTIFACT_SIZE_0_2_URL);
+    cache(outputDir, ARTIFACT_SIZE_0_3_URL);
 
     File inputFile = resource("update-center-template/update-center.properties");
     new GenerateHtmlMojo().setInputFile(inputFile).setOutputDir(outputDir).execute();
@@ -51,6 +57,9 @@ public class GenerateHtmlMojoTest {
 
     assertThat(new File(outputDir, "html/styles.css")).exists().isFile();
     assertThat(new File(outputDir, "html/error.png")).exists().isFile();
+    assertThat(new File(outputDir, "html/plugins")).isDirectoryContaining(f -> f.getName().endsWith(".html"));
+    assertThat(new File(outputDir, "html/compatibility-matrix.json")).isFile();
+    assertThat(new File(outputDir, "html/compatibility-matrix.csv")).isFile();
   }
 
   private void assertCompatibilityMatrixExist(File outputDir, String fileName) throws IOException {
@@ -60,6 +69,10 @@ public class GenerateHtmlMojoTest {
     assertThat(html).contains("Artifact Size");
   }
 
+  private void cache(File outputDir, String url) throws IOException {
+    ArtifactCacheTest.addToCache(outputDir, url, resource(StringUtils.substringAfterLast(url, "/")));
+  }
+
   private File resource(String filename) {
     return FileUtils.toFile(getClass().getResource("/org/sonar/updatecenter/mojo/GenerateMojoTest/" + filename));
   }
@@ -20,15 +20,22 @@
 package org.sonar.updatecenter.mojo;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.IOException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class GenerateJsonMojoTest {
+
+  private static final String ARTIFACT_SIZE_REPOSITORY = "http://repository.codehaus.org/org/codehaus/sonar-plugins/sonar-artifact-size-plugin/";
+  private static final String ARTIFACT_SIZE_0_2_URL = ARTIFACT_SIZE_REPOSITORY + "0.2/sonar-artifact-size-plugin-0.2.jar";
+  private static final String ARTIFACT_SIZE_0_3_URL = ARTIFACT_SIZE_REPOSITORY + "0.3/sonar-artifact-size-plugin-0.3.jar";
+
   @Rule
   public TemporaryFolder temp = new TemporaryFolder();
 
@@ -37,8 +44,8 @@ public class GenerateJsonMojoTest {
     File outputDir = temp.newFolder();
 
     // plugin is already cached
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.2.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.3.jar"), outputDir);
+    cache(outputDir, ARTIFACT_SIZE_0_2_URL);
+    cache(outputDir, ARTIFACT_SIZE_0_3_URL);
 
     File inputFile = resource("update-center-template/update-center.properties");
     new GenerateJsonMojo().setInputFile(inputFile).setOutputDir(outputDir).execute();
@@ -55,6 +62,10 @@ public class GenerateJsonMojoTest {
 
   }
 
+  private void cache(File outputDir, String url) throws IOException {
+    ArtifactCacheTest.addToCache(outputDir, url, resource(StringUtils.substringAfterLast(url, "/")));
+  }
+
   private File resource(String filename) {
     return FileUtils.toFile(getClass().getResource("/org/sonar/updatecenter/mojo/GenerateMojoTest/" + filename));
   }
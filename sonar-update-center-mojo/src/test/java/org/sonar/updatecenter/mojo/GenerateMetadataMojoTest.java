@@ -20,20 +20,37 @@
 package org.sonar.updatecenter.mojo;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 import org.sonar.updatecenter.common.PluginReferential;
+import org.sonar.updatecenter.common.UpdateCenter;
+import org.sonar.updatecenter.common.UpdateCenterDeserializer;
+import org.sonar.updatecenter.common.UpdateCenterSerializer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class GenerateMetadataMojoTest {
+
+  private static final String ARTIFACT_SIZE_REPOSITORY = "http://repository.codehaus.org/org/codehaus/sonar-plugins/sonar-artifact-size-plugin/";
+  private static final String ARTIFACT_SIZE_0_2_URL = ARTIFACT_SIZE_REPOSITORY + "0.2/sonar-artifact-size-plugin-0.2.jar";
+  private static final String ARTIFACT_SIZE_0_3_URL = ARTIFACT_SIZE_REPOSITORY + "0.3/sonar-artifact-size-plugin-0.3.jar";
+
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
@@ -45,9 +62,9 @@ public class GenerateMetadataMojoTest {
     File outputDir = temp.newFolder();
 
     // plugin is already cached
-    FileUtils.copyFileToDirectory(resource("csharp-plugin-1.0.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("dotnet-plugin-1.0.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("fxcop-plugin-1.0.jar"), outputDir);
+    cache(outputDir, "http://url.org/csharp-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/dotnet-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/fxcop-plugin-1.0.jar");
 
     File inputFile = resource("update-center-template-for-requires-and-parent/update-center.properties");
     GenerateMetadataMojo underTest = new GenerateMetadataMojo();
@@ -69,9 +86,9 @@ public class GenerateMetadataMojoTest {
     File outputDir = temp.newFolder();
 
     // plugin is already cached
-    FileUtils.copyFileToDirectory(resource("csharp-plugin-1.0.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("dotnet-plugin-1.0.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("fxcop-plugin-1.0.jar"), outputDir);
+    cache(outputDir, "http://url.org/csharp-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/dotnet-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/fxcop-plugin-1.0.jar");
 
     File inputFile = resource("update-center-template-for-requires-and-parent/update-center.properties");
     GenerateMetadataMojo underTest = new GenerateMetadataMojo();
@@ -87,6 +104,77 @@ public class GenerateMetadataMojoTest {
 
     assertThat(output).contains("csharp.1.0.requirePlugins=dotnet\\:1.0")
       .contains("csharp.1.0.displayVersion=1.0 (build 42)");
+
+    // binary file is generated next to it, with the same content
+    UpdateCenter binary = UpdateCenterDeserializer.fromBinary(new File(outputDir, "sonar-updates.bin"));
+    Properties expected = new Properties();
+    try (Reader reader = Files.newBufferedReader(outputFile.toPath(), StandardCharsets.ISO_8859_1)) {
+      expected.load(reader);
+    }
+    assertThat(UpdateCenterSerializer.toProperties(binary)).isEqualTo(expected);
+  }
+
+  @Test
+  public void reuse_snapshot_of_previous_build_if_files_did_not_change() throws Exception {
+    File outputDir = temp.newFolder();
+    cache(outputDir, "http://url.org/csharp-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/dotnet-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/fxcop-plugin-1.0.jar");
+    File inputFile = resource("update-center-template-for-requires-and-parent/update-center.properties");
+    GenerateMetadataMojo underTest = new GenerateMetadataMojo();
+    underTest.inputFile = inputFile;
+    underTest.outputDir = outputDir;
+    underTest.checkDownloadUrls = false;
+    underTest.execute();
+    File outputFile = new File(outputDir, "sonar-updates.properties");
+    String firstOutput = FileUtils.readFileToString(outputFile, StandardCharsets.UTF_8);
+
+    Log log = mock(Log.class);
+    Configuration configuration = new Configuration(outputDir, inputFile, false, false, false, false, log);
+    new Generator(configuration, log).generateMetadata();
+
+    verify(log).info("Update center snapshot: 0 plugins and scanners parsed again");
+    assertThat(outputFile).hasContent(firstOutput);
+  }
+
+  @Test
+  public void parse_everything_if_snapshot_is_corrupted() throws Exception {
+    File outputDir = temp.newFolder();
+    File inputFile = resource("update-center-template-for-requires-and-parent/update-center.properties");
+    new Configuration(outputDir, inputFile, false, false, false, false, new SystemStreamLog()).saveSnapshot();
+    File[] snapshots = new File(outputDir, ArtifactCache.CACHE_DIR).listFiles((dir, name) -> name.endsWith(".snapshot"));
+    assertThat(snapshots).hasSize(1);
+    Files.writeString(snapshots[0].toPath(), "corrupted");
+
+    Log log = mock(Log.class);
+    Configuration configuration = new Configuration(outputDir, inputFile, false, false, false, false, log);
+
+    verify(log).warn(startsWith("Ignoring corrupted update center snapshot"));
+    assertThat(configuration.getUpdateCenter().getUpdateCenterPluginReferential().findPlugin("csharp")).isNotNull();
+  }
+
+  @Test
+  public void generate_same_properties_whatever_the_number_of_download_threads() throws Exception {
+    File inputFile = resource("update-center-template-for-requires-and-parent/update-center.properties");
+    String sequential = generateDevModeMetadata(inputFile, 1);
+    String concurrent = generateDevModeMetadata(inputFile, 4);
+
+    assertThat(concurrent).isEqualTo(sequential);
+  }
+
+  private String generateDevModeMetadata(File inputFile, int downloadThreads) throws Exception {
+    File outputDir = temp.newFolder();
+    Configuration configuration = new Configuration(outputDir, inputFile, true, false, false, false, new SystemStreamLog())
+      .setDownloadThreads(downloadThreads);
+    PluginReferential ref = configuration.getUpdateCenter().getUpdateCenterPluginReferential();
+    for (String pluginKey : new String[]{"fxcop", "dotnet", "csharp"}) {
+      for (String version : new String[]{"1.1-SNAPSHOT", "1.0"}) {
+        ref.findPlugin(pluginKey).getRelease(version).setDownloadUrl(url(String.format("%s-plugin-%s.jar", pluginKey, version)).toString());
+      }
+    }
+    new Generator(configuration, new SystemStreamLog()).generateMetadata();
+
+    return FileUtils.readFileToString(new File(outputDir, "sonar-updates.properties"), StandardCharsets.UTF_8);
   }
 
   @Test
@@ -112,11 +200,9 @@ public class GenerateMetadataMojoTest {
     File outputDir = temp.newFolder();
 
     // plugin is already cached
-    FileUtils.copyFileToDirectory(resource("csharp-plugin-1.0.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("dotnet-plugin-1.0.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("fxcop-plugin-1.0.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("dotnet-plugin-1.1-SNAPSHOT.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("fxcop-plugin-1.1-SNAPSHOT.jar"), outputDir);
+    cache(outputDir, "http://url.org/csharp-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/dotnet-plugin-1.0.jar");
+    cache(outputDir, "http://url.org/fxcop-plugin-1.0.jar");
 
     File inputFile = resource("update-center-template-for-requires-and-parent/update-center.properties");
     Configuration configuration = new Configuration(outputDir, inputFile, true, false, false, false, new SystemStreamLog());
@@ -162,12 +248,12 @@ public class GenerateMetadataMojoTest {
       }
     }
 
+    File cachedFile = new ArtifactCache(outputDir).fileFor(incorrectUrl);
     thrown.expect(IllegalStateException.class);
     thrown.expectMessage(String.format(
-      "Fail to download %s to %s%scsharp-plugin-1.0.jar",
+      "Fail to download %s to %s",
       incorrectUrl,
-      outputDir.toPath(),
-      File.separator
+      cachedFile.toPath()
     ));
     new Generator(configuration, new SystemStreamLog()).generateMetadata();
   }
@@ -176,9 +262,6 @@ public class GenerateMetadataMojoTest {
   public void verify_download_urls_if_cached() throws Exception {
     File outputDir = temp.newFolder();
 
-    // Cache plugin.
-    FileUtils.copyFileToDirectory(resource("csharp-plugin-1.0.jar"), outputDir);
-
     File inputFile = resource("update-center-template-for-requires-and-parent/update-center.properties");
     Configuration configuration = new Configuration(outputDir, inputFile, true, false, false, true, new SystemStreamLog());
 
@@ -201,6 +284,9 @@ public class GenerateMetadataMojoTest {
       }
     }
 
+    // Cache plugin.
+    cache(outputDir, incorrectUrl);
+
     thrown.expect(IllegalStateException.class);
     thrown.expectMessage(String.format(
       "Failed to download %s, URL is no longer valid!",
@@ -214,9 +300,8 @@ public class GenerateMetadataMojoTest {
     File outputDir = temp.newFolder();
 
     // plugin is already cached
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.2.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.3.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.4.jar"), outputDir);
+    cache(outputDir, ARTIFACT_SIZE_0_2_URL);
+    cache(outputDir, ARTIFACT_SIZE_0_3_URL);
 
     File inputFile = resource("update-center-template/update-center.properties");
     Configuration configuration = new Configuration(outputDir, inputFile, false, false, true, false, new SystemStreamLog());
@@ -236,9 +321,8 @@ public class GenerateMetadataMojoTest {
     File outputDir = temp.newFolder();
 
     // plugin is already cached
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.2.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.3.jar"), outputDir);
-    FileUtils.copyFileToDirectory(resource("sonar-artifact-size-plugin-0.4.jar"), outputDir);
+    cache(outputDir, ARTIFACT_SIZE_0_2_URL);
+    cache(outputDir, ARTIFACT_SIZE_0_3_URL);
 
     File inputFile = resource("key-mismatch/update-center.properties");
     Configuration configuration = new Configuration(outputDir, inputFile, false, false, true, false, new SystemStreamLog());
@@ -251,6 +335,10 @@ public class GenerateMetadataMojoTest {
     }
   }
 
+  private void cache(File outputDir, String url) throws IOException {
+    ArtifactCacheTest.addToCache(outputDir, url, resource(StringUtils.substringAfterLast(url, "/")));
+  }
+
   private File resource(String filename) {
     return FileUtils.toFile(url(filename));
   }
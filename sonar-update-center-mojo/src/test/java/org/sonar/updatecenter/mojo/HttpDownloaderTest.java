@@ -26,7 +26,15 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -86,15 +94,16 @@ public class HttpDownloaderTest {
   @Test
   public void download_whenCachedFileExistsAndForceIsFalse_shouldUseCachedFile() throws Exception {
     HttpDownloader underTest = new HttpDownloader(outputDir, false, log);
-    File cachedFile = new File(outputDir, "cached.txt");
-    String cachedContent = "cached content";
-    Files.writeString(cachedFile.toPath(), cachedContent);
-
     File sourceFile = temp.newFile("cached.txt");
     String newContent = "new content";
     Files.writeString(sourceFile.toPath(), newContent);
-
     URL fileUrl = sourceFile.toURI().toURL();
+
+    File cachedFile = temp.newFile();
+    String cachedContent = "cached content";
+    Files.writeString(cachedFile.toPath(), cachedContent);
+    ArtifactCacheTest.addToCache(outputDir, fileUrl.toString(), cachedFile);
+
     File result = underTest.download(fileUrl.toString(), false);
 
     assertThat(result).exists();
@@ -104,15 +113,16 @@ public class HttpDownloaderTest {
   @Test
   public void download_whenForceIsTrue_shouldRedownloadFile() throws Exception {
     HttpDownloader underTest = new HttpDownloader(outputDir, false, log);
-    File cachedFile = new File(outputDir, "forced.txt");
-    String cachedContent = "cached content";
-    Files.writeString(cachedFile.toPath(), cachedContent);
-
     File sourceFile = temp.newFile("forced.txt");
     String newContent = "new content";
     Files.writeString(sourceFile.toPath(), newContent);
-
     URL fileUrl = sourceFile.toURI().toURL();
+
+    File cachedFile = temp.newFile();
+    String cachedContent = "cached content";
+    Files.writeString(cachedFile.toPath(), cachedContent);
+    ArtifactCacheTest.addToCache(outputDir, fileUrl.toString(), cachedFile);
+
     File result = underTest.download(fileUrl.toString(), true);
 
     assertThat(result).exists();
@@ -165,6 +175,66 @@ public class HttpDownloaderTest {
     assertThat(result).hasName("myfile.jar");
   }
 
+  @Test
+  public void constructor_whenMaxConnectionsPerHostIsNotPositive_shouldThrowException() {
+    HttpClient httpClient = HttpClient.newHttpClient();
+
+    assertThatThrownBy(() -> new HttpDownloader(outputDir, false, log, httpClient, 0))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("maxConnectionsPerHost must be strictly positive");
+  }
+
+  @Test
+  public void download_whenCalledConcurrently_shouldDownloadAllFilesWithinPerHostLimit() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    mockWebServer.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+          // keep the request open long enough for the other threads to try to send theirs
+          Thread.sleep(200);
+          return new MockResponse().setResponseCode(200).setBody("content");
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      }
+    });
+    HttpDownloader underTest = new HttpDownloader(outputDir, false, log, HttpClient.newHttpClient(), 2);
+
+    List<Callable<File>> downloads = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      String url = mockWebServer.url("/file" + i + ".jar").toString();
+      downloads.add(() -> underTest.download(url, false));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try {
+      for (Future<File> result : executor.invokeAll(downloads)) {
+        assertThat(Files.readString(result.get().toPath())).isEqualTo("content");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(mockWebServer.getRequestCount()).isEqualTo(6);
+    assertThat(maxInFlight.get()).isBetween(1, 2);
+  }
+
+  @Test
+  public void download_whenUrlsShareTheSameFilename_shouldCacheThemSeparately() throws Exception {
+    HttpDownloader underTest = new HttpDownloader(outputDir, false, log);
+    File source1 = new File(temp.newFolder(), "plugin.jar");
+    File source2 = new File(temp.newFolder(), "plugin.jar");
+    Files.writeString(source1.toPath(), "first");
+    Files.writeString(source2.toPath(), "second");
+
+    File result1 = underTest.download(source1.toURI().toURL().toString(), false);
+    File result2 = underTest.download(source2.toURI().toURL().toString(), false);
+
+    assertThat(result1).isNotEqualTo(result2).hasContent("first");
+    assertThat(result2).hasContent("second");
+  }
+
   @Test
   public void verifyDownloadUrl_whenFileExists_shouldReturnTrue() throws Exception {
     HttpDownloader underTest = new HttpDownloader(outputDir, false, log);
@@ -193,12 +263,11 @@ public class HttpDownloaderTest {
   public void download_whenVerifyUrlIfCachedEnabledAndUrlInvalid_shouldThrowException() throws Exception {
     HttpDownloader strictDownloader = new HttpDownloader(outputDir, true, log);
 
-    File cachedFile = new File(outputDir, "verified.txt");
-    Files.writeString(cachedFile.toPath(), "content");
-
     File sourceFile = temp.newFile("verified.txt");
+    Files.writeString(sourceFile.toPath(), "content");
     URL fileUrl = sourceFile.toURI().toURL();
     String urlString = fileUrl.toString();
+    ArtifactCacheTest.addToCache(outputDir, urlString, sourceFile);
     sourceFile.delete();
 
     assertThatThrownBy(() -> strictDownloader.download(urlString, false))
@@ -529,4 +598,69 @@ public class HttpDownloaderTest {
     assertThat(result).isFalse();
     assertThat(Thread.interrupted()).isTrue();
   }
+
+  // ===== Conditional revalidation Tests =====
+
+  @Test
+  public void download_whenForcedAndCachedWithEtag_shouldReuseCachedFileIfNotModified() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody("content"));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+    HttpDownloader underTest = new HttpDownloader(outputDir, false, log);
+    String url = mockWebServer.url("/plugin.jar").toString();
+    underTest.download(url, false);
+    File result = underTest.download(url, true);
+
+    assertThat(result).hasContent("content");
+    mockWebServer.takeRequest();
+    RecordedRequest revalidation = mockWebServer.takeRequest();
+    assertThat(revalidation.getMethod()).isEqualTo("GET");
+    assertThat(revalidation.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+    assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void download_whenVerifyingCachedFileWithLastModified_shouldReplaceCachedFileIfModified() throws Exception {
+    String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeader("Last-Modified", lastModified).setBody("old"));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("new"));
+
+    String url = mockWebServer.url("/plugin.jar").toString();
+    new HttpDownloader(outputDir, false, log).download(url, false);
+    File result = new HttpDownloader(outputDir, true, log).download(url, false);
+
+    assertThat(result).hasContent("new");
+    mockWebServer.takeRequest();
+    assertThat(mockWebServer.takeRequest().getHeader("If-Modified-Since")).isEqualTo(lastModified);
+  }
+
+  @Test
+  public void download_whenVerifyingCachedFileAndUrlIsGone_shouldThrowException() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody("content"));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+    String url = mockWebServer.url("/plugin.jar").toString();
+    new HttpDownloader(outputDir, false, log).download(url, false);
+    HttpDownloader strictDownloader = new HttpDownloader(outputDir, true, log);
+
+    assertThatThrownBy(() -> strictDownloader.download(url, false))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("URL is no longer valid");
+  }
+
+  @Test
+  public void download_whenForcedAndLocalFileIsUnchanged_shouldNotCopyFileAgain() throws Exception {
+    HttpDownloader underTest = new HttpDownloader(outputDir, false, log);
+    File sourceFile = temp.newFile("unchanged.jar");
+    Files.writeString(sourceFile.toPath(), "content");
+    String url = sourceFile.toURI().toURL().toString();
+
+    File cached = underTest.download(url, false);
+    long cachedModified = cached.lastModified() - 10_000;
+    cached.setLastModified(cachedModified);
+    File result = underTest.download(url, true);
+
+    assertThat(result).hasContent("content");
+    assertThat(result.lastModified()).isEqualTo(cachedModified);
+  }
 }
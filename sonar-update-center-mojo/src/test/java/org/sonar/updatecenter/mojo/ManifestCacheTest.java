@@ -0,0 +1,112 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.updatecenter.common.PluginManifest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ManifestCacheTest {
+
+  private static final String URL = "http://url.org/csharp-plugin-1.0.jar";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File outputDir;
+  private Log log;
+  private ArtifactCache.Entry artifact;
+
+  @Before
+  public void setUp() throws IOException {
+    outputDir = temp.newFolder();
+    log = mock(Log.class);
+    ArtifactCache artifactCache = new ArtifactCache(outputDir);
+    File downloaded = artifactCache.createTempFile(URL);
+    FileUtils.copyURLToFile(getClass().getResource("/org/sonar/updatecenter/mojo/GenerateMojoTest/csharp-plugin-1.0.jar"), downloaded);
+    artifact = artifactCache.commit(URL, downloaded, null, null);
+  }
+
+  @Test
+  public void get_whenNotCached_shouldReadJar() throws IOException {
+    ManifestCache underTest = ManifestCache.load(outputDir, log);
+
+    PluginManifest manifest = underTest.get(artifact);
+
+    assertThat(manifest.getKey()).isEqualTo("csharp");
+    assertThat(underTest.getHits()).isZero();
+    assertThat(underTest.getMisses()).isOne();
+  }
+
+  @Test
+  public void get_whenCachedByPreviousRun_shouldNotReadJar() throws IOException {
+    ManifestCache firstRun = ManifestCache.load(outputDir, log);
+    PluginManifest expected = firstRun.get(artifact);
+    firstRun.save();
+
+    // the JAR can not be read anymore
+    FileUtils.write(artifact.getFile(), "not a jar", "UTF-8");
+    ManifestCache secondRun = ManifestCache.load(outputDir, log);
+    PluginManifest manifest = secondRun.get(artifact);
+
+    assertThat(secondRun.getHits()).isOne();
+    assertThat(secondRun.getMisses()).isZero();
+    assertThat(manifest.getKey()).isEqualTo(expected.getKey());
+    assertThat(manifest.getName()).isEqualTo(expected.getName());
+    assertThat(manifest.getVersion()).isEqualTo(expected.getVersion());
+    assertThat(manifest.getDisplayVersion()).isEqualTo(expected.getDisplayVersion());
+    assertThat(manifest.getRequirePlugins()).containsExactly(expected.getRequirePlugins());
+    assertThat(manifest.getDevelopers()).containsExactly(expected.getDevelopers());
+    assertThat(manifest.getOrganization()).isEqualTo(expected.getOrganization());
+    assertThat(manifest.getLicense()).isEqualTo(expected.getLicense());
+    assertThat(manifest.getHomepage()).isEqualTo(expected.getHomepage());
+  }
+
+  @Test
+  public void save_shouldLogHitsAndMisses() throws IOException {
+    ManifestCache underTest = ManifestCache.load(outputDir, log);
+    underTest.get(artifact);
+    underTest.get(artifact);
+
+    underTest.save();
+
+    verify(log).info("Manifest cache: 1 hits, 1 misses");
+  }
+
+  @Test
+  public void load_whenCacheIsCorrupted_shouldIgnoreIt() throws IOException {
+    FileUtils.write(new File(outputDir, "cache/manifests.properties"), "foo=\\uZZZZ", "UTF-8");
+
+    ManifestCache underTest = ManifestCache.load(outputDir, log);
+    underTest.get(artifact);
+
+    assertThat(underTest.getMisses()).isOne();
+  }
+}
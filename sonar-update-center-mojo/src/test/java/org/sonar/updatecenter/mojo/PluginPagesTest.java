@@ -0,0 +1,155 @@
+/*
+ * SonarSource :: Update Center :: Maven Plugin
+ * Copyright (C) 2010-2025 SonarSource Sàrl
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.updatecenter.mojo;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.updatecenter.common.Plugin;
+import org.sonar.updatecenter.common.PluginReferential;
+import org.sonar.updatecenter.common.Product;
+import org.sonar.updatecenter.common.Release;
+import org.sonar.updatecenter.common.Sonar;
+import org.sonar.updatecenter.common.UpdateCenter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PluginPagesTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  private final TemplateEngine templateEngine = new TemplateEngine();
+  private File outputDir;
+  private Sonar sonar;
+
+  @Before
+  public void before() throws Exception {
+    outputDir = temp.newFolder();
+    sonar = new Sonar();
+    sonar.setLtaVersion("4.2");
+    sonar.addRelease(new Release(sonar, "4.2").setProduct(Product.OLD_SONARQUBE));
+    sonar.addRelease(new Release(sonar, "6.6").setProduct(Product.OLD_SONARQUBE));
+    sonar.addRelease(new Release(sonar, "2025.1").setProduct(Product.SONARQUBE_SERVER));
+    sonar.addRelease(new Release(sonar, "2025.2").setProduct(Product.SONARQUBE_SERVER));
+  }
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void generate_one_page_per_plugin() throws Exception {
+    Plugin foo = newPlugin("foo", "Foo <Magic>");
+    Release release = new Release(foo, "2.0");
+    release.setDate(new Date(Instant.parse("1986-04-14T12:00:00Z").toEpochMilli()));
+    release.setDescription("Version with more RAM");
+    release.setDownloadUrl("http://foo.bar/2.0");
+    release.setChangelogUrl("http://foo.bar/changelog/2.0");
+    release.addRequiredSonarVersions(Product.OLD_SONARQUBE, "4.2");
+    foo.addRelease(release);
+    foo.addRelease(new Release(foo, "1.0"));
+    Release serverRelease = new Release(foo, "3.0");
+    serverRelease.addRequiredSonarVersions(Product.SONARQUBE_SERVER, "2025.1", "2025.2");
+    foo.addRelease(serverRelease);
+
+    PluginPages pages = generate(foo, newPlugin("bar", "Bar"));
+
+    assertThat(pages.getRendered()).isEqualTo(2);
+    assertThat(new File(outputDir, "plugins/bar.html")).isFile();
+    String html = FileUtils.readFileToString(new File(outputDir, "plugins/foo.html"), StandardCharsets.UTF_8);
+    assertThat(html)
+      .contains("Foo &lt;Magic&gt;")
+      .contains("Version with more RAM")
+      .contains("Apr 14, 1986")
+      .contains("SonarQube 4.2 (Compatible with LTA)")
+      .contains("SonarQube Server 2025.1 - 2025.2")
+      .contains("href=\"http://foo.bar/2.0\"")
+      .contains("href=\"http://foo.bar/changelog/2.0\"");
+    assertThat(html.indexOf("2.0")).isLessThan(html.indexOf("1.0"));
+  }
+
+  @Test
+  public void render_only_plugins_changed_since_previous_run() throws Exception {
+    generate(newPlugin("foo", "Foo"), newPlugin("bar", "Bar"), newPlugin("baz", "Baz"));
+    File bazPage = new File(outputDir, "plugins/baz.html");
+    assertThat(bazPage).isFile();
+
+    Plugin foo = newPlugin("foo", "Foo");
+    foo.addRelease(new Release(foo, "1.0"));
+    PluginPages pages = generate(foo, newPlugin("bar", "Bar"));
+
+    assertThat(pages.getRendered()).isEqualTo(1);
+    assertThat(pages.getSkipped()).isEqualTo(1);
+    assertThat(FileUtils.readFileToString(new File(outputDir, "plugins/foo.html"), StandardCharsets.UTF_8)).contains("1.0");
+    assertThat(bazPage).doesNotExist();
+
+    new File(outputDir, "plugins/bar.html").delete();
+    pages = generate(foo, newPlugin("bar", "Bar"));
+    assertThat(pages.getRendered()).isEqualTo(1);
+    assertThat(new File(outputDir, "plugins/bar.html")).isFile();
+  }
+
+  @Test
+  public void render_again_plugins_whose_compatibility_changed() throws Exception {
+    generate(newServerPlugin("2025.1"));
+
+    PluginPages pages = generate(newServerPlugin("2025.1", "2025.2"));
+
+    assertThat(pages.getRendered()).isOne();
+    assertThat(FileUtils.readFileToString(new File(outputDir, "plugins/foo.html"), StandardCharsets.UTF_8))
+      .contains("SonarQube Server 2025.1 - 2025.2");
+  }
+
+  private static Plugin newServerPlugin(String... serverVersions) {
+    Plugin foo = newPlugin("foo", "Foo");
+    foo.addRelease(new Release(foo, "1.0").addRequiredSonarVersions(Product.SONARQUBE_SERVER, serverVersions));
+    return foo;
+  }
+
+  private PluginPages generate(Plugin... plugins) throws Exception {
+    PluginReferential referential = PluginReferential.create(Arrays.asList(plugins));
+    UpdateCenter center = UpdateCenter.create(referential, new ArrayList<>(), sonar, Product.OLD_SONARQUBE);
+    PluginPages pages = new PluginPages(center, CompatibilityGrid.build(center), outputDir, templateEngine, mock(Log.class));
+    pages.generate(executor);
+    return pages;
+  }
+
+  private static Plugin newPlugin(String key, String name) {
+    Plugin plugin = Plugin.factory(key);
+    plugin.setName(name);
+    return plugin;
+  }
+}
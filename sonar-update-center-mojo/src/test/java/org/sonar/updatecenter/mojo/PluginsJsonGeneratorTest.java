@@ -23,10 +23,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import org.apache.commons.io.FileUtils;
 import org.everit.json.schema.ValidationException;
+import org.json.JSONObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.sonar.updatecenter.common.PluginReferential;
 import org.sonar.updatecenter.common.Product;
@@ -39,9 +41,16 @@ import org.sonar.updatecenter.common.Plugin;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
@@ -181,4 +190,80 @@ public class PluginsJsonGeneratorTest {
     assertThat(new File(outputDir, "plugin-schema.json")).doesNotExist();
   }
 
+  @Test
+  public void shouldWriteFilesInOrderWhenSerializedConcurrently() throws Exception {
+    UpdateCenter mockUpc = mock(UpdateCenter.class);
+    PluginReferential mockReferential = mock(PluginReferential.class);
+    File outputDir = temp.newFolder();
+    Log mockLog = mock(Log.class);
+
+    Sonar stubbedSonar = new Sonar();
+    stubbedSonar.setLtaVersion("1.0");
+    stubbedSonar.setReleases(new String[] {"1.0"});
+    when(mockUpc.getSonar()).thenReturn(stubbedSonar);
+    when(mockUpc.getUpdateCenterPluginReferential()).thenReturn(mockReferential);
+
+    List<Plugin> plugins = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      Plugin plugin = Plugin.factory("plugin" + i);
+      // missing name
+      if (i != 10) {
+        plugin.setName("Plugin " + i);
+      }
+      plugins.add(plugin);
+    }
+    when(mockReferential.getPlugins()).thenReturn(plugins);
+
+    PluginsJsonGenerator underTest = PluginsJsonGenerator.create(mockUpc, outputDir, mockLog);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<JsonGenerator.JsonFile>> files = underTest.submitJsonFiles(executor);
+      assertThatThrownBy(() -> underTest.writeJsonFiles(files)).isInstanceOf(ValidationException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(new File(outputDir, "plugin" + i + ".json").exists()).isEqualTo(i < 10);
+    }
+    InOrder inOrder = inOrder(mockLog);
+    for (int i = 0; i < 10; i++) {
+      inOrder.verify(mockLog).info(startsWith("Generate json data for component plugin" + i + " "));
+    }
+    inOrder.verify(mockLog).error("plugin10 json not compliant with schema");
+    inOrder.verifyNoMoreInteractions();
+    assertThat(new File(outputDir, "plugin-schema.json")).exists();
+  }
+
+  @Test
+  public void shouldValidateAndWriteTheJsonTreeAsPrinted() throws Exception {
+    UpdateCenter mockUpc = mock(UpdateCenter.class);
+    PluginReferential mockReferential = mock(PluginReferential.class);
+    File outputDir = temp.newFolder();
+
+    Sonar stubbedSonar = new Sonar();
+    stubbedSonar.setLtaVersion("4.2");
+    stubbedSonar.setReleases(new String[] {"4.2", "6.6.6"});
+    when(mockUpc.getSonar()).thenReturn(stubbedSonar);
+    when(mockUpc.getUpdateCenterPluginReferential()).thenReturn(mockReferential);
+
+    Plugin plugin = Plugin.factory("foo");
+    plugin.setName("Foo \"<&>\" é");
+    plugin.setOrganization("Black Magicians Corp");
+    Release release = new Release(plugin, "2.0");
+    release.setDate(new Date(Instant.parse("1986-04-14T12:00:00Z").toEpochMilli()));
+    release.setDownloadUrl("http://foo.bar/2.0");
+    release.addRequiredSonarVersions(Product.OLD_SONARQUBE, "4.2");
+    plugin.addRelease(release);
+    when(mockReferential.getPlugins()).thenReturn(Arrays.asList(plugin));
+
+    PluginsJsonGenerator underTest = PluginsJsonGenerator.create(mockUpc, outputDir, mock(Log.class));
+    underTest.generateJsonFiles();
+
+    String printed = underTest.gson.toJson(underTest.createJsonOutput(plugin));
+    assertThat(new File(outputDir, "foo.json")).usingCharset(StandardCharsets.UTF_8).hasContent(printed);
+    JSONObject converted = (JSONObject) JsonGenerator.toOrgJson(underTest.gson.toJsonTree(underTest.createJsonOutput(plugin)));
+    assertThat(converted.similar(new JSONObject(printed))).isTrue();
+  }
+
 }